@@ -0,0 +1,732 @@
+package com.example.gravityrun;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+// Todo lo del juego que no es dibujar: simulación, sensores, ahorro de energía, fotos de la
+// partida, grabación de entrada y métricas. Vive en el hilo de UI, sea cual sea el backend de
+// dibujo (GameView o GameSurfaceView); el backend le pide frames y captura RenderFrames.
+final class GameController implements SensorEventListener {
+
+    // El backend de dibujo: pide un frame nuevo (desde cualquier hilo)
+    interface Host {
+        void requestFrame();
+    }
+
+    private final Context context;
+    private final Host host;
+
+    // Lógica del juego sin dependencias de Android; el controlador la alimenta
+    private final GameSimulation simulation;
+    private InputRecorder inputRecorder;
+
+    private final SensorManager sensorManager;
+    private final Sensor accelerometer, proximity, lightSensor;
+    private final float proximityMaxRange;
+
+    // --- ENTRADA DE SENSORES ---
+    // Los eventos llegan en un hilo propio y solo se encolan; la simulación los vacía por lotes
+    // en el hilo de UI y aplica el filtro paso bajo. El acelerómetro se registra con latencia
+    // máxima de reporte para que el hardware pueda agrupar eventos.
+    private final HandlerThread sensorThread;
+    private final Handler sensorHandler;
+    private final SensorRingBuffer sensorSamples = new SensorRingBuffer(256);
+    private final SensorRingBuffer.Sink sampleSink;
+    private int sensorBatchLatencyUs = 20_000;
+    // ---------------------------
+
+    // --- AHORRO DE ENERGÍA ---
+    // Solo se registran los sensores que usa el estado actual; con la inclinación estable el
+    // acelerómetro baja de ritmo y con la bola en reposo se deja de redibujar hasta que la
+    // inclinación cambie. Huecos en el orden de PowerGovernor.ACCELEROMETER/PROXIMITY/LIGHT.
+    private final PowerGovernor power = new PowerGovernor();
+    private final Sensor[] sensorSlots;
+    private final int[] registeredPeriodUs = new int[PowerGovernor.SENSOR_SLOTS];
+    // --------------------------
+
+    // --- FOTO DE LA PARTIDA ---
+    // GameSnapshot en el almacenamiento interno, para volver a la partida tras la muerte del
+    // proceso; en un cambio de configuración la foto viaja en el estado de la actividad.
+    private static final String SNAPSHOT_FILE = "snapshot.grss";
+    private long lastRestoreNanos = 0;
+    // --------------------------
+
+    // --- NIVELES EN SEGUNDO PLANO ---
+    // Un hilo propio precalcula la geometría de los niveles (LevelCache) y lee el nivel por
+    // trozos. El laberinto gigante se genera y se trocea una vez en el almacenamiento interno;
+    // sus trozos se leen mientras se juega (ver ChunkStreamer).
+    private static final String STREAMED_LEVEL_FILE = "giant.grch";
+    private static final int STREAMED_MAZE_CELLS = 400;
+    private static final long STREAMED_MAZE_SEED = 7;
+    private static final int STREAMED_CHUNK_SIZE = 1000; // Unidades de diseño
+    private final HandlerThread levelThread;
+    private final Handler levelHandler;
+    // El fichero solo está abierto mientras se juega (o se va a reponer) el nivel por trozos
+    private File streamedLevelFile; // null mientras no existe
+    private LevelChunks streamedChunks; // null con el fichero cerrado
+    // -------------------------------
+
+    // --- MARCAS ---
+    // Partidas ganadas en un diario del almacenamiento interno (RunJournal). Las escrituras se
+    // retrasan un poco en el hilo de niveles para juntar varias en una; onPause no espera.
+    private static final long RUN_FLUSH_DELAY_MS = 2000;
+    private final RunJournal runJournal;
+    private boolean restoring = false; // Una foto en estado WON no es una partida nueva
+    private boolean lastRunBest = false;
+    // ---------------
+
+    // --- CARRERA ---
+    // En el nivel de carrera la bola propia la mueve la simulación local, como siempre, y la
+    // de los demás llega de un RaceServer en loopback. La primera instancia que entra en la
+    // carrera abre el servidor en RACE_PORT; las siguientes (otras ventanas, otros procesos)
+    // encuentran el puerto ocupado y solo se unen. Toda la red va en su propio hilo.
+    private static final int RACE_PORT = 47011;
+    private final HandlerThread raceThread;
+    private final Handler raceHandler;
+    private RaceServer raceServer; // Hilo de carrera
+    private volatile RaceClient raceClient;
+    private volatile float raceTiltX, raceTiltY; // Última inclinación, para mandarla
+    private boolean racing = false; // Hilo de UI
+    private final Runnable raceFrame = this::raceFrame;
+    private final LevelPack levelPack; // El servidor simula con los mismos niveles
+    // ---------------
+
+    // --- INSTRUMENTACIÓN ---
+    // Histogramas preasignados por frame y un HUD opcional con percentiles y frames perdidos
+    private final FrameStats frameStats = new FrameStats();
+    private boolean showPerformanceHud = false;
+    private boolean frameBegun = false; // beginFrame hecho, falta su endFrame
+    private long lastPresentedTiltNanos = -1; // Última muestra ya medida sensor-a-pantalla
+    // -----------------------
+
+    GameController(Context context, Host host) {
+        this.context = context;
+        this.host = host;
+
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        accelerometer = sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
+        proximity = sensorManager.getDefaultSensor(Sensor.TYPE_PROXIMITY);
+        lightSensor = sensorManager.getDefaultSensor(Sensor.TYPE_LIGHT);
+        proximityMaxRange = proximity != null ? proximity.getMaximumRange() : 0;
+        sensorSlots = new Sensor[]{accelerometer, proximity, lightSensor};
+
+        sensorThread = new HandlerThread("GravityRunSensors");
+        sensorThread.start();
+        sensorHandler = new Handler(sensorThread.getLooper());
+        levelThread = new HandlerThread("GravityRunLevels");
+        levelThread.start();
+        levelHandler = new Handler(levelThread.getLooper());
+        raceThread = new HandlerThread("GravityRunRace");
+        raceThread.start();
+        raceHandler = new Handler(raceThread.getLooper());
+
+        // Niveles en formato binario compacto; cada uno se decodifica solo cuando se carga
+        LevelPack levelPack;
+        try (InputStream in = context.getAssets().open("levels.bin")) {
+            levelPack = LevelPack.read(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudieron leer los niveles", e);
+        }
+        this.levelPack = levelPack;
+        simulation = new GameSimulation(levelPack, frameStats);
+        runJournal = RunJournal.open(context.getFilesDir(), r -> levelHandler.postDelayed(r, RUN_FLUSH_DELAY_MS));
+        simulation.setListener((from, to) -> {
+            power.onStateChanged(to, SystemClock.elapsedRealtimeNanos());
+            if (to == GameState.WON && !restoring) {
+                recordRun();
+            } else if (to == GameState.RUNNING) {
+                lastRunBest = false;
+            }
+        });
+        simulation.setProximityMaxRange(proximityMaxRange);
+        sampleSink = (type, timestampNanos, v0, v1, v2) -> {
+            if (type == Sensor.TYPE_ACCELEROMETER) {
+                power.onTilt(v0, v1, timestampNanos);
+                raceTiltX = v0;
+                raceTiltY = v1;
+            }
+            simulation.handleSample(type, timestampNanos, v0, v1, v2);
+        };
+        // Antes que nada más en el hilo: el primer toque en el menú ya encuentra su nivel
+        simulation.precomputeLevels(levelHandler::post);
+        prepareStreamedLevel();
+
+        resumeSensors();
+    }
+
+    void setRefreshRate(float hz) {
+        frameStats.setRefreshRate(hz);
+        power.setRefreshRate(hz);
+    }
+
+    // --- Niveles ---
+    private void loadLevel(int level) {
+        if (level == GameSimulation.STREAMED_LEVEL) {
+            ensureStreamedLevel();
+        }
+        sensorSamples.clear();
+        simulation.loadLevel(level);
+        onLevelLoaded(level);
+    }
+
+    // Sensores y ritmo de una carga de nivel; la paleta la recoge el renderizador del frame
+    private void onLevelLoaded(int level) {
+        if (level != GameSimulation.STREAMED_LEVEL) {
+            closeStreamedLevel();
+        }
+        if (level == GameSimulation.RACE_LEVEL) {
+            startRace();
+        } else {
+            stopRace();
+        }
+        power.setAnimated(simulation.animatesWithoutInput());
+        if (level == 0) { // Menú de Selección
+            applySensorPlan();
+        } else {
+            resumeSensors();
+        }
+        host.requestFrame();
+    }
+
+    // Si el fichero del nivel por trozos ya existe se abre aquí mismo (solo cabecera e índice,
+    // unos KB) para comprobarlo y para que una foto de ese nivel se pueda reponer antes del
+    // primer frame; se cierra al cargar otro nivel. Si no existe, se genera en el hilo de
+    // niveles y queda disponible al terminar.
+    private void prepareStreamedLevel() {
+        File file = new File(context.getFilesDir(), STREAMED_LEVEL_FILE);
+        if (file.exists()) {
+            try {
+                openStreamedLevel(file);
+                return;
+            } catch (IOException | IllegalArgumentException e) {
+                file.delete(); // Roto o de otra versión: se vuelve a generar
+            }
+        }
+        Handler main = new Handler(Looper.getMainLooper());
+        levelHandler.post(() -> {
+            File tmp = new File(file.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                LevelData maze = WallCompiler.compile(
+                        MazeGenerator.generate(STREAMED_MAZE_CELLS, STREAMED_MAZE_CELLS, STREAMED_MAZE_SEED));
+                LevelChunks.write(maze, STREAMED_CHUNK_SIZE, out);
+                out.getFD().sync();
+            } catch (IOException e) {
+                tmp.delete();
+                return;
+            }
+            if (!tmp.renameTo(file)) return;
+            // Se abre al elegir el nivel
+            main.post(() -> streamedLevelFile = file);
+        });
+    }
+
+    private void openStreamedLevel(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+        try {
+            streamedChunks = LevelChunks.open(channel);
+        } catch (IOException | IllegalArgumentException e) {
+            channel.close();
+            throw e;
+        }
+        streamedLevelFile = file;
+        simulation.setStreamedLevel(streamedChunks, levelHandler::post);
+    }
+
+    // Abre el nivel por trozos si hay fichero y no está abierto ya
+    private void ensureStreamedLevel() {
+        if (streamedChunks != null || streamedLevelFile == null) return;
+        try {
+            openStreamedLevel(streamedLevelFile);
+        } catch (IOException | IllegalArgumentException e) {
+            streamedLevelFile = null; // Sin nivel por trozos: su botón no hace nada
+        }
+    }
+
+    // Se cierra en el hilo de niveles, detrás de las lecturas de trozos que aún tenga en cola
+    private void closeStreamedLevel() {
+        LevelChunks chunks = streamedChunks;
+        if (chunks == null) return;
+        streamedChunks = null;
+        simulation.setStreamedLevel(null, null);
+        levelHandler.post(() -> {
+            try {
+                chunks.close();
+            } catch (IOException e) {
+                // Ya cerrado
+            }
+        });
+    }
+
+    // Hilo de UI: solo memoria y una cola, el disco lo toca el hilo de niveles
+    private void recordRun() {
+        long[] splits = new long[RunJournal.SPLITS];
+        for (int i = 0; i < splits.length; i++) {
+            splits[i] = simulation.splitNanos(i);
+        }
+        lastRunBest = runJournal.record(new RunJournal.Run(simulation.currentLevel(), simulation.elapsedNanos(),
+                splits, System.currentTimeMillis()));
+    }
+
+    // Escribe ya lo que quede pendiente del diario (en el hilo de niveles, sin esperar)
+    void flushRuns() {
+        levelHandler.post(runJournal::flush);
+    }
+
+    // --- Carrera ---
+    private void startRace() {
+        if (racing) return;
+        racing = true;
+        raceHandler.post(() -> {
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), RACE_PORT);
+            try {
+                raceServer = RaceServer.open(address, levelPack, GameSimulation.RACE_LEVEL);
+                raceServer.start();
+            } catch (BindException e) {
+                raceServer = null; // Ya hay otra instancia de servidor
+            } catch (IOException e) {
+                raceServer = null;
+                return;
+            }
+            connectRace();
+        });
+    }
+
+    // Hilo de carrera
+    private void connectRace() {
+        try {
+            RaceClient client = RaceClient.connect(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), RACE_PORT));
+            client.join(System.nanoTime());
+            raceClient = client;
+            raceFrame();
+        } catch (IOException e) {
+            // Sin red: se juega sola
+        }
+    }
+
+    // En segundo plano no se manda nada; el servidor libera la plaza a los pocos segundos
+    void pauseRace() {
+        raceHandler.post(() -> raceHandler.removeCallbacks(raceFrame));
+    }
+
+    // Vuelve con un cliente nuevo: la plaza anterior puede haber caducado
+    void resumeRace() {
+        if (!racing) return;
+        raceHandler.post(() -> {
+            raceHandler.removeCallbacks(raceFrame);
+            RaceClient client = raceClient;
+            if (client == null) return;
+            try {
+                client.close();
+            } catch (IOException e) {
+                // Se cierra igual
+            }
+            connectRace();
+        });
+    }
+
+    private void stopRace() {
+        if (!racing) return;
+        racing = false;
+        raceHandler.removeCallbacks(raceFrame);
+        raceHandler.post(this::closeRace);
+    }
+
+    // Hilo de carrera: deja de mandar y cierra cliente y servidor (libera RACE_PORT)
+    private void closeRace() {
+        raceHandler.removeCallbacks(raceFrame);
+        RaceClient client = raceClient;
+        raceClient = null;
+        try {
+            if (client != null) client.close();
+        } catch (IOException e) {
+            // Se cierra igual
+        }
+        try {
+            if (raceServer != null) raceServer.close();
+        } catch (IOException e) {
+            // Se cierra igual
+        }
+        raceServer = null;
+    }
+
+    // Hilo de carrera, al ritmo del servidor: recibe y manda la inclinación (y la confirmación)
+    private void raceFrame() {
+        RaceClient client = raceClient;
+        if (client == null) return;
+        try {
+            client.poll(System.nanoTime());
+            client.sendInput(raceTiltX, raceTiltY);
+        } catch (IOException e) {
+            // Un datagrama perdido: el siguiente frame lo arregla
+        }
+        raceHandler.postDelayed(raceFrame, 1000 / RaceServer.TICK_HZ);
+        host.requestFrame(); // Los rivales se mueven aunque la bola propia esté quieta
+    }
+
+    private void resetGame() {
+        loadLevel(0);
+    }
+
+    // Toque en pantalla: levelButton es el nivel del botón del menú tocado (0 si ninguno)
+    boolean onTap(int levelButton) {
+        GameState gameState = simulation.gameState();
+        if (gameState == GameState.WON || gameState == GameState.LOST) {
+            resetGame();
+            return true;
+        } else if (gameState == GameState.LEVEL_SELECT && levelButton > 0) {
+            if (levelButton == GameSimulation.STREAMED_LEVEL) {
+                ensureStreamedLevel();
+            }
+            if (!simulation.canLoad(levelButton)) return false;
+            loadLevel(levelButton);
+            return true;
+        }
+        return false;
+    }
+
+    // --- Frames ---
+    // Comienzo de un frame de animación (callback de Choreographer): vacía los sensores y, si
+    // la partida corre, avanza la simulación hasta ahora. Devuelve si corre.
+    boolean beginFrame() {
+        drainSensorsAndWake();
+        if (!isLive()) {
+            return false;
+        }
+        frameStats.beginFrame(System.nanoTime());
+        frameBegun = true;
+        // El reloj de pasos va en la base de SensorEvent.timestamp, como PowerGovernor
+        simulation.advance(SystemClock.elapsedRealtimeNanos());
+        return true;
+    }
+
+    // En reposo solo se redibuja lo que pida otra cosa (luz, proximidad), sin simular
+    boolean isLive() {
+        return simulation.gameState() == GameState.RUNNING && !power.isIdle();
+    }
+
+    void capture(RenderFrame frame) {
+        frame.capture(simulation);
+        frame.bestNanos = runJournal.bestNanos(simulation.currentLevel());
+        frame.newBest = lastRunBest;
+        RaceClient client = simulation.currentLevel() == GameSimulation.RACE_LEVEL ? raceClient : null;
+        if (client != null) {
+            client.interpolate(System.nanoTime());
+        }
+        frame.captureRace(client);
+        frame.performanceHud = showPerformanceHud;
+        if (showPerformanceHud) {
+            LatencyHistogram frames = frameStats.frameInterval;
+            frame.frameP50 = frames.percentile(0.50);
+            frame.frameP95 = frames.percentile(0.95);
+            frame.frameP99 = frames.percentile(0.99);
+            frame.droppedFrames = frameStats.droppedFrames();
+        }
+    }
+
+    // Cierra un frame ya dibujado: coste del dibujo, latencia sensor-a-pantalla de la muestra
+    // de inclinación que mostraba (presentedTiltNanos, presentada en presentedAtNanos) y
+    // decisión de reposo. Devuelve si hay que pedir otro frame de animación.
+    boolean endFrame(long drawNanos, long presentedTiltNanos, long presentedAtNanos) {
+        boolean animate = false;
+        if (!isLive()) {
+            frameStats.breakFrameChain();
+            frameBegun = false;
+        } else {
+            if (frameBegun) {
+                frameStats.endFrame(drawNanos);
+                frameBegun = false;
+            }
+            if (presentedTiltNanos != lastPresentedTiltNanos && presentedTiltNanos >= 0) {
+                frameStats.recordSensorToPhoton(presentedAtNanos - presentedTiltNanos);
+                lastPresentedTiltNanos = presentedTiltNanos;
+            }
+            animate = power.onFrame(simulation.ballX(), simulation.ballY(), SystemClock.elapsedRealtimeNanos());
+            if (!animate) {
+                // Entra en reposo: el hueco hasta el próximo frame no es un frame perdido
+                frameStats.breakFrameChain();
+            }
+        }
+        // Victoria, derrota o reposo pueden haber cambiado los sensores necesarios
+        applySensorPlan();
+        return animate;
+    }
+
+    void drainSensorsAndWake() {
+        drainSensorSamples();
+        if (power.resumeIfWoken(SystemClock.elapsedRealtimeNanos())) {
+            // El rato en reposo cuenta en el tiempo de partida, sin pasos pendientes de golpe
+            simulation.resumeClock(SystemClock.elapsedRealtimeNanos());
+        }
+        applySensorPlan();
+    }
+
+    // --- Foto de la partida ---
+    // Captura la partida en curso; en onPause se guarda además en disco (ver saveSnapshot)
+    byte[] captureSnapshot() {
+        return GameSnapshot.capture(simulation);
+    }
+
+    // La captura es del hilo de UI (unos pocos campos); la escritura va al hilo de sensores,
+    // que en onPause se queda sin trabajo. Se escribe en un temporal y se renombra, para que
+    // una muerte a medio escribir no deje una foto rota.
+    void saveSnapshot() {
+        byte[] snapshot = captureSnapshot();
+        File dir = context.getFilesDir();
+        sensorHandler.post(() -> {
+            File tmp = new File(dir, SNAPSHOT_FILE + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(snapshot);
+                out.getFD().sync();
+            } catch (IOException e) {
+                tmp.delete();
+                return;
+            }
+            tmp.renameTo(new File(dir, SNAPSHOT_FILE));
+        });
+    }
+
+    // Vuelve a la partida guardada antes del primer frame. Con snapshot == null (sin estado de
+    // la actividad) se lee la última foto escrita en disco. Devuelve si había algo que reponer.
+    boolean restoreSnapshot(byte[] snapshot) {
+        long start = System.nanoTime();
+        if (snapshot == null) {
+            snapshot = readSnapshotFile();
+        }
+        // La foto puede ser del nivel por trozos; si no, onLevelLoaded lo vuelve a cerrar
+        ensureStreamedLevel();
+        restoring = true;
+        boolean restored;
+        try {
+            restored = GameSnapshot.restore(simulation, snapshot);
+        } finally {
+            restoring = false;
+        }
+        if (restored) {
+            sensorSamples.clear();
+            onLevelLoaded(simulation.currentLevel());
+        } else if (simulation.currentLevel() != GameSimulation.STREAMED_LEVEL) {
+            closeStreamedLevel();
+        }
+        lastRestoreNanos = System.nanoTime() - start;
+        return restored;
+    }
+
+    private byte[] readSnapshotFile() {
+        File file = new File(context.getFilesDir(), SNAPSHOT_FILE);
+        if (file.length() != GameSnapshot.SIZE) return null;
+        byte[] snapshot = new byte[GameSnapshot.SIZE];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(snapshot);
+            return snapshot;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Coste de la última reanudación (lectura + carga del nivel); debe caber en un frame
+    long getLastRestoreNanos() {
+        return lastRestoreNanos;
+    }
+
+    // --- Instrumentación ---
+    void setPerformanceHudVisible(boolean visible) {
+        showPerformanceHud = visible;
+        host.requestFrame();
+    }
+
+    boolean isPerformanceHudVisible() {
+        return showPerformanceHud;
+    }
+
+    void resetPerformanceStats() {
+        frameStats.reset();
+    }
+
+    // Escribe el resumen de la sesión en el almacenamiento interno de la app; backend nombra
+    // el camino de dibujo medido, para comparar los dos
+    File dumpPerformanceSummary(String backend) throws IOException {
+        File file = new File(context.getFilesDir(), "perf-" + System.currentTimeMillis() + ".txt");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write("backend " + backend + "\n");
+            frameStats.writeSummary(out);
+            out.write("restore_ns " + lastRestoreNanos + "\n");
+            power.writeSummary(out, SystemClock.elapsedRealtimeNanos());
+            simulation.levelCache().writeSummary(out);
+            runJournal.writeSummary(out);
+            ChunkStreamer streamer = simulation.chunkStreamer();
+            if (streamer != null) {
+                streamer.writeSummary(out);
+            }
+        }
+        return file;
+    }
+
+    // Hilo de sensores: solo encola la muestra, sin tocar el estado del juego
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        int type = event.sensor.getType();
+        float[] v = event.values;
+        if (type == Sensor.TYPE_ACCELEROMETER && !power.acceptTilt(v[0], v[1])) {
+            return; // En reposo y con la misma inclinación: nada que simular ni que dibujar
+        }
+        sensorSamples.offer(type, event.timestamp, v[0], v.length > 1 ? v[1] : 0, v.length > 2 ? v[2] : 0);
+
+        // Mientras corre, el bucle de dibujo ya se pide solo; proximidad y luz pueden cambiar
+        // el estado o el fondo fuera de ese bucle, y una inclinación nueva despierta al juego
+        // en reposo
+        if (type != Sensor.TYPE_ACCELEROMETER || power.isIdle()) {
+            host.requestFrame();
+        }
+    }
+
+    // Hilo de UI: vacía por lotes las muestras pendientes
+    private void drainSensorSamples() {
+        sensorSamples.drain(sampleSink, sensorSamples.capacity());
+    }
+
+    void setTiltFilterTimeConstant(float seconds) {
+        simulation.setTiltFilterTimeConstant(seconds);
+    }
+
+    void setSensorBatchLatencyUs(int latencyUs) {
+        sensorBatchLatencyUs = latencyUs;
+    }
+
+    long getDroppedSensorSamples() {
+        return sensorSamples.dropped();
+    }
+
+    // --- Grabación de entrada ---
+    // Graba todo lo que alimenta a la simulación para reproducirlo sin pantalla (InputReplayer)
+    void startInputRecording() {
+        inputRecorder = new InputRecorder();
+        simulation.setRecorder(inputRecorder);
+        // La grabación empieza en un estado conocido: el nivel actual desde el principio
+        loadLevel(simulation.currentLevel());
+    }
+
+    // Detiene la grabación y la guarda en el almacenamiento interno de la app
+    File stopInputRecording() throws IOException {
+        if (inputRecorder == null) return null;
+        simulation.setRecorder(null);
+        File file = new File(context.getFilesDir(), "input-" + System.currentTimeMillis() + ".grrc");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            inputRecorder.writeTo(out);
+        }
+        inputRecorder = null;
+        return file;
+    }
+
+    // --- Métricas del bucle de simulación ---
+    long getLastStepCostNanos() {
+        return simulation.lastStepCostNanos();
+    }
+
+    int getLastFrameSteps() {
+        return simulation.lastFrameSteps();
+    }
+
+    long getTotalSimulationSteps() {
+        return simulation.totalSteps();
+    }
+
+    // --- Caché de niveles ---
+    long getLevelCacheHits() {
+        return simulation.levelCache().hits();
+    }
+
+    long getLevelCacheMisses() {
+        return simulation.levelCache().misses();
+    }
+
+    // --- Marcas ---
+    long getBestRunNanos(int level) {
+        return runJournal.bestNanos(level);
+    }
+
+    long getRunJournalOpenNanos() {
+        return runJournal.openNanos();
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {}
+
+    void resumeSensors() {
+        simulation.resetClock();
+        power.setForeground(true, SystemClock.elapsedRealtimeNanos());
+        applySensorPlan();
+    }
+
+    // Fin del controlador (onDestroy de la actividad): suelta sensores e hilos. Lo que ya
+    // estaba en cola (la foto de onPause) se termina de escribir antes de que paren.
+    void release() {
+        sensorManager.unregisterListener(this);
+        sensorThread.quitSafely();
+        closeStreamedLevel(); // En cola en el hilo de niveles, que aún lo ejecuta
+        levelThread.quitSafely();
+
+        // Los sockets se cierran en el hilo de carrera, sin esperar en el de UI: el cierre va en
+        // cola antes de quitSafely y libera RACE_PORT en cuanto el hilo llega a él
+        racing = false;
+        raceHandler.removeCallbacks(raceFrame);
+        raceHandler.post(this::closeRace);
+        raceThread.quitSafely();
+    }
+
+    void pauseSensors() {
+        power.setForeground(false, SystemClock.elapsedRealtimeNanos());
+        applySensorPlan();
+    }
+
+    // Registra, quita o cambia de ritmo solo los sensores cuyo periodo deseado cambió
+    private void applySensorPlan() {
+        if (!power.takePlanChange()) return;
+        for (int slot = 0; slot < PowerGovernor.SENSOR_SLOTS; slot++) {
+            Sensor sensor = sensorSlots[slot];
+            int period = power.periodUs(slot);
+            if (sensor == null || period == registeredPeriodUs[slot]) continue;
+
+            // Un listener ya registrado no puede cambiar de ritmo: hay que quitarlo antes
+            if (registeredPeriodUs[slot] != PowerGovernor.OFF) {
+                sensorManager.unregisterListener(this, sensor);
+            }
+            if (period != PowerGovernor.OFF) {
+                int latencyUs = slot == PowerGovernor.ACCELEROMETER ? sensorBatchLatencyUs : 0;
+                sensorManager.registerListener(this, sensor, period, latencyUs, sensorHandler);
+            }
+            registeredPeriodUs[slot] = period;
+        }
+    }
+
+    // --- Ahorro de energía ---
+    double getFramesSavedPerMinute() {
+        return power.framesSavedPerMinute(SystemClock.elapsedRealtimeNanos());
+    }
+
+    double getSensorEventsSavedPerMinute() {
+        return power.sensorEventsSavedPerMinute(SystemClock.elapsedRealtimeNanos());
+    }
+}
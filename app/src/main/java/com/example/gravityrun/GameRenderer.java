@@ -0,0 +1,656 @@
+package com.example.gravityrun;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.util.LongSparseArray;
+
+// Dibujo del juego a partir de un RenderFrame: nivel, jugador, perseguidores, bolas, menú,
+// mensajes y HUD. No lee la simulación, así que lo puede usar tanto GameView en el hilo de UI
+// como GameSurfaceView en su hilo de dibujo; cada instancia es de un solo hilo.
+final class GameRenderer {
+
+    static final int LEVEL_BUTTONS = 8;
+
+    // --- CAMINO SIN ASIGNACIONES ---
+    // En RUNNING y LEVEL_SELECT cada frame reutiliza la geometría, los colores y los textos
+    // preparados al crear el renderizador o al cambiar de nivel: nada de objetos nuevos por frame.
+    private static final int MENU_BUTTON_COLOR = 0xFF282828;
+    private static final int MENU_BORDER_COLOR = 0xFF444444;
+    private static final int DEFAULT_WALL_COLOR = Color.DKGRAY;
+    private static final int GHOST_ALPHA = 96;
+    private static final float HALF_SQRT_3 = (float) (Math.sqrt(3) / 2);
+    private final Path trianglePath = new Path();
+    private String wonMessage = "";
+    private final String[] levelLabels = new String[LEVEL_BUTTONS];
+    // -------------------------------
+
+    // Botones del menú en unidades de diseño: se crean una vez y la matriz los escala
+    private static final RectF[] levelButtons = new RectF[LEVEL_BUTTONS];
+
+    static {
+        float width = GameSimulation.DESIGN_WIDTH, height = GameSimulation.DESIGN_HEIGHT;
+        float startY = height / 3;
+        // Los botones se reparten el espacio bajo el título, con un margen de 1/4 de hueco
+        float slot = (height - startY - height / 20) / LEVEL_BUTTONS;
+        float buttonHeight = slot * 0.75f;
+        float buttonWidth = width * 0.7f;
+        float margin = slot * 0.25f;
+
+        for (int i = 0; i < LEVEL_BUTTONS; i++) {
+            float top = startY + (i * (buttonHeight + margin));
+            float bottom = top + buttonHeight;
+            float left = (width - buttonWidth) / 2;
+            float right = left + buttonWidth;
+            levelButtons[i] = new RectF(left, top, right, bottom);
+        }
+    }
+
+    // --- ESCALADO Y CENTRADO ---
+    // La simulación, los niveles y el menú están en unidades de diseño; al dibujar se aplica
+    // una sola matriz (offset, escala y cámara). Un cambio de tamaño solo recalcula estos
+    // tres valores, sin tocar la geometría.
+    private float maxX, maxY;
+    private float scaleFactor = 1.0f;
+    private float offsetX = 0;
+    private float offsetY = 0;
+    // ---------------------------
+
+    // --- CÁMARA ---
+    // Para niveles más grandes que la pantalla la cámara sigue a la bola y solo se dibujan los
+    // muros dentro del rectángulo visible (más un margen), consultados a la rejilla. Cámara y
+    // rectángulo visible van en unidades de diseño.
+    private static final float CULL_MARGIN_DESIGN = 50f;
+    private float cameraX = 0, cameraY = 0;
+    private float viewLeft, viewTop, viewRight, viewBottom;
+    private int[] visibleWalls = new int[0];
+    private volatile int drawnWalls = 0, culledWalls = 0;
+    private final StringBuilder wallCounterText = new StringBuilder(32);
+    private final StringBuilder ballsHomeText = new StringBuilder(32);
+    private final StringBuilder hudText = new StringBuilder(64);
+    private final StringBuilder runTimeText = new StringBuilder(48);
+    private final Rect hudBounds = new Rect();
+    private final Rect runTimerBounds = new Rect();
+    // --------------
+
+    // --- CAPA ESTÁTICA PRE-RENDERIZADA ---
+    // Muros, bordes y meta se hornean en un Bitmap a resolución de pantalla, y cada
+    // combinación forma/color/radio del jugador en un sprite. Con la capa activa, cada frame
+    // es un blit del nivel más el sprite. Un cambio de tamaño o de nivel solo la marca como
+    // caducada; se vuelve a hornear en el siguiente dibujo. Se puede desactivar para comparar
+    // tiempos.
+    private volatile boolean useStaticLayer = true;
+    private Bitmap staticLayer;
+    private boolean staticLayerStale = false;
+    private final LongSparseArray<Bitmap> playerSprites = new LongSparseArray<>();
+    private float spriteRadius = -1;
+    // -------------------------------------
+
+    // Nivel cuya paleta y meta están preparadas
+    private int paletteLevel = -1;
+    private LevelData paletteData;
+    private final RectF exitRect = new RectF();
+    private final Rect drawnPlayerBounds = new Rect();
+
+    private final Paint paintBall, paintText, paintWalls, paintExit, paintMenu, paintMenuBorder, paintHud, paintChaser, paintGhost;
+
+    GameRenderer() {
+        paintBall = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintBall.setColor(Color.RED);
+
+        paintText = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintText.setColor(Color.WHITE);
+        paintText.setTextAlign(Paint.Align.CENTER);
+
+        paintWalls = new Paint();
+        paintWalls.setColor(DEFAULT_WALL_COLOR);
+        paintExit = new Paint();
+        paintMenu = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintMenu.setColor(MENU_BUTTON_COLOR);
+        paintMenu.setStyle(Paint.Style.FILL);
+        paintMenuBorder = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintMenuBorder.setColor(MENU_BORDER_COLOR);
+        paintMenuBorder.setStyle(Paint.Style.STROKE);
+        paintMenuBorder.setStrokeWidth(5);
+        paintHud = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintChaser = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintChaser.setColor(Color.WHITE);
+        paintGhost = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paintHud.setColor(Color.WHITE);
+        paintHud.setTextAlign(Paint.Align.LEFT);
+
+        paintExit.setColor(Color.GREEN);
+        paintExit.setStyle(Paint.Style.FILL);
+        paintExit.setShadowLayer(10.0f, 0.0f, 0.0f, Color.WHITE);
+
+        for (int i = 0; i < LEVEL_BUTTONS; i++) {
+            int level = i + 1;
+            levelLabels[i] = level == GameSimulation.ENDLESS_LEVEL ? "LABERINTO"
+                    : level == GameSimulation.CHASE_LEVEL ? "PERSECUCIÓN"
+                    : level == GameSimulation.MULTI_BALL_LEVEL ? "MULTIBOLA"
+                    : level == GameSimulation.STREAMED_LEVEL ? "GIGANTE"
+                    : level == GameSimulation.RACE_LEVEL ? "CARRERA" : "NIVEL " + level;
+        }
+    }
+
+    // --- Lógica de Escalado y Centrado ---
+    static float scaleFor(int width, int height) {
+        return Math.min(width / GameSimulation.DESIGN_WIDTH, height / GameSimulation.DESIGN_HEIGHT);
+    }
+
+    void resize(int width, int height) {
+        maxX = width;
+        maxY = height;
+        scaleFactor = scaleFor(width, height);
+
+        float finalWidth = GameSimulation.DESIGN_WIDTH * scaleFactor;
+        float finalHeight = GameSimulation.DESIGN_HEIGHT * scaleFactor;
+        offsetX = (width - finalWidth) / 2;
+        offsetY = (height - finalHeight) / 2;
+
+        // El HUD va en píxeles de pantalla, pegado al borde inferior
+        paintHud.setTextSize(30 * scaleFactor);
+        hudBounds.set(0, (int) (maxY - 60 * scaleFactor), (int) maxX, (int) maxY);
+        // Línea del cronómetro (base en y = 80): cubre el texto de 30 con su descendente
+        runTimerBounds.set(0, (int) (45 * scaleFactor), (int) maxX, (int) Math.ceil(95 * scaleFactor));
+        staticLayerStale = true;
+    }
+
+    // Nivel del botón del menú bajo el punto de pantalla (x, y) en una superficie de
+    // width x height, o 0 si no hay ninguno. Los botones están en diseño: se deshace la escala
+    // y el centrado (el menú no tiene cámara).
+    static int levelButtonAt(float x, float y, int width, int height) {
+        float scale = scaleFor(width, height);
+        float designX = (x - (width - GameSimulation.DESIGN_WIDTH * scale) / 2) / scale;
+        float designY = (y - (height - GameSimulation.DESIGN_HEIGHT * scale) / 2) / scale;
+        for (int i = 0; i < LEVEL_BUTTONS; i++) {
+            if (levelButtons[i].contains(designX, designY)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    // Pantalla -> diseño, deshaciendo la matriz de dibujo (offset, escala y cámara)
+    private float toDesignX(float screenX) {
+        return (screenX - offsetX) / scaleFactor + cameraX;
+    }
+
+    private float toDesignY(float screenY) {
+        return (screenY - offsetY) / scaleFactor + cameraY;
+    }
+
+    // Diseño -> pantalla, para lo que se dibuja en píxeles (sprite del jugador, regiones sucias)
+    private float toScreenX(float designX) {
+        return offsetX + (designX - cameraX) * scaleFactor;
+    }
+
+    private float toScreenY(float designY) {
+        return offsetY + (designY - cameraY) * scaleFactor;
+    }
+
+    private void applyDesignMatrix(Canvas canvas) {
+        canvas.translate(offsetX, offsetY);
+        canvas.scale(scaleFactor, scaleFactor);
+        canvas.translate(-cameraX, -cameraY);
+    }
+
+    // Paleta, meta y textos del nivel del frame; solo cambian al cambiar de nivel
+    private void preparePalette(RenderFrame frame) {
+        if (frame.level == paletteLevel && frame.levelData == paletteData) return;
+        paletteLevel = frame.level;
+        paletteData = frame.levelData;
+        staticLayerStale = true;
+
+        LevelData data = frame.levelData;
+        if (data == null) { // Menú de Selección
+            paintWalls.setColor(DEFAULT_WALL_COLOR);
+            paintBall.setColor(Color.GRAY);
+            releaseStaticLayer();
+            return;
+        }
+
+        // Paleta del nivel (desde assets/levels.bin o generado)
+        paintWalls.setColor(data.wallColor);
+        paintBall.setColor(data.ballColor);
+        // Las bolas de los rivales, del mismo color pero translúcidas
+        paintGhost.setColor(data.ballColor);
+        paintGhost.setAlpha(GHOST_ALPHA);
+        paintExit.setColor(data.exitColor);
+        wonMessage = "¡GANASTE EL NIVEL " + frame.level + "! Toca para continuar.";
+        exitRect.set(frame.exitLeft, frame.exitTop, frame.exitRight, frame.exitBottom);
+    }
+
+    // --- Capa estática y sprites ---
+    private void buildStaticLayer(RenderFrame frame) {
+        releaseStaticLayer();
+        staticLayerStale = false;
+        if (frame.wallGrid == null || maxX <= 0 || maxY <= 0) return;
+        // Un nivel que no cabe en pantalla se dibuja recortado por la cámara, sin capa
+        if (levelScrolls(frame)) return;
+
+        staticLayer = Bitmap.createBitmap((int) maxX, (int) maxY, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(staticLayer);
+        applyDesignMatrix(canvas);
+        drawLevelGeometry(canvas, frame.wallGrid, viewLeft, viewTop, viewRight, viewBottom);
+    }
+
+    private void releaseStaticLayer() {
+        if (staticLayer != null) {
+            staticLayer.recycle();
+            staticLayer = null;
+        }
+    }
+
+    // Suelta los bitmaps (la superficie se va); se rehacen en el siguiente dibujo
+    void release() {
+        releaseStaticLayer();
+        staticLayerStale = true;
+        for (int i = 0; i < playerSprites.size(); i++) {
+            playerSprites.valueAt(i).recycle();
+        }
+        playerSprites.clear();
+    }
+
+    // Dibuja los muros que tocan el rectángulo visible (l,t,r,b, en diseño) y la meta
+    private void drawLevelGeometry(Canvas canvas, WallGrid wallGrid, float l, float t, float r, float b) {
+        // La rejilla de un nivel por trozos cambia (y crece) mientras se juega
+        if (visibleWalls.length < wallGrid.count) {
+            visibleWalls = new int[wallGrid.count];
+        }
+        float[] left = wallGrid.left, top = wallGrid.top, right = wallGrid.right, bottom = wallGrid.bottom;
+        int drawn = wallGrid.collect(l, t, r, b, visibleWalls);
+        for (int k = 0; k < drawn; k++) {
+            int i = visibleWalls[k];
+            canvas.drawRect(left[i], top[i], right[i], bottom[i], paintWalls);
+        }
+        drawnWalls = drawn;
+        culledWalls = wallGrid.count - drawn;
+
+        if (exitRect.left < r && l < exitRect.right && exitRect.top < b && t < exitRect.bottom) {
+            canvas.drawRoundRect(exitRect, 10, 10, paintExit);
+        }
+    }
+
+    // --- Cámara ---
+    private boolean levelScrolls(RenderFrame frame) {
+        // Medio píxel de tolerancia por el redondeo del escalado al diseño
+        return frame.levelRight * scaleFactor > maxX + 0.5f
+                || frame.levelBottom * scaleFactor > maxY + 0.5f;
+    }
+
+    // Centra la cámara en el jugador sin salirse del nivel; si el nivel cabe, queda fija. Todo
+    // en diseño: la bola queda en el centro de la pantalla y el borde del nivel no pasa del de
+    // la pantalla.
+    void updateCamera(RenderFrame frame) {
+        if (frame.wallGrid == null || !levelScrolls(frame)) {
+            cameraX = 0;
+            cameraY = 0;
+        } else {
+            cameraX = clampCamera(frame.playerX - (maxX / 2 - offsetX) / scaleFactor,
+                    frame.levelRight - (maxX - offsetX) / scaleFactor);
+            cameraY = clampCamera(frame.playerY - (maxY / 2 - offsetY) / scaleFactor,
+                    frame.levelBottom - (maxY - offsetY) / scaleFactor);
+        }
+        viewLeft = toDesignX(0);
+        viewTop = toDesignY(0);
+        viewRight = toDesignX(maxX);
+        viewBottom = toDesignY(maxY);
+    }
+
+    private static float clampCamera(float value, float max) {
+        if (value > max) value = max;
+        if (value < 0) value = 0;
+        return value;
+    }
+
+    float cameraX() {
+        return cameraX;
+    }
+
+    float cameraY() {
+        return cameraY;
+    }
+
+    int drawnWalls() {
+        return drawnWalls;
+    }
+
+    int culledWalls() {
+        return culledWalls;
+    }
+
+    Rect hudBounds() {
+        return hudBounds;
+    }
+
+    // Zona del cronómetro y la marca; en partida cambia en cada frame
+    Rect runTimerBounds() {
+        return runTimerBounds;
+    }
+
+    // Caja en pantalla del jugador en el último dibujo (vacía si no se dibujó)
+    Rect drawnPlayerBounds() {
+        return drawnPlayerBounds;
+    }
+
+    void setStaticLayerEnabled(boolean enabled) {
+        useStaticLayer = enabled;
+    }
+
+    boolean isStaticLayerEnabled() {
+        return useStaticLayer;
+    }
+
+    // Sprite para la forma y color actuales; se genera la primera vez que se necesita
+    private Bitmap playerSprite(PlayerShape shape, float radius) {
+        if (spriteRadius != radius) {
+            for (int i = 0; i < playerSprites.size(); i++) {
+                playerSprites.valueAt(i).recycle();
+            }
+            playerSprites.clear();
+            spriteRadius = radius;
+        }
+
+        int color = paintBall.getColor();
+        long key = ((long) color << 8) | shape.ordinal();
+        Bitmap sprite = playerSprites.get(key);
+        if (sprite == null) {
+            int size = (int) Math.ceil(radius * 2) + 2;
+            sprite = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            drawShape(new Canvas(sprite), paintBall, shape, size / 2f, size / 2f, radius);
+            playerSprites.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    // El jugador se dibuja en píxeles de pantalla (como su sprite), no con la matriz
+    private void drawPlayer(Canvas canvas, PlayerShape shape, float x, float y, float radius) {
+        if (useStaticLayer) {
+            Bitmap sprite = playerSprite(shape, radius);
+            canvas.drawBitmap(sprite, x - sprite.getWidth() / 2f, y - sprite.getHeight() / 2f, null);
+        } else {
+            drawShape(canvas, paintBall, shape, x, y, radius);
+        }
+    }
+
+    // Perseguidores visibles, descartando los que caen fuera
+    private void drawChasers(Canvas canvas, RenderFrame frame) {
+        float r = frame.chaserRadius;
+        float l = viewLeft - r, t = viewTop - r, rr = viewRight + r, b = viewBottom + r;
+        float[] xs = frame.chaserX, ys = frame.chaserY;
+        for (int i = 0; i < frame.chaserCount; i++) {
+            float cx = xs[i];
+            float cy = ys[i];
+            if (cx > l && cx < rr && cy > t && cy < b) {
+                canvas.drawCircle(cx, cy, r, paintChaser);
+            }
+        }
+    }
+
+    // Bolas del modo multibola, descartando las que caen fuera
+    private void drawBalls(Canvas canvas, RenderFrame frame) {
+        float r = frame.ballRadius;
+        float l = viewLeft - r, t = viewTop - r, rr = viewRight + r, b = viewBottom + r;
+        float[] xs = frame.ballX, ys = frame.ballY;
+        for (int i = 0; i < frame.ballCount; i++) {
+            float cx = xs[i];
+            float cy = ys[i];
+            if (cx > l && cx < rr && cy > t && cy < b) {
+                drawShape(canvas, paintBall, frame.ballShape[i], cx, cy, r);
+            }
+        }
+    }
+
+    // Rivales de la carrera, en diseño
+    private void drawGhosts(Canvas canvas, RenderFrame frame) {
+        for (int i = 0; i < frame.ghostCount; i++) {
+            drawShape(canvas, paintGhost, frame.ghostShape[i], frame.ghostX[i], frame.ghostY[i], frame.radius);
+        }
+    }
+
+    private void drawShape(Canvas canvas, Paint paint, PlayerShape shape, float ballX, float ballY, float radius) {
+        switch (shape) {
+            case SQUARE:
+                float size = radius * 1.5f;
+                canvas.drawRect(ballX - size / 2, ballY - size / 2, ballX + size / 2, ballY + size / 2, paint);
+                break;
+            case TRIANGLE:
+                // Dibuja un triángulo equilátero
+                trianglePath.rewind();
+                trianglePath.moveTo(ballX, ballY - radius);
+                trianglePath.lineTo(ballX - radius * HALF_SQRT_3, ballY + radius / 2);
+                trianglePath.lineTo(ballX + radius * HALF_SQRT_3, ballY + radius / 2);
+                trianglePath.close();
+                canvas.drawPath(trianglePath, paint);
+                break;
+            case CIRCLE:
+            default:
+                canvas.drawCircle(ballX, ballY, radius, paint);
+                break;
+        }
+    }
+
+    // El menú se dibuja en diseño bajo la matriz de escala, sin cámara
+    private void drawLevelSelectMenu(Canvas canvas) {
+        float width = GameSimulation.DESIGN_WIDTH, height = GameSimulation.DESIGN_HEIGHT;
+        canvas.save();
+        canvas.translate(offsetX, offsetY);
+        canvas.scale(scaleFactor, scaleFactor);
+        paintText.setColor(Color.WHITE);
+        paintText.setTextSize(60);
+        canvas.drawText("GRAVITY RUN", width / 2, height / 7, paintText);
+        paintText.setTextSize(40);
+        canvas.drawText("Elige tu Nivel", width / 2, height / 4, paintText);
+
+        paintText.setTextSize(50);
+        for (int i = 0; i < levelButtons.length; i++) {
+            canvas.drawRoundRect(levelButtons[i], 20, 20, paintMenu);
+            canvas.drawRoundRect(levelButtons[i], 20, 20, paintMenuBorder);
+
+            paintText.setColor(Color.WHITE);
+            canvas.drawText(levelLabels[i], levelButtons[i].centerX(), levelButtons[i].centerY() + (paintText.getTextSize() / 3), paintText);
+        }
+        canvas.restore();
+    }
+
+    // Caja en pantalla (con un píxel de antialiasing) de la forma del jugador del frame, con
+    // la cámara ya actualizada para él
+    void playerBounds(RenderFrame frame, Rect out) {
+        float x = toScreenX(frame.playerX), y = toScreenY(frame.playerY);
+        float radius = frame.radius * scaleFactor;
+        float l, t, r, b;
+        if (useStaticLayer) {
+            float half = ((int) Math.ceil(radius * 2) + 2) / 2f; // Tamaño del sprite
+            l = x - half;
+            t = y - half;
+            r = x + half;
+            b = y + half;
+        } else {
+            switch (frame.playerShape) {
+                case SQUARE:
+                    float half = radius * 0.75f;
+                    l = x - half;
+                    t = y - half;
+                    r = x + half;
+                    b = y + half;
+                    break;
+                case TRIANGLE:
+                    l = x - radius * HALF_SQRT_3;
+                    t = y - radius;
+                    r = x + radius * HALF_SQRT_3;
+                    b = y + radius / 2;
+                    break;
+                case CIRCLE:
+                default:
+                    l = x - radius;
+                    t = y - radius;
+                    r = x + radius;
+                    b = y + radius;
+                    break;
+            }
+        }
+        out.set((int) Math.floor(l) - 1, (int) Math.floor(t) - 1, (int) Math.ceil(r) + 1, (int) Math.ceil(b) + 1);
+    }
+
+    // Dibuja el frame entero (fondo incluido)
+    void draw(Canvas canvas, RenderFrame frame) {
+        GameState gameState = frame.state;
+        drawnPlayerBounds.setEmpty();
+        canvas.drawColor(frame.backgroundColor);
+        preparePalette(frame);
+
+        if (gameState == GameState.LEVEL_SELECT) {
+            drawLevelSelectMenu(canvas);
+            return;
+        }
+
+        if (frame.wallGrid == null) {
+            return;
+        }
+
+        updateCamera(frame);
+        if (useStaticLayer && staticLayerStale) {
+            buildStaticLayer(frame);
+        }
+
+        // La capa estática ya está en píxeles de pantalla (solo existe si el nivel no se desplaza)
+        if (useStaticLayer && staticLayer != null) {
+            canvas.drawBitmap(staticLayer, 0, 0, null);
+        }
+
+        canvas.save();
+        applyDesignMatrix(canvas);
+
+        if (!useStaticLayer || staticLayer == null) {
+            drawLevelGeometry(canvas, frame.wallGrid, viewLeft - CULL_MARGIN_DESIGN, viewTop - CULL_MARGIN_DESIGN,
+                    viewRight + CULL_MARGIN_DESIGN, viewBottom + CULL_MARGIN_DESIGN);
+        }
+
+        if (frame.chaserCount > 0) {
+            drawChasers(canvas, frame);
+        }
+
+        if (frame.level == GameSimulation.MULTI_BALL_LEVEL) {
+            drawBalls(canvas, frame);
+        }
+
+        if (frame.ghostCount > 0) {
+            drawGhosts(canvas, frame);
+        }
+
+        canvas.restore();
+
+        if (frame.level != GameSimulation.MULTI_BALL_LEVEL
+                && (gameState == GameState.RUNNING || gameState == GameState.PAUSED || gameState == GameState.LOST)) {
+            drawPlayer(canvas, frame.playerShape, toScreenX(frame.playerX), toScreenY(frame.playerY),
+                    frame.radius * scaleFactor);
+            playerBounds(frame, drawnPlayerBounds);
+        }
+
+        if (levelScrolls(frame)) {
+            wallCounterText.setLength(0);
+            wallCounterText.append("Muros: ").append(drawnWalls).append(" dibujados / ")
+                    .append(culledWalls).append(" descartados");
+            canvas.drawText(wallCounterText, 0, wallCounterText.length(),
+                    20 * scaleFactor, 40 * scaleFactor, paintHud);
+        } else if (frame.level == GameSimulation.MULTI_BALL_LEVEL) {
+            ballsHomeText.setLength(0);
+            ballsHomeText.append("En la meta: ").append(frame.ballsHome)
+                    .append(" / ").append(GameSimulation.MULTI_BALL_GOAL);
+            canvas.drawText(ballsHomeText, 0, ballsHomeText.length(),
+                    20 * scaleFactor, 40 * scaleFactor, paintHud);
+        } else if (frame.level == GameSimulation.RACE_LEVEL) {
+            ballsHomeText.setLength(0);
+            ballsHomeText.append("Rivales: ").append(frame.ghostCount)
+                    .append(" | en la meta: ").append(frame.ghostsWon);
+            canvas.drawText(ballsHomeText, 0, ballsHomeText.length(),
+                    20 * scaleFactor, 40 * scaleFactor, paintHud);
+        }
+
+        if (gameState == GameState.RUNNING || gameState == GameState.PAUSED) {
+            runTimeText.setLength(0);
+            appendSeconds(runTimeText, frame.runNanos);
+            runTimeText.append(" s");
+            if (frame.bestNanos != RunJournal.NO_TIME) {
+                runTimeText.append(" | récord ");
+                appendSeconds(runTimeText, frame.bestNanos);
+                runTimeText.append(" s");
+            }
+            canvas.drawText(runTimeText, 0, runTimeText.length(),
+                    20 * scaleFactor, 80 * scaleFactor, paintHud);
+        }
+
+        String message = null;
+        if (gameState == GameState.PAUSED) {
+            message = "PAUSADO";
+            paintText.setColor(Color.YELLOW);
+        } else if (gameState == GameState.WON) {
+            message = wonMessage;
+            paintText.setColor(Color.GREEN);
+        } else if (gameState == GameState.LOST) {
+            message = "¡GAME OVER! Toca para reiniciar";
+            paintText.setColor(Color.RED);
+        }
+
+        if (message != null) {
+            canvas.save();
+            canvas.translate(offsetX, offsetY);
+            canvas.scale(scaleFactor, scaleFactor);
+            paintText.setTextSize(60);
+            canvas.drawText(message, GameSimulation.DESIGN_WIDTH / 2, GameSimulation.DESIGN_HEIGHT / 2, paintText);
+            if (gameState == GameState.WON) {
+                runTimeText.setLength(0);
+                runTimeText.append("Tiempo ");
+                appendSeconds(runTimeText, frame.runNanos);
+                runTimeText.append(" s");
+                if (frame.newBest) {
+                    runTimeText.append(" - ¡RÉCORD!");
+                } else if (frame.bestNanos != RunJournal.NO_TIME) {
+                    runTimeText.append(" (récord ");
+                    appendSeconds(runTimeText, frame.bestNanos);
+                    runTimeText.append(" s)");
+                }
+                paintText.setTextSize(40);
+                canvas.drawText(runTimeText, 0, runTimeText.length(),
+                        GameSimulation.DESIGN_WIDTH / 2, GameSimulation.DESIGN_HEIGHT / 2 + 80, paintText);
+            }
+            canvas.restore();
+        }
+
+        if (frame.performanceHud) {
+            drawPerformanceHud(canvas, frame);
+        }
+    }
+
+    // --- Instrumentación ---
+    private void drawPerformanceHud(Canvas canvas, RenderFrame frame) {
+        hudText.setLength(0);
+        hudText.append("frame p50 ");
+        appendMillis(hudText, frame.frameP50);
+        hudText.append(" p95 ");
+        appendMillis(hudText, frame.frameP95);
+        hudText.append(" p99 ");
+        appendMillis(hudText, frame.frameP99);
+        hudText.append(" ms | perdidos ").append(frame.droppedFrames);
+        canvas.drawText(hudText, 0, hudText.length(), 20 * scaleFactor, maxY - 20 * scaleFactor, paintHud);
+    }
+
+    // Añade nanos como segundos con dos decimales, sin pasar por float
+    private static void appendSeconds(StringBuilder sb, long nanos) {
+        long hundredths = nanos / 10_000_000;
+        sb.append(hundredths / 100).append('.');
+        if (hundredths % 100 < 10) sb.append('0');
+        sb.append(hundredths % 100);
+    }
+
+    // Añade nanos como milisegundos con un decimal, sin pasar por float
+    private static void appendMillis(StringBuilder sb, long nanos) {
+        long tenths = nanos / 100_000;
+        sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+}
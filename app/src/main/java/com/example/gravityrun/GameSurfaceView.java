@@ -0,0 +1,230 @@
+package com.example.gravityrun;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.MotionEvent;
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Backend de dibujo sobre SurfaceView: el hilo de UI solo vacía sensores, avanza la simulación
+// y captura el frame (microsegundos); el dibujo va a un hilo propio con su Choreographer, que
+// pinta el último frame publicado en cada vsync. Se entregan por un RenderBuffer, así que
+// ninguno de los dos hilos espera al otro. Dibuja con lockHardwareCanvas (API 26+) salvo que
+// se desactive para comparar con el lienzo por software.
+public class GameSurfaceView extends SurfaceView implements SurfaceHolder.Callback, GameController.Host {
+
+    private final GameController controller;
+    private final RenderBuffer frames = new RenderBuffer();
+
+    // --- HILO DE UI ---
+    private final Choreographer.FrameCallback frameCallback = this::doFrame;
+    private final Runnable scheduleFrame = this::scheduleFrame;
+    private boolean frameScheduled = false;
+    private int surfaceWidth, surfaceHeight; // Para pasar los toques a diseño
+    // ------------------
+
+    // --- HILO DE DIBUJO ---
+    // El renderizador y todo lo que toca son de este hilo; lo que el de UI lee (coste del
+    // dibujo, muestra presentada) va en campos volátiles. El hilo vive mientras la vista está
+    // en una ventana: se crea al engancharla y se para al quitarla, así que volver a
+    // engancharla (cambio de padre, ViewPager) vuelve a dibujar. Los dos campos son del hilo
+    // de UI (null sin ventana).
+    private HandlerThread renderThread;
+    private Handler renderHandler;
+    private final GameRenderer renderer = new GameRenderer();
+    private final Choreographer.FrameCallback renderCallback = this::render;
+    private final Runnable scheduleRender = this::scheduleRender;
+    private final AtomicBoolean renderRequested = new AtomicBoolean();
+    private boolean surfaceReady = false;
+    private volatile boolean useHardwareCanvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+    private volatile long lastDrawNanos = 0;
+    private volatile long presentedTiltNanos = -1, presentedAtNanos = 0;
+    // ----------------------
+
+    public GameSurfaceView(Context context) {
+        super(context);
+        controller = new GameController(context, this);
+        getHolder().addCallback(this);
+    }
+
+    GameController controller() {
+        return controller;
+    }
+
+    // Desde cualquier hilo
+    @Override
+    public void requestFrame() {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            scheduleFrame();
+        } else {
+            post(scheduleFrame);
+        }
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    // Hilo de UI, en cada vsync mientras la partida corre (y una vez por petición si no): avanza,
+    // captura y publica. El coste de dibujo que cierra el frame es el del último frame que el
+    // otro hilo terminó, uno por detrás.
+    private void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        controller.beginFrame();
+        controller.capture(frames.back());
+        frames.publish();
+        requestRender();
+        if (controller.endFrame(lastDrawNanos, presentedTiltNanos, presentedAtNanos)) {
+            scheduleFrame();
+        }
+    }
+
+    private void requestRender() {
+        if (renderHandler == null) return; // Sin ventana no hay superficie
+        if (renderRequested.compareAndSet(false, true)) {
+            renderHandler.post(scheduleRender);
+        }
+    }
+
+    // --- Hilo de dibujo ---
+    private void scheduleRender() {
+        Choreographer.getInstance().postFrameCallback(renderCallback);
+    }
+
+    private void render(long frameTimeNanos) {
+        // Antes de tomar el frame: lo que se publique a partir de aquí pide otro dibujo
+        renderRequested.set(false);
+        if (!surfaceReady) return;
+        RenderFrame frame = frames.acquire();
+
+        long drawStart = System.nanoTime();
+        SurfaceHolder holder = getHolder();
+        Canvas canvas = useHardwareCanvas ? holder.lockHardwareCanvas() : holder.lockCanvas();
+        if (canvas == null) return;
+        try {
+            renderer.draw(canvas, frame);
+        } finally {
+            holder.unlockCanvasAndPost(canvas);
+        }
+        lastDrawNanos = System.nanoTime() - drawStart;
+        presentedTiltNanos = frame.tiltTimestampNanos;
+        presentedAtNanos = SystemClock.elapsedRealtimeNanos();
+    }
+
+    // --- Ciclo de vida de la superficie (hilo de UI) ---
+    @Override
+    public void surfaceCreated(SurfaceHolder holder) {
+        renderHandler.post(() -> surfaceReady = true);
+    }
+
+    @Override
+    public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+        surfaceWidth = width;
+        surfaceHeight = height;
+        renderHandler.post(() -> renderer.resize(width, height));
+
+        Display display = getDisplay();
+        if (display != null) {
+            controller.setRefreshRate(display.getRefreshRate());
+        }
+        scheduleFrame();
+    }
+
+    // La superficie deja de ser válida al volver: hay que esperar a que el hilo de dibujo
+    // la suelte
+    @Override
+    public void surfaceDestroyed(SurfaceHolder holder) {
+        CountDownLatch released = new CountDownLatch(1);
+        renderHandler.post(() -> {
+            surfaceReady = false;
+            renderer.release();
+            released.countDown();
+        });
+        try {
+            released.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        renderThread = new HandlerThread("GravityRunRender");
+        renderThread.start();
+        renderHandler = new Handler(renderThread.getLooper());
+        // Una petición que se quedó en la cola del hilo anterior no llegó a dibujarse
+        renderRequested.set(false);
+    }
+
+    // super destruye antes la superficie (surfaceDestroyed espera al hilo de dibujo)
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        renderThread.quitSafely();
+        renderThread = null;
+        renderHandler = null;
+    }
+
+    // --- Instrumentación ---
+    public void setHardwareCanvasEnabled(boolean enabled) {
+        useHardwareCanvas = enabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+        scheduleFrame();
+    }
+
+    public boolean isHardwareCanvasEnabled() {
+        return useHardwareCanvas;
+    }
+
+    public void setStaticLayerEnabled(boolean enabled) {
+        renderer.setStaticLayerEnabled(enabled);
+        scheduleFrame();
+    }
+
+    public boolean isStaticLayerEnabled() {
+        return renderer.isStaticLayerEnabled();
+    }
+
+    public long getLastDrawNanos() {
+        return lastDrawNanos;
+    }
+
+    public int getDrawnWalls() {
+        return renderer.drawnWalls();
+    }
+
+    public int getCulledWalls() {
+        return renderer.culledWalls();
+    }
+
+    public File dumpPerformanceSummary() throws IOException {
+        return controller.dumpPerformanceSummary(useHardwareCanvas ? "surface-hardware" : "surface");
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            int level = GameRenderer.levelButtonAt(event.getX(), event.getY(), surfaceWidth, surfaceHeight);
+            if (controller.onTap(level)) {
+                return true;
+            }
+        }
+        return super.onTouchEvent(event);
+    }
+}
@@ -1,35 +1,76 @@
 package com.example.gravityrun;
 import androidx.appcompat.app.AppCompatActivity;
 import android.os.Bundle;
+import android.view.View;
 
 
 
 public class MainActivity extends AppCompatActivity {
 
-    private GameView gameView;
+    private static final String STATE_SNAPSHOT = "snapshot";
+    // Backend de dibujo: "surface" para GameSurfaceView (hilo de dibujo propio); cualquier
+    // otro valor o ninguno, GameView. Para comparar los dos:
+    //   adb shell am start -n com.example.gravityrun/.MainActivity --es renderer surface
+    static final String EXTRA_RENDERER = "renderer";
+    static final String RENDERER_SURFACE = "surface";
+
+    private GameController controller;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
         // Crea la vista del juego y la muestra en pantalla
-        gameView = new GameView(this);
+        View gameView;
+        if (RENDERER_SURFACE.equals(getIntent().getStringExtra(EXTRA_RENDERER))) {
+            GameSurfaceView surfaceView = new GameSurfaceView(this);
+            controller = surfaceView.controller();
+            gameView = surfaceView;
+        } else {
+            GameView view = new GameView(this);
+            controller = view.controller();
+            gameView = view;
+        }
+        // Vuelve a la partida antes del primer frame: del estado guardado si lo hay (cambio de
+        // configuración) y si no de la última foto en disco (el proceso murió)
+        controller.restoreSnapshot(savedInstanceState != null
+                ? savedInstanceState.getByteArray(STATE_SNAPSHOT) : null);
         setContentView(gameView);
     }
 
     @Override
     protected void onResume() {
         super.onResume();
-        if (gameView != null) {
-            gameView.resumeSensors(); // reanuda los sensores
+        if (controller != null) {
+            controller.resumeSensors(); // reanuda los sensores
+            controller.resumeRace(); // vuelve a la carrera, si había una
         }
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        if (gameView != null) {
-            gameView.pauseSensors(); // pausa los sensores
+        if (controller != null) {
+            controller.pauseSensors(); // pausa los sensores
+            controller.saveSnapshot(); // guarda la partida en segundo plano
+            controller.flushRuns(); // escribe las marcas pendientes en segundo plano
+            controller.pauseRace(); // deja de mandar a la carrera
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (controller != null) {
+            controller.release(); // suelta sensores, hilos y sockets
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (controller != null) {
+            outState.putByteArray(STATE_SNAPSHOT, controller.captureSnapshot());
         }
     }
 }
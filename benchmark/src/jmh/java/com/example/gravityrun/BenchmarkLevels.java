@@ -0,0 +1,90 @@
+package com.example.gravityrun;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+
+// Niveles para los benchmarks: los tres de assets/levels.bin y niveles sintéticos con un
+// número exacto de muros. Cada uno se devuelve como un LevelPack de un solo nivel para que
+// GameSimulation.loadLevel(1) siga exactamente el mismo camino que en el juego.
+final class BenchmarkLevels {
+
+    // Valores de @Param compartidos por todos los benchmarks
+    static final String LEVEL_1 = "level1";
+    static final String LEVEL_2 = "level2";
+    static final String LEVEL_3 = "level3";
+    static final String WALLS_1K = "walls1k";
+    static final String WALLS_10K = "walls10k";
+    static final String WALLS_100K = "walls100k";
+
+    private static final int PITCH = 100;
+
+    private BenchmarkLevels() {
+    }
+
+    static LevelPack pack(String name) {
+        switch (name) {
+            case LEVEL_1:
+                return single(shipped().level(0));
+            case LEVEL_2:
+                return single(shipped().level(1));
+            case LEVEL_3:
+                return single(shipped().level(2));
+            case WALLS_1K:
+                return single(synthetic(1_000));
+            case WALLS_10K:
+                return single(synthetic(10_000));
+            case WALLS_100K:
+                return single(synthetic(100_000));
+            default:
+                throw new IllegalArgumentException("Nivel de benchmark desconocido: " + name);
+        }
+    }
+
+    static LevelPack shipped() {
+        try (InputStream in = BenchmarkLevels.class.getResourceAsStream("/levels.bin")) {
+            if (in == null) {
+                throw new IllegalStateException("levels.bin no está en el classpath");
+            }
+            return LevelPack.read(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudieron leer los niveles", e);
+        }
+    }
+
+    // Rejilla de celdas de PITCH unidades con un muro corto por celda (desplazado de forma
+    // determinista), salvo la celda de salida de la bola. La meta queda en la esquina opuesta.
+    static LevelData synthetic(int walls) {
+        int cols = (int) Math.ceil(Math.sqrt(walls + 1));
+        float[] l = new float[walls], t = new float[walls], r = new float[walls], b = new float[walls];
+        long rng = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < walls; i++) {
+            int cell = i + 1;
+            int x = cell % cols, y = cell / cols;
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            int jitter = (int) ((rng * 0x2545F4914F6CDD1DL) >>> 60); // 0..15
+            boolean vertical = (jitter & 1) == 0;
+            l[i] = x * PITCH + 30 + jitter;
+            t[i] = y * PITCH + 30;
+            r[i] = l[i] + (vertical ? 20 : 40);
+            b[i] = t[i] + (vertical ? 40 : 20);
+        }
+        int rows = walls / cols + 1;
+        float exitLeft = (cols - 1) * PITCH, exitTop = rows * PITCH;
+        return new LevelData(0xFF2F4F4F, 0xFF444444, 0xFFFF8C00, 0xFF00FF00, PlayerShape.CIRCLE,
+                exitLeft, exitTop, exitLeft + PITCH, exitTop + PITCH, l, t, r, b, walls);
+    }
+
+    private static LevelPack single(LevelData level) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            LevelPack.write(Collections.singletonList(level), out);
+            return LevelPack.wrap(out.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.gravityrun;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Consultas de colisión sueltas sobre la rejilla de muros: la prueba de solape (lo que hacía
+// checkWallCollision), el barrido continuo que usa GameSimulation y la prueba de la meta
+// (checkExitReached). Cada invocación usa la siguiente de QUERIES posiciones precalculadas.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CollisionBenchmark {
+
+    private static final int QUERIES = 1024; // Potencia de dos
+    private static final float RADIUS = GameSimulation.ORIGINAL_RADIUS;
+
+    @Param({BenchmarkLevels.LEVEL_1, BenchmarkLevels.LEVEL_2, BenchmarkLevels.LEVEL_3,
+            BenchmarkLevels.WALLS_1K, BenchmarkLevels.WALLS_10K, BenchmarkLevels.WALLS_100K})
+    public String level;
+
+    private WallGrid grid;
+    private float exitLeft, exitTop, exitRight, exitBottom;
+    private final float[] x = new float[QUERIES];
+    private final float[] y = new float[QUERIES];
+    private final float[] dx = new float[QUERIES];
+    private final float[] dy = new float[QUERIES];
+    private final WallGrid.Contact contact = new WallGrid.Contact();
+    private int next;
+
+    @Setup
+    public void setUp() {
+        GameSimulation simulation = new GameSimulation(BenchmarkLevels.pack(level), new FrameStats());
+        simulation.setProximityMaxRange(5f);
+        simulation.loadLevel(1);
+        grid = simulation.wallGrid();
+        exitLeft = simulation.exitLeft();
+        exitTop = simulation.exitTop();
+        exitRight = simulation.exitRight();
+        exitBottom = simulation.exitBottom();
+
+        long rng = 12345;
+        float width = simulation.levelRight(), height = simulation.levelBottom();
+        for (int i = 0; i < QUERIES; i++) {
+            rng = rng * 6364136223846793005L + 1442695040888963407L;
+            x[i] = ((rng >>> 40) / (float) (1 << 24)) * width;
+            y[i] = ((rng >>> 16 & 0xFFFFFF) / (float) (1 << 24)) * height;
+            // Desplazamientos típicos de un paso a 120 Hz (unos pocos píxeles)
+            dx[i] = ((rng >>> 8 & 0xFF) - 128) / 16f;
+            dy[i] = ((rng & 0xFF) - 128) / 16f;
+        }
+    }
+
+    @Benchmark
+    public boolean overlap() {
+        int i = next++ & (QUERIES - 1);
+        return grid.intersectsAny(x[i] - RADIUS, y[i] - RADIUS, x[i] + RADIUS, y[i] + RADIUS);
+    }
+
+    @Benchmark
+    public float sweep() {
+        int i = next++ & (QUERIES - 1);
+        float px = x[i], py = y[i], mx = dx[i], my = dy[i];
+        int n = grid.gatherCandidates(
+                Math.min(px, px + mx) - RADIUS, Math.min(py, py + my) - RADIUS,
+                Math.max(px, px + mx) + RADIUS, Math.max(py, py + my) + RADIUS);
+        grid.sweepCandidates(n, px, py, RADIUS, mx, my, contact);
+        return contact.toi;
+    }
+
+    @Benchmark
+    public float exitReached() {
+        int i = next++ & (QUERIES - 1);
+        return WallGrid.sweepToi(x[i], y[i], RADIUS, dx[i], dy[i], exitLeft, exitTop, exitRight, exitBottom);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gravityrun;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Paso del modo multibola (hash espacial + integración repartida en el fork-join) sobre los
+// muros del primer nivel. Además de pasos/s, el contador auxiliar ballSteps da bolas·pasos/s,
+// que es lo comparable entre números de bolas; la escala con los núcleos se ve comparando
+// threads=1 con el resto en la misma máquina.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MultiBallBenchmark {
+
+    private static final float RADIUS = 4; // Unidades de diseño; caben 16000 en el nivel 1
+
+    @Param({"1000", "4000", "16000"})
+    public int balls;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long ballSteps;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ballSteps = 0;
+        }
+    }
+
+    private BallSwarm swarm;
+    private ForkJoinPool pool;
+    private long steps;
+
+    @Setup
+    public void setUp() {
+        LevelData data = BenchmarkLevels.shipped().level(0);
+        WallGrid walls = WallGrid.build(data.left.clone(), data.top.clone(), data.right.clone(),
+                data.bottom.clone(), data.wallCount, 100);
+        swarm = new BallSwarm(balls);
+        int placed = swarm.spawn(walls, 0, 0, GameSimulation.DESIGN_WIDTH, GameSimulation.DESIGN_HEIGHT,
+                balls, RADIUS, 1);
+        if (placed != balls) {
+            throw new IllegalStateException("Solo caben " + placed + " bolas");
+        }
+        pool = new ForkJoinPool(threads);
+        // Primer montón contra una pared, para medir con las bolas en contacto
+        for (int i = 0; i < 500; i++) {
+            swarm.step(0, 2f, pool);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public float step(Counters counters) {
+        // La inclinación gira despacio para que el montón se desplace por el nivel
+        float angle = (steps++ & 1023) * (float) (2 * Math.PI / 1024);
+        swarm.step((float) Math.cos(angle) * 2f, (float) Math.sin(angle) * 2f, pool);
+        counters.ballSteps += swarm.count();
+        return swarm.x(0);
+    }
+}
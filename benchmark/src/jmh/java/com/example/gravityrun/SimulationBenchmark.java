@@ -0,0 +1,84 @@
+package com.example.gravityrun;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Un paso completo de simulación (filtro de inclinación, colisión continua, meta y límites)
+// y la carga de nivel: la primera (decodificación de levels.bin y construcción de la rejilla)
+// y las siguientes, que reutilizan la geometría ya construida. restoreSnapshot es la
+// reanudación tras recrear la vista o el proceso: simulación nueva más GameSnapshot; tiene
+// que caber holgadamente en un frame (8.3 ms a 120 Hz).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SimulationBenchmark {
+
+    // Cada cuántos pasos cambia la inclinación, para que la bola recorra el nivel y no se
+    // quede quieta contra una pared
+    private static final int TILT_PERIOD = 256;
+    private static final long SAMPLE_INTERVAL_NANOS = 20_000_000L;
+
+    @Param({BenchmarkLevels.LEVEL_1, BenchmarkLevels.LEVEL_2, BenchmarkLevels.LEVEL_3,
+            BenchmarkLevels.WALLS_1K, BenchmarkLevels.WALLS_10K, BenchmarkLevels.WALLS_100K})
+    public String level;
+
+    private LevelPack pack;
+    private GameSimulation simulation;
+    private byte[] snapshot;
+    private long steps;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        pack = BenchmarkLevels.pack(level);
+        simulation = new GameSimulation(pack, new FrameStats());
+        simulation.setProximityMaxRange(5f);
+        simulation.loadLevel(1);
+        simulation.runSteps(100);
+        snapshot = GameSnapshot.capture(simulation);
+    }
+
+    @Benchmark
+    public float step() {
+        if (simulation.gameState() != GameState.RUNNING) {
+            simulation.loadLevel(1);
+        }
+        if (steps++ % TILT_PERIOD == 0) {
+            // Recorre las cuatro diagonales
+            int quadrant = (int) (steps / TILT_PERIOD) & 3;
+            timestamp += SAMPLE_INTERVAL_NANOS;
+            simulation.handleSample(GameSimulation.SENSOR_ACCELEROMETER, timestamp,
+                    (quadrant & 1) == 0 ? 4f : -4f, (quadrant & 2) == 0 ? 4f : -4f, 9.81f);
+        }
+        simulation.step();
+        return simulation.ballX();
+    }
+
+    @Benchmark
+    public WallGrid firstLoad() {
+        GameSimulation fresh = new GameSimulation(pack, new FrameStats());
+        fresh.loadLevel(1);
+        return fresh.wallGrid();
+    }
+
+    @Benchmark
+    public WallGrid loadLevel() {
+        simulation.loadLevel(1);
+        return simulation.wallGrid();
+    }
+
+    @Benchmark
+    public float restoreSnapshot() {
+        GameSimulation fresh = new GameSimulation(pack, new FrameStats());
+        GameSnapshot.restore(fresh, snapshot);
+        return fresh.ballX();
+    }
+}
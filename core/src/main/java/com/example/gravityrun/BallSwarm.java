@@ -0,0 +1,399 @@
+package com.example.gravityrun;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Miles de bolas rodando con la misma inclinación, cada una con su PlayerShape, chocando con
+// los muros y entre sí. Estructura de arrays (posición actual, anterior y siguiente, forma),
+// sin un objeto por bola.
+//
+// Cada pasada tiene dos fases:
+//  1. Hash espacial (secuencial, O(n)): cada bola cae en una celda de lado un diámetro y las
+//     celdas se agrupan en cubetas por hash; una ordenación por conteo deja los índices de
+//     cada cubeta contiguos y en orden creciente.
+//  2. Integración (en paralelo por tramos fijos de GRAIN bolas): cada bola lee las posiciones
+//     del paso anterior de sus vecinas en las 3x3 celdas de alrededor, suma la separación de
+//     los solapes, barre ese movimiento más la inclinación contra los muros y escribe su
+//     posición en el array siguiente.
+// Un paso son una pasada con la inclinación y RELAX_PASSES solo de separación.
+// Ninguna bola lee lo que escribe otra en el mismo paso y el orden de suma es fijo (celdas
+// vecinas en orden, índices crecientes), así que el resultado es bit a bit el mismo con
+// cualquier número de hilos o sin pool.
+final class BallSwarm {
+
+    static final int GRAIN = 256; // Bolas por tarea del fork-join
+    private static final int MAX_SLIDE_ITERATIONS = 3; // Igual que la bola del jugador
+    private static final float SEPARATION = 0.5f; // Cada bola corrige la mitad del solape
+    private static final int MAX_CONTACTS = 12; // Vecinas solapadas que frenan la inclinación
+    // Pasadas extra solo de separación por paso: sin ellas las pilas densas acaban con bolas
+    // casi fundidas (un ~3 % de parejas con 3000 bolas en el test), con dos casi ninguna
+    private static final int RELAX_PASSES = 2;
+    private static final PlayerShape[] SHAPES = PlayerShape.values();
+
+    final int capacity;
+    private int count;
+    private float half; // Radio y semilado de la caja contra muros
+    private WallGrid walls;
+    private float minX, minY, maxX, maxY;
+    private float moveX, moveY; // Desplazamiento por inclinación del paso en curso
+
+    private float[] x, y, nextX, nextY;
+    private final float[] prevX, prevY;
+    private final byte[] shape; // Ordinal de PlayerShape
+
+    // Hash espacial (reconstruido en cada paso)
+    private float invCell;
+    private final int[] cellX, cellY;
+    private final int[] bucketStart; // Índices de la cubeta b en sorted[bucketStart[b] .. bucketStart[b + 1])
+    private final int[] bucketCursor;
+    private final int[] bucketOf;
+    private final int[] sorted;
+    private final int bucketMask;
+
+    // Tareas reutilizadas: un tramo por cada GRAIN bolas y una raíz que los reparte
+    private final Slice[] slices;
+    private final Fan fan = new Fan();
+    private final WallGrid.Contact sequentialContact = new WallGrid.Contact();
+    private final float[] sequentialNormals = new float[2 * MAX_CONTACTS];
+
+    BallSwarm(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        nextX = new float[capacity];
+        nextY = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        shape = new byte[capacity];
+        cellX = new int[capacity];
+        cellY = new int[capacity];
+        bucketOf = new int[capacity];
+        sorted = new int[capacity];
+        // Potencia de dos con al menos dos cubetas por bola, para pocas colisiones de hash
+        int buckets = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1) << 1;
+        bucketMask = buckets - 1;
+        bucketStart = new int[buckets + 1];
+        bucketCursor = new int[buckets];
+        slices = new Slice[(capacity + GRAIN - 1) / GRAIN];
+        for (int k = 0; k < slices.length; k++) {
+            slices[k] = new Slice(k * GRAIN);
+        }
+    }
+
+    // Reparte count bolas de radio radius en huecos libres de muros de una retícula dentro de
+    // (left, top)-(right, bottom), con formas al azar. Misma semilla, mismo reparto. Devuelve
+    // cuántas caben (puede ser menos de count si el nivel está lleno).
+    int spawn(WallGrid walls, float left, float top, float right, float bottom,
+              int count, float radius, long seed) {
+        if (count > capacity) throw new IllegalArgumentException("Demasiadas bolas: " + count);
+        this.walls = walls;
+        this.half = radius;
+        this.minX = left;
+        this.minY = top;
+        this.maxX = right;
+        this.maxY = bottom;
+        this.invCell = 1f / (2 * radius);
+        this.count = 0;
+
+        // Retícula con un cuarto de radio de holgura entre bolas
+        float pitch = radius * 2.25f;
+        int cols = Math.max(0, (int) ((right - left - 2 * radius) / pitch) + 1);
+        int rows = Math.max(0, (int) ((bottom - top - 2 * radius) / pitch) + 1);
+        int[] free = new int[cols * rows];
+        int n = 0;
+        for (int row = 0; row < rows; row++) {
+            float cy = top + radius + row * pitch;
+            for (int col = 0; col < cols; col++) {
+                float cx = left + radius + col * pitch;
+                if (!walls.intersectsAny(cx - radius, cy - radius, cx + radius, cy + radius)) {
+                    free[n++] = row * cols + col;
+                }
+            }
+        }
+
+        long rng = seed ^ 0x9E3779B97F4A7C15L;
+        if (rng == 0) rng = 1;
+        int placed = Math.min(count, n);
+        for (int i = 0; i < placed; i++) {
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            long r = rng * 0x2545F4914F6CDD1DL;
+            // Fisher-Yates parcial: el hueco elegido pasa a la parte ya usada
+            int pick = i + (int) ((r >>> 33) % (n - i));
+            int slot = free[pick];
+            free[pick] = free[i];
+            free[i] = slot;
+            x[i] = left + radius + (slot % cols) * pitch;
+            y[i] = top + radius + (slot / cols) * pitch;
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            shape[i] = (byte) ((r >>> 8) % SHAPES.length);
+        }
+        this.count = placed;
+        return placed;
+    }
+
+    void clear() {
+        count = 0;
+        walls = null;
+    }
+
+    // Un paso: todas las bolas se desplazan (dx, dy) más la separación de sus vecinas, y luego
+    // RELAX_PASSES pasadas más que solo separan. Con pool == null (o pocas bolas) se hace en
+    // el hilo que llama.
+    void step(float dx, float dy, ForkJoinPool pool) {
+        if (count == 0) return;
+        System.arraycopy(x, 0, prevX, 0, count);
+        System.arraycopy(y, 0, prevY, 0, count);
+        for (int pass = 0; pass <= RELAX_PASSES; pass++) {
+            moveX = pass == 0 ? dx : 0;
+            moveY = pass == 0 ? dy : 0;
+            buildHash();
+
+            if (pool == null || count <= GRAIN) {
+                integrate(0, count, sequentialContact, sequentialNormals);
+            } else {
+                fan.reinitialize();
+                pool.invoke(fan);
+            }
+
+            float[] swap = x;
+            x = nextX;
+            nextX = swap;
+            swap = y;
+            y = nextY;
+            nextY = swap;
+        }
+    }
+
+    // Ordenación por conteo de las bolas por cubeta; dentro de cada cubeta quedan en orden de
+    // índice, que es lo que hace determinista la suma de separaciones
+    private void buildHash() {
+        int buckets = bucketMask + 1;
+        for (int b = 0; b <= buckets; b++) {
+            bucketStart[b] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int cx = (int) Math.floor((x[i] - minX) * invCell);
+            int cy = (int) Math.floor((y[i] - minY) * invCell);
+            cellX[i] = cx;
+            cellY[i] = cy;
+            int b = bucket(cx, cy);
+            bucketOf[i] = b;
+            bucketStart[b + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        System.arraycopy(bucketStart, 0, bucketCursor, 0, buckets);
+        for (int i = 0; i < count; i++) {
+            sorted[bucketCursor[bucketOf[i]]++] = i;
+        }
+    }
+
+    private int bucket(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & bucketMask;
+    }
+
+    // Fase 2 para las bolas [lo, hi): solo lee x/y y el hash, solo escribe nextX/nextY[lo, hi).
+    // Con cada vecina que solapa, la bola se aparta la mitad del solape por la normal de
+    // contacto y pierde la parte de la inclinación que la empuja contra ella, para que las
+    // pilas apoyadas contra una pared no se vayan comprimiendo paso a paso. normals es el
+    // espacio de trabajo de cada hilo para las normales de contacto.
+    private void integrate(int lo, int hi, WallGrid.Contact contact, float[] normals) {
+        float reach = 2 * half;
+        for (int i = lo; i < hi; i++) {
+            float xi = x[i], yi = y[i];
+            int cxi = cellX[i], cyi = cellY[i];
+            boolean circle = shape[i] == PlayerShape.CIRCLE.ordinal();
+            float vx = moveX, vy = moveY;
+            float pushX = 0, pushY = 0;
+            int contacts = 0;
+
+            for (int cy = cyi - 1; cy <= cyi + 1; cy++) {
+                for (int cx = cxi - 1; cx <= cxi + 1; cx++) {
+                    int b = bucket(cx, cy);
+                    for (int k = bucketStart[b], end = bucketStart[b + 1]; k < end; k++) {
+                        int j = sorted[k];
+                        // Otras celdas pueden compartir cubeta por el hash
+                        if (j == i || cellX[j] != cx || cellY[j] != cy) continue;
+                        float ddx = xi - x[j], ddy = yi - y[j];
+                        float nx, ny, overlap;
+                        if (circle && shape[j] == PlayerShape.CIRCLE.ordinal()) {
+                            float d2 = ddx * ddx + ddy * ddy;
+                            if (d2 >= reach * reach) continue;
+                            if (d2 > 0) {
+                                float d = (float) Math.sqrt(d2);
+                                nx = ddx / d;
+                                ny = ddy / d;
+                                overlap = reach - d;
+                            } else {
+                                // Centros coincidentes: el índice decide el lado
+                                nx = i < j ? -1 : 1;
+                                ny = 0;
+                                overlap = reach;
+                            }
+                        } else {
+                            // Cuadrado o triángulo: caja contra caja, por el eje de menor solape
+                            float ox = reach - Math.abs(ddx), oy = reach - Math.abs(ddy);
+                            if (ox <= 0 || oy <= 0) continue;
+                            if (ox < oy) {
+                                nx = ddx > 0 || (ddx == 0 && i > j) ? 1 : -1;
+                                ny = 0;
+                                overlap = ox;
+                            } else {
+                                nx = 0;
+                                ny = ddy > 0 || (ddy == 0 && i > j) ? 1 : -1;
+                                overlap = oy;
+                            }
+                        }
+                        pushX += nx * overlap * SEPARATION;
+                        pushY += ny * overlap * SEPARATION;
+                        if (contacts < MAX_CONTACTS) {
+                            normals[2 * contacts] = nx;
+                            normals[2 * contacts + 1] = ny;
+                            contacts++;
+                        }
+                    }
+                }
+            }
+
+            // Quita de la inclinación lo que empuja contra cada contacto; si tras eso aún
+            // empuja contra alguno (encajada entre varias), la bola no avanza
+            for (int c = 0; c < contacts; c++) {
+                float nx = normals[2 * c], ny = normals[2 * c + 1];
+                float into = vx * nx + vy * ny;
+                if (into < 0) {
+                    vx -= into * nx;
+                    vy -= into * ny;
+                }
+            }
+            for (int c = 0; c < contacts; c++) {
+                if (vx * normals[2 * c] + vy * normals[2 * c + 1] < -1e-6f) {
+                    vx = 0;
+                    vy = 0;
+                    break;
+                }
+            }
+
+            move(i, xi, yi, vx + pushX, vy + pushY, contact);
+        }
+    }
+
+    // Barrido con deslizamiento como el de la bola del jugador y límites del nivel
+    private void move(int i, float bx, float by, float dx, float dy, WallGrid.Contact contact) {
+        for (int it = 0; it < MAX_SLIDE_ITERATIONS && (dx != 0 || dy != 0); it++) {
+            if (!walls.sweep(bx, by, half, dx, dy, contact)) {
+                bx += dx;
+                by += dy;
+                break;
+            }
+            float remaining = 1f - contact.toi;
+            int w = contact.wall;
+            if (contact.nx != 0) {
+                bx = contact.nx < 0 ? walls.left[w] - half : walls.right[w] + half;
+                by += dy * contact.toi;
+                dx = 0;
+                dy *= remaining;
+            } else {
+                bx += dx * contact.toi;
+                by = contact.ny < 0 ? walls.top[w] - half : walls.bottom[w] + half;
+                dx *= remaining;
+                dy = 0;
+            }
+        }
+        if (bx < minX + half) bx = minX + half;
+        if (bx > maxX - half) bx = maxX - half;
+        if (by < minY + half) by = minY + half;
+        if (by > maxY - half) by = maxY - half;
+        nextX[i] = bx;
+        nextY[i] = by;
+    }
+
+    // Quita las bolas que tocan el rectángulo dado (la meta) y devuelve cuántas. La última
+    // ocupa el hueco de cada bola quitada, en orden de índice, así que también es determinista.
+    int removeTouching(float l, float t, float r, float b) {
+        int removed = 0;
+        for (int i = 0; i < count; ) {
+            if (x[i] + half > l && x[i] - half < r && y[i] + half > t && y[i] - half < b) {
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                prevX[i] = prevX[last];
+                prevY[i] = prevY[last];
+                shape[i] = shape[last];
+                removed++;
+            } else {
+                i++;
+            }
+        }
+        return removed;
+    }
+
+    int count() {
+        return count;
+    }
+
+    float radius() {
+        return half;
+    }
+
+    float x(int i) {
+        return x[i];
+    }
+
+    float y(int i) {
+        return y[i];
+    }
+
+    PlayerShape shape(int i) {
+        return SHAPES[shape[i]];
+    }
+
+    // Posición interpolada entre el paso anterior y el actual (alpha en [0, 1])
+    float renderX(int i, float alpha) {
+        return prevX[i] + (x[i] - prevX[i]) * alpha;
+    }
+
+    float renderY(int i, float alpha) {
+        return prevY[i] + (y[i] - prevY[i]) * alpha;
+    }
+
+    // Tramo fijo de bolas [lo, lo + GRAIN) recortado al número actual
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int lo;
+        final WallGrid.Contact contact = new WallGrid.Contact();
+        final float[] normals = new float[2 * MAX_CONTACTS];
+
+        Slice(int lo) {
+            this.lo = lo;
+        }
+
+        @Override
+        protected void compute() {
+            integrate(lo, Math.min(count, lo + GRAIN), contact, normals);
+        }
+    }
+
+    // Lanza los tramos en uso: los demás al pool y el primero en este hilo
+    private final class Fan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+            int used = (count + GRAIN - 1) / GRAIN;
+            for (int k = 1; k < used; k++) {
+                slices[k].reinitialize();
+                slices[k].fork();
+            }
+            slices[0].reinitialize();
+            slices[0].invoke();
+            for (int k = used - 1; k >= 1; k--) {
+                slices[k].join();
+            }
+        }
+    }
+}
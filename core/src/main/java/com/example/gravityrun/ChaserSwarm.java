@@ -0,0 +1,135 @@
+package com.example.gravityrun;
+
+// Perseguidores controlados por la IA: cientos de bolas que siguen el FlowField hacia el
+// jugador. Estructura de arrays (posición actual y del paso anterior, velocidad), sin un
+// objeto por perseguidor. Orientar y mover a cada uno es O(1): mira la siguiente celda de su
+// celda en el campo y avanza hacia su centro; en la celda del jugador va directo a por él.
+final class ChaserSwarm {
+
+    final int capacity;
+    private int count;
+    private final float[] x, y, prevX, prevY, speed;
+    private float radius;
+
+    ChaserSwarm(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        prevX = new float[capacity];
+        prevY = new float[capacity];
+        speed = new float[capacity];
+    }
+
+    // Reparte count perseguidores en celdas alcanzables a minDistance celdas o más del
+    // objetivo actual del campo (o en cualquiera alcanzable si no hay bastantes tan lejos).
+    // Cada uno va a una velocidad entre el 80 % y el 100 % de maxSpeed para que no se
+    // apelotonen en una sola bola. Misma semilla, mismo reparto.
+    void spawn(FlowField field, int count, int minDistance, float radius, float maxSpeed, long seed) {
+        if (count > capacity) throw new IllegalArgumentException("Demasiados perseguidores: " + count);
+        this.radius = radius;
+        this.count = 0;
+
+        int cells = field.cellCount();
+        int far = 0, reachable = 0;
+        for (int c = 0; c < cells; c++) {
+            int d = field.distance(c);
+            if (d > 0) reachable++;
+            if (d >= minDistance) far++;
+        }
+        if (reachable == 0) return;
+        int threshold = far > 0 ? minDistance : 1;
+        int[] pool = new int[far > 0 ? far : reachable];
+        for (int c = 0, n = 0; c < cells; c++) {
+            if (field.distance(c) >= threshold) pool[n++] = c;
+        }
+
+        long rng = seed ^ 0x9E3779B97F4A7C15L;
+        if (rng == 0) rng = 1;
+        for (int i = 0; i < count; i++) {
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            long r = rng * 0x2545F4914F6CDD1DL;
+            int cell = pool[(int) ((r >>> 33) % pool.length)];
+            x[i] = field.centerX(cell);
+            y[i] = field.centerY(cell);
+            prevX[i] = x[i];
+            prevY[i] = y[i];
+            speed[i] = maxSpeed * (0.8f + 0.2f * ((r >>> 8) & 0xFF) / 255f);
+        }
+        this.count = count;
+    }
+
+    void clear() {
+        count = 0;
+    }
+
+    // Un paso: cada perseguidor avanza hacia la siguiente celda del campo. Devuelve true si
+    // alguno toca la caja del jugador (mismo criterio de caja que las colisiones con muros).
+    boolean step(FlowField field, float playerX, float playerY, float playerHalf) {
+        boolean caught = false;
+        float reach = playerHalf + radius;
+        for (int i = 0; i < count; i++) {
+            float cx = x[i], cy = y[i];
+            prevX[i] = cx;
+            prevY[i] = cy;
+
+            int cell = field.cellOf(cx, cy);
+            int next = field.next(cell);
+            float tx, ty;
+            if (next == FlowField.UNREACHABLE) {
+                continue; // Sin camino (zona aislada o campo aún sin calcular)
+            } else if (next == cell) {
+                tx = playerX;
+                ty = playerY;
+            } else {
+                tx = field.centerX(next);
+                ty = field.centerY(next);
+            }
+
+            float dx = tx - cx, dy = ty - cy;
+            float d2 = dx * dx + dy * dy;
+            float s = speed[i];
+            if (d2 <= s * s) {
+                cx = tx;
+                cy = ty;
+            } else {
+                float k = s / (float) Math.sqrt(d2);
+                cx += dx * k;
+                cy += dy * k;
+            }
+            x[i] = cx;
+            y[i] = cy;
+
+            if (Math.abs(cx - playerX) < reach && Math.abs(cy - playerY) < reach) {
+                caught = true;
+            }
+        }
+        return caught;
+    }
+
+    int count() {
+        return count;
+    }
+
+    float radius() {
+        return radius;
+    }
+
+    float x(int i) {
+        return x[i];
+    }
+
+    float y(int i) {
+        return y[i];
+    }
+
+    // Posición interpolada entre el paso anterior y el actual (alpha en [0, 1])
+    float renderX(int i, float alpha) {
+        return prevX[i] + (x[i] - prevX[i]) * alpha;
+    }
+
+    float renderY(int i, float alpha) {
+        return prevY[i] + (y[i] - prevY[i]) * alpha;
+    }
+}
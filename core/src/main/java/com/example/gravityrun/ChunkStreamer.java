@@ -0,0 +1,383 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+// Mantiene en memoria los trozos de un LevelChunks que rodean a la bola. Las lecturas van a un
+// Executor de fondo: al entrar en un trozo nuevo se piden los de alrededor hasta prefetchRadius
+// trozos de distancia, y los resultados vuelven por una cola sin bloqueo que se vacía en el
+// hilo de la simulación. Con los trozos de la ventana activa (el de la bola y sus vecinos) se
+// monta, también en el executor, una WallGrid compuesta que la simulación y el dibujo usan
+// como la de cualquier otro nivel; así una consulta nunca espera a una lectura.
+//
+// Si la memoria de trozos y rejilla pasa de budgetBytes se descartan los trozos usados hace
+// más tiempo (LRU), nunca los de la ventana activa. Si la bola llega a una zona que todavía no
+// está en la rejilla, ready() lo dice y la simulación la deja quieta ese paso (cuenta como
+// espera).
+//
+// Una lectura que falla se vuelve a pedir desde update() mientras el trozo siga haciendo
+// falta, con espera exponencial de RETRY_BASE_UPDATES a RETRY_MAX_UPDATES llamadas: un error
+// pasajero de E/S no deja la bola parada para siempre y uno permanente no inunda el executor.
+//
+// Todo salvo las tareas del executor es del hilo de la simulación. Con un executor directo
+// (Runnable::run) el resultado es determinista; con uno de verdad depende de cuándo terminen
+// las lecturas.
+final class ChunkStreamer {
+
+    static final int ACTIVE_RADIUS = 1;
+    private static final float GRID_CELL_DESIGN_SIZE = 100f;
+    static final int RETRY_BASE_UPDATES = 8;
+    static final int RETRY_MAX_UPDATES = 240; // ~2 s a 120 Hz
+
+    // Resultado de una lectura (chunk null si falló)
+    private static final class Loaded {
+        final int index;
+        final LevelChunks.Chunk chunk;
+        final long submitNanos, finishNanos;
+
+        Loaded(int index, LevelChunks.Chunk chunk, long submitNanos, long finishNanos) {
+            this.index = index;
+            this.chunk = chunk;
+            this.submitNanos = submitNanos;
+            this.finishNanos = finishNanos;
+        }
+    }
+
+    // Rejilla compuesta ya construida y los trozos que contiene
+    private static final class Built {
+        final WallGrid grid;
+        final int[] members;
+
+        Built(WallGrid grid, int[] members) {
+            this.grid = grid;
+            this.members = members;
+        }
+    }
+
+    private final LevelChunks chunks;
+    private final Executor executor;
+    private final long budgetBytes;
+    private final int prefetchRadius;
+
+    private final LevelChunks.Chunk[] resident;
+    private final boolean[] pending;
+    private final boolean[] inGrid;
+    private final long[] lastUsed;
+    private final int[] failures; // Fallos seguidos de cada trozo
+    private final long[] retryAt; // Llamada a update a partir de la que se puede reintentar
+    private int failedChunks = 0; // Trozos cuyo último intento falló
+    private long updates = 0;
+    private long useClock = 0;
+    private long chunkBytes = 0;
+
+    private final ConcurrentLinkedQueue<Loaded> loaded = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Built> built = new ConcurrentLinkedQueue<>();
+    private boolean buildPending = false;
+    private WallGrid grid;
+    private int gridMembers = 0;
+
+    private int ballCol = -1, ballRow = -1;
+    private final int[] window; // Trozos de la ventana activa (para montar la rejilla)
+
+    // --- Métricas ---
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+    private long hits = 0, misses = 0;
+    private long loads = 0, loadErrors = 0, retries = 0, evictions = 0, stalls = 0;
+
+    ChunkStreamer(LevelChunks chunks, Executor executor, long budgetBytes, int prefetchRadius) {
+        if (prefetchRadius < ACTIVE_RADIUS) {
+            throw new IllegalArgumentException("prefetchRadius no puede ser menor que " + ACTIVE_RADIUS);
+        }
+        this.chunks = chunks;
+        this.executor = executor;
+        this.budgetBytes = budgetBytes;
+        this.prefetchRadius = prefetchRadius;
+        int count = chunks.chunkCount();
+        resident = new LevelChunks.Chunk[count];
+        pending = new boolean[count];
+        inGrid = new boolean[count];
+        lastUsed = new long[count];
+        failures = new int[count];
+        retryAt = new long[count];
+        window = new int[(2 * ACTIVE_RADIUS + 1) * (2 * ACTIVE_RADIUS + 1)];
+        grid = WallGrid.build(new float[0], new float[0], new float[0], new float[0], 0, GRID_CELL_DESIGN_SIZE);
+    }
+
+    // Una vez por paso con la posición de la bola. Solo trabaja si la bola cambia de trozo, han
+    // llegado resultados o hay lecturas fallidas por reintentar; si no, no crea objetos.
+    void update(float x, float y) {
+        updates++;
+        int col = chunks.chunkCol(x), row = chunks.chunkRow(y);
+        boolean moved = col != ballCol || row != ballRow;
+        if (moved) {
+            ballCol = col;
+            ballRow = row;
+            countHits();
+        }
+        if (moved || failedChunks > 0) {
+            requestLoads();
+        }
+        boolean changed = drainLoads() || moved;
+        if (changed) {
+            touchActive();
+        }
+        // Una rejilla recién terminada puede haberse quedado atrás si entre tanto llegaron
+        // más trozos; con un executor directo la nueva ya está lista en el drainGrid final
+        if (drainGrid() || changed) {
+            requestGrid();
+        }
+        if (drainGrid() || changed) {
+            evict();
+        }
+    }
+
+    // Al entrar en un trozo: cuántos de la ventana activa ya estaban en memoria
+    private void countHits() {
+        for (int r = ballRow - ACTIVE_RADIUS; r <= ballRow + ACTIVE_RADIUS; r++) {
+            for (int c = ballCol - ACTIVE_RADIUS; c <= ballCol + ACTIVE_RADIUS; c++) {
+                if (!inside(c, r)) continue;
+                if (resident[r * chunks.cols() + c] != null) {
+                    hits++;
+                } else {
+                    misses++;
+                }
+            }
+        }
+    }
+
+    // Primero la ventana activa, luego el resto de la de precarga (los ya pedidos se saltan)
+    private void requestLoads() {
+        requestLoads(ACTIVE_RADIUS);
+        requestLoads(prefetchRadius);
+    }
+
+    private void requestLoads(int radius) {
+        for (int r = ballRow - radius; r <= ballRow + radius; r++) {
+            for (int c = ballCol - radius; c <= ballCol + radius; c++) {
+                if (inside(c, r)) submitLoad(r * chunks.cols() + c);
+            }
+        }
+    }
+
+    private void submitLoad(int index) {
+        if (resident[index] != null || pending[index] || updates < retryAt[index]) return;
+        if (failures[index] > 0) retries++;
+        pending[index] = true;
+        long submitNanos = System.nanoTime();
+        executor.execute(() -> {
+            LevelChunks.Chunk chunk;
+            try {
+                chunk = chunks.read(index);
+            } catch (IOException e) {
+                chunk = null;
+            }
+            loaded.add(new Loaded(index, chunk, submitNanos, System.nanoTime()));
+        });
+    }
+
+    private boolean drainLoads() {
+        boolean any = false;
+        Loaded result;
+        while ((result = loaded.poll()) != null) {
+            any = true;
+            pending[result.index] = false;
+            if (result.chunk == null) {
+                loadErrors++;
+                if (failures[result.index]++ == 0) failedChunks++;
+                int shift = Math.min(failures[result.index] - 1, 16);
+                retryAt[result.index] = updates + Math.min((long) RETRY_BASE_UPDATES << shift, RETRY_MAX_UPDATES);
+                continue;
+            }
+            if (failures[result.index] > 0) {
+                failures[result.index] = 0;
+                failedChunks--;
+            }
+            loads++;
+            loadLatency.record(result.finishNanos - result.submitNanos);
+            if (resident[result.index] == null) {
+                resident[result.index] = result.chunk;
+                chunkBytes += result.chunk.bytes();
+                lastUsed[result.index] = ++useClock;
+            }
+        }
+        return any;
+    }
+
+    private void touchActive() {
+        long stamp = ++useClock;
+        for (int r = ballRow - ACTIVE_RADIUS; r <= ballRow + ACTIVE_RADIUS; r++) {
+            for (int c = ballCol - ACTIVE_RADIUS; c <= ballCol + ACTIVE_RADIUS; c++) {
+                if (inside(c, r)) lastUsed[r * chunks.cols() + c] = stamp;
+            }
+        }
+    }
+
+    // Monta una rejilla nueva si los trozos de la ventana activa en memoria no son los que
+    // tiene la actual. Solo una construcción a la vez; la siguiente llamada repite la
+    // comprobación.
+    private void requestGrid() {
+        if (buildPending) return;
+        int n = 0;
+        boolean differs = false;
+        int inGridCount = 0;
+        for (int r = ballRow - ACTIVE_RADIUS; r <= ballRow + ACTIVE_RADIUS; r++) {
+            for (int c = ballCol - ACTIVE_RADIUS; c <= ballCol + ACTIVE_RADIUS; c++) {
+                if (!inside(c, r)) continue;
+                int index = r * chunks.cols() + c;
+                if (resident[index] == null) continue;
+                window[n++] = index;
+                if (inGrid[index]) {
+                    inGridCount++;
+                } else {
+                    differs = true;
+                }
+            }
+        }
+        if (!differs && inGridCount == gridMembers) return;
+
+        LevelChunks.Chunk[] parts = new LevelChunks.Chunk[n];
+        for (int k = 0; k < n; k++) {
+            parts[k] = resident[window[k]];
+        }
+        buildPending = true;
+        executor.execute(() -> built.add(buildGrid(parts)));
+    }
+
+    private static Built buildGrid(LevelChunks.Chunk[] parts) {
+        int total = 0;
+        for (LevelChunks.Chunk part : parts) total += part.count;
+        float[] left = new float[total], top = new float[total], right = new float[total], bottom = new float[total];
+        int[] members = new int[parts.length];
+        int offset = 0;
+        for (int k = 0; k < parts.length; k++) {
+            LevelChunks.Chunk part = parts[k];
+            System.arraycopy(part.left, 0, left, offset, part.count);
+            System.arraycopy(part.top, 0, top, offset, part.count);
+            System.arraycopy(part.right, 0, right, offset, part.count);
+            System.arraycopy(part.bottom, 0, bottom, offset, part.count);
+            offset += part.count;
+            members[k] = part.index;
+        }
+        return new Built(WallGrid.build(left, top, right, bottom, total, GRID_CELL_DESIGN_SIZE), members);
+    }
+
+    private boolean drainGrid() {
+        boolean any = false;
+        Built result;
+        while ((result = built.poll()) != null) {
+            any = true;
+            buildPending = false;
+            for (int i = 0; i < inGrid.length; i++) inGrid[i] = false;
+            for (int index : result.members) inGrid[index] = true;
+            gridMembers = result.members.length;
+            grid = result.grid;
+        }
+        return any;
+    }
+
+    // Descarta los trozos menos usados hasta entrar en el presupuesto; la ventana activa no se
+    // toca (aunque eso deje el presupuesto superado)
+    private void evict() {
+        while (residentBytes() > budgetBytes) {
+            int victim = -1;
+            for (int i = 0; i < resident.length; i++) {
+                if (resident[i] == null || isActive(i)) continue;
+                if (victim < 0 || lastUsed[i] < lastUsed[victim]) victim = i;
+            }
+            if (victim < 0) return;
+            chunkBytes -= resident[victim].bytes();
+            resident[victim] = null;
+            evictions++;
+        }
+    }
+
+    private boolean isActive(int index) {
+        int c = index % chunks.cols(), r = index / chunks.cols();
+        return Math.abs(c - ballCol) <= ACTIVE_RADIUS && Math.abs(r - ballRow) <= ACTIVE_RADIUS;
+    }
+
+    private boolean inside(int c, int r) {
+        return c >= 0 && r >= 0 && c < chunks.cols() && r < chunks.rows();
+    }
+
+    // Rejilla con los muros de la ventana activa que ya están cargados (vacía al principio)
+    WallGrid grid() {
+        return grid;
+    }
+
+    // ¿Están en la rejilla todos los trozos que toca el rectángulo? Si no, la zona aún se está
+    // cargando y el paso se salta (cuenta como espera).
+    boolean ready(float l, float t, float r, float b) {
+        int c0 = chunks.chunkCol(l), c1 = chunks.chunkCol(r);
+        int r0 = chunks.chunkRow(t), r1 = chunks.chunkRow(b);
+        for (int row = r0; row <= r1; row++) {
+            for (int col = c0; col <= c1; col++) {
+                if (!inGrid[row * chunks.cols() + col]) {
+                    stalls++;
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // --- Métricas ---
+    // Fracción de trozos de la ventana activa que ya estaban en memoria al entrar la bola
+    double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 1 : (double) hits / total;
+    }
+
+    LatencyHistogram loadLatency() {
+        return loadLatency;
+    }
+
+    // Trozos decodificados más la rejilla compuesta
+    long residentBytes() {
+        return chunkBytes + grid.memoryBytes();
+    }
+
+    int residentChunks() {
+        int n = 0;
+        for (LevelChunks.Chunk chunk : resident) {
+            if (chunk != null) n++;
+        }
+        return n;
+    }
+
+    long loads() {
+        return loads;
+    }
+
+    long loadErrors() {
+        return loadErrors;
+    }
+
+    long retries() {
+        return retries;
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    long stalls() {
+        return stalls;
+    }
+
+    // Mismo formato que FrameStats.writeSummary: una métrica por línea
+    void writeSummary(Writer out) throws IOException {
+        out.write("chunk_hit_rate " + hitRate() + "\n");
+        out.write("chunk_load_p50_ns " + loadLatency.percentile(0.50) + "\n");
+        out.write("chunk_load_p99_ns " + loadLatency.percentile(0.99) + "\n");
+        out.write("chunk_resident_bytes " + residentBytes() + "\n");
+        out.write("chunk_loads " + loads + "\n");
+        out.write("chunk_load_errors " + loadErrors + "\n");
+        out.write("chunk_load_retries " + retries + "\n");
+        out.write("chunk_evictions " + evictions + "\n");
+        out.write("chunk_stalls " + stalls + "\n");
+        out.flush();
+    }
+}
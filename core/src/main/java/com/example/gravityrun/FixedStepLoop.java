@@ -0,0 +1,114 @@
+package com.example.gravityrun;
+
+// Bucle de paso fijo con acumulador: convierte el tiempo real transcurrido entre frames
+// en un número entero de pasos de simulación de duración constante, más un factor de
+// interpolación (alpha) para dibujar entre el paso anterior y el actual.
+final class FixedStepLoop {
+
+    static final int DEFAULT_HZ = 120;
+
+    // Límite de pasos por frame para evitar la "espiral de la muerte" tras una pausa larga
+    private static final int MAX_STEPS_PER_FRAME = 8;
+
+    private final long stepNanos;
+    private final float stepSeconds;
+
+    private long lastTimeNanos = -1;
+    private long accumulatorNanos = 0;
+
+    // --- Métricas ---
+    private long totalSteps = 0;
+    private long droppedNanos = 0;
+    private int lastFrameSteps = 0;
+    private long lastFrameDroppedSteps = 0;
+    private long lastFrameNanos = 0;
+
+    FixedStepLoop(int hz) {
+        if (hz <= 0) throw new IllegalArgumentException("hz debe ser positivo: " + hz);
+        this.stepNanos = 1_000_000_000L / hz;
+        this.stepSeconds = 1f / hz;
+    }
+
+    // Devuelve cuántos pasos fijos hay que ejecutar para llegar al instante nowNanos.
+    int advance(long nowNanos) {
+        if (lastTimeNanos < 0) {
+            lastTimeNanos = nowNanos;
+            lastFrameSteps = 0;
+            lastFrameDroppedSteps = 0;
+            return 0;
+        }
+        long elapsed = nowNanos - lastTimeNanos;
+        lastTimeNanos = nowNanos;
+        if (elapsed < 0) elapsed = 0;
+        lastFrameNanos = elapsed;
+
+        accumulatorNanos += elapsed;
+        int steps = (int) Math.min(accumulatorNanos / stepNanos, MAX_STEPS_PER_FRAME);
+        accumulatorNanos -= steps * stepNanos;
+
+        // Si seguimos atrasados tras el máximo de pasos, descartamos el resto
+        lastFrameDroppedSteps = accumulatorNanos / stepNanos;
+        if (lastFrameDroppedSteps > 0) {
+            droppedNanos += lastFrameDroppedSteps * stepNanos;
+            accumulatorNanos %= stepNanos;
+        }
+
+        totalSteps += steps;
+        lastFrameSteps = steps;
+        return steps;
+    }
+
+    // Lleva el reloj hasta nowNanos sin pasos que ejecutar (vuelta del reposo) y devuelve
+    // cuántos pasos enteros han pasado; la fracción sobrante se queda en el acumulador
+    long skip(long nowNanos) {
+        if (lastTimeNanos < 0) {
+            lastTimeNanos = nowNanos;
+            return 0;
+        }
+        accumulatorNanos += Math.max(0, nowNanos - lastTimeNanos);
+        lastTimeNanos = nowNanos;
+        long skipped = accumulatorNanos / stepNanos;
+        accumulatorNanos %= stepNanos;
+        return skipped;
+    }
+
+    // Fracción [0, 1) del siguiente paso ya transcurrida, para interpolar el dibujo
+    float alpha() {
+        return (float) accumulatorNanos / stepNanos;
+    }
+
+    // Olvida el tiempo acumulado (al cargar un nivel o al volver de una pausa)
+    void reset() {
+        lastTimeNanos = -1;
+        accumulatorNanos = 0;
+    }
+
+    float stepSeconds() {
+        return stepSeconds;
+    }
+
+    long stepNanos() {
+        return stepNanos;
+    }
+
+    long totalSteps() {
+        return totalSteps;
+    }
+
+    long droppedNanos() {
+        return droppedNanos;
+    }
+
+    int lastFrameSteps() {
+        return lastFrameSteps;
+    }
+
+    // Pasos que el último advance descartó por el tope de pasos por frame
+    long lastFrameDroppedSteps() {
+        return lastFrameDroppedSteps;
+    }
+
+    long lastFrameNanos() {
+        return lastFrameNanos;
+    }
+}
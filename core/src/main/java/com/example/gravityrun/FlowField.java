@@ -0,0 +1,175 @@
+package com.example.gravityrun;
+
+import java.util.Arrays;
+
+// Campo de flujo hacia el jugador sobre una rejilla de navegación.
+//
+// Al cargar el nivel los muros se rasterizan en celdas cuadradas: una celda está libre si una
+// caja de semilado clearance centrada en ella no toca ningún muro. Con clearance = radio del
+// perseguidor + media celda, cualquier punto de una celda libre (y el paso entre dos celdas
+// libres vecinas) deja al perseguidor sin tocar muros.
+//
+// Para cada celda se guarda la siguiente celda del camino más corto (BFS a 4 vecinos) hacia
+// la celda del jugador, así que orientar a un perseguidor cuesta O(1). El BFS solo se rehace
+// cuando el jugador cambia de celda, y se reparte entre pasos (presupuesto de celdas por paso)
+// sobre un segundo juego de arrays; mientras tanto los perseguidores siguen el campo anterior.
+final class FlowField {
+
+    static final int UNREACHABLE = -1;
+
+    final int cols, rows;
+    private final float originX, originY;
+    private final float cellSize;
+    private final float invCellSize;
+    private final boolean[] blocked;
+
+    // Campo en uso: siguiente celda y distancia en celdas hasta el objetivo
+    private int[] next, distance;
+    private int target = UNREACHABLE;
+
+    // Campo en construcción
+    private int[] buildNext, buildDistance;
+    private final int[] queue;
+    private int head, tail;
+    private int buildTarget = UNREACHABLE;
+    private boolean building;
+
+    private FlowField(int cols, int rows, float originX, float originY, float cellSize) {
+        this.cols = cols;
+        this.rows = rows;
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.invCellSize = 1f / cellSize;
+        int cells = cols * rows;
+        blocked = new boolean[cells];
+        next = new int[cells];
+        distance = new int[cells];
+        buildNext = new int[cells];
+        buildDistance = new int[cells];
+        queue = new int[cells];
+        Arrays.fill(next, UNREACHABLE);
+        Arrays.fill(distance, UNREACHABLE);
+    }
+
+    // Rasteriza los muros de walls dentro del rectángulo (left, top)-(right, bottom)
+    static FlowField build(WallGrid walls, float left, float top, float right, float bottom,
+                           float cellSize, float clearance) {
+        if (!(cellSize > 0)) throw new IllegalArgumentException("Tamaño de celda no válido: " + cellSize);
+        int cols = Math.max(1, (int) Math.ceil((right - left) / cellSize));
+        int rows = Math.max(1, (int) Math.ceil((bottom - top) / cellSize));
+        FlowField field = new FlowField(cols, rows, left, top, cellSize);
+        for (int row = 0; row < rows; row++) {
+            float cy = field.centerY(row * cols);
+            for (int col = 0; col < cols; col++) {
+                float cx = field.centerX(col);
+                field.blocked[row * cols + col] =
+                        walls.intersectsAny(cx - clearance, cy - clearance, cx + clearance, cy + clearance);
+            }
+        }
+        return field;
+    }
+
+    int cellCount() {
+        return cols * rows;
+    }
+
+    // Celda que contiene (x, y), recortada a la rejilla
+    int cellOf(float x, float y) {
+        int col = (int) ((x - originX) * invCellSize);
+        int row = (int) ((y - originY) * invCellSize);
+        if (col < 0) col = 0;
+        if (col >= cols) col = cols - 1;
+        if (row < 0) row = 0;
+        if (row >= rows) row = rows - 1;
+        return row * cols + col;
+    }
+
+    float centerX(int cell) {
+        return originX + (cell % cols + 0.5f) * cellSize;
+    }
+
+    float centerY(int cell) {
+        return originY + (cell / cols + 0.5f) * cellSize;
+    }
+
+    boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    // Siguiente celda hacia el objetivo (la propia celda si ya es el objetivo) o UNREACHABLE
+    int next(int cell) {
+        return next[cell];
+    }
+
+    int distance(int cell) {
+        return distance[cell];
+    }
+
+    int target() {
+        return target;
+    }
+
+    boolean isBuilding() {
+        return building;
+    }
+
+    // Recalcula el campo entero hacia targetCell, sin repartir (carga de nivel, tests)
+    void rebuild(int targetCell) {
+        startBuild(targetCell);
+        advanceBuild(Integer.MAX_VALUE);
+    }
+
+    // Avanza el campo hacia targetCell procesando como mucho budget celdas. Si el objetivo
+    // cambia durante una construcción, esta termina primero y la siguiente usa el último.
+    void update(int targetCell, int budget) {
+        if (!building && targetCell != target) {
+            startBuild(targetCell);
+        }
+        if (building) {
+            advanceBuild(budget);
+        }
+    }
+
+    private void startBuild(int targetCell) {
+        Arrays.fill(buildNext, UNREACHABLE);
+        Arrays.fill(buildDistance, UNREACHABLE);
+        // El jugador puede estar pegado a un muro (celda bloqueada); es el origen igualmente
+        buildNext[targetCell] = targetCell;
+        buildDistance[targetCell] = 0;
+        head = 0;
+        tail = 0;
+        queue[tail++] = targetCell;
+        buildTarget = targetCell;
+        building = true;
+    }
+
+    private void advanceBuild(int budget) {
+        for (int processed = 0; head < tail && processed < budget; processed++) {
+            int cell = queue[head++];
+            int col = cell % cols;
+            int d = buildDistance[cell] + 1;
+            if (col > 0) visit(cell - 1, cell, d);
+            if (col < cols - 1) visit(cell + 1, cell, d);
+            if (cell >= cols) visit(cell - cols, cell, d);
+            if (cell + cols < cols * rows) visit(cell + cols, cell, d);
+        }
+        if (head == tail) {
+            int[] swap = next;
+            next = buildNext;
+            buildNext = swap;
+            swap = distance;
+            distance = buildDistance;
+            buildDistance = swap;
+            target = buildTarget;
+            building = false;
+        }
+    }
+
+    private void visit(int cell, int from, int d) {
+        if (blocked[cell] || buildNext[cell] != UNREACHABLE) return;
+        buildNext[cell] = from;
+        buildDistance[cell] = d;
+        queue[tail++] = cell;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Métricas por frame de GameView: intervalo entre frames, coste de la simulación, consultas de
+// colisión (pruebas y tiempo), duración de onDraw y latencia sensor-a-pantalla. Todo se guarda
+// en histogramas preasignados; registrar no crea objetos.
+final class FrameStats {
+
+    // Un frame que tarda más de 1.5 periodos de refresco cuenta como perdido
+    private static final float DROPPED_FRAME_FACTOR = 1.5f;
+
+    final LatencyHistogram frameInterval = new LatencyHistogram();
+    final LatencyHistogram simulation = new LatencyHistogram();
+    final LatencyHistogram collisionNanos = new LatencyHistogram();
+    final LatencyHistogram collisionTests = new LatencyHistogram();
+    final LatencyHistogram draw = new LatencyHistogram();
+    final LatencyHistogram sensorToPhoton = new LatencyHistogram();
+
+    private long refreshPeriodNanos = 16_666_667L;
+    private long lastFrameStartNanos = -1;
+    private long frames = 0;
+    private long droppedFrames = 0;
+
+    // Acumuladores del frame en curso
+    private long frameCollisionNanos = 0;
+    private int frameCollisionTests = 0;
+
+    void setRefreshRate(float hz) {
+        if (hz > 0) refreshPeriodNanos = (long) (1_000_000_000L / hz);
+    }
+
+    void beginFrame(long nowNanos) {
+        if (lastFrameStartNanos >= 0) {
+            long interval = nowNanos - lastFrameStartNanos;
+            frameInterval.record(interval);
+            if (interval > refreshPeriodNanos * DROPPED_FRAME_FACTOR) {
+                droppedFrames += interval / refreshPeriodNanos - 1;
+            }
+        }
+        lastFrameStartNanos = nowNanos;
+        frameCollisionNanos = 0;
+        frameCollisionTests = 0;
+        frames++;
+    }
+
+    // Un hueco en el dibujo (pausa, menú) no debe contar como frame lento
+    void breakFrameChain() {
+        lastFrameStartNanos = -1;
+    }
+
+    void recordCollision(long nanos, int tests) {
+        frameCollisionNanos += nanos;
+        frameCollisionTests += tests;
+    }
+
+    void recordSimulation(long nanos) {
+        simulation.record(nanos);
+    }
+
+    void recordSensorToPhoton(long nanos) {
+        sensorToPhoton.record(nanos);
+    }
+
+    void endFrame(long drawNanos) {
+        draw.record(drawNanos);
+        collisionNanos.record(frameCollisionNanos);
+        collisionTests.record(frameCollisionTests);
+    }
+
+    long frames() {
+        return frames;
+    }
+
+    long droppedFrames() {
+        return droppedFrames;
+    }
+
+    void reset() {
+        frameInterval.reset();
+        simulation.reset();
+        collisionNanos.reset();
+        collisionTests.reset();
+        draw.reset();
+        sensorToPhoton.reset();
+        lastFrameStartNanos = -1;
+        frames = 0;
+        droppedFrames = 0;
+    }
+
+    // Resumen de la sesión en texto plano, una métrica por línea, para comparar builds
+    void writeSummary(Writer out) throws IOException {
+        out.write("frames " + frames + "\n");
+        out.write("dropped_frames " + droppedFrames + "\n");
+        out.write("# metrica count p50 p95 p99 max mean (ns, salvo collision_tests)\n");
+        writeLine(out, "frame_interval", frameInterval);
+        writeLine(out, "simulation_step", simulation);
+        writeLine(out, "collision_ns", collisionNanos);
+        writeLine(out, "collision_tests", collisionTests);
+        writeLine(out, "draw", draw);
+        writeLine(out, "sensor_to_photon", sensorToPhoton);
+        out.flush();
+    }
+
+    private static void writeLine(Writer out, String name, LatencyHistogram h) throws IOException {
+        out.write(name + " " + h.count() + " " + h.percentile(0.50) + " " + h.percentile(0.95) + " "
+                + h.percentile(0.99) + " " + h.max() + " " + h.mean() + "\n");
+    }
+}
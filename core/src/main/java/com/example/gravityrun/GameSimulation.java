@@ -0,0 +1,702 @@
+package com.example.gravityrun;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+// Lógica del juego sin dependencias de Android (sin View, Canvas ni SensorManager): estado,
+// bola, colisiones y paso fijo. GameView la alimenta con muestras de sensores y la dibuja;
+// InputReplayer la ejecuta sin pantalla a partir de una grabación.
+//
+// Todo va en unidades de diseño (DESIGN_WIDTH x DESIGN_HEIGHT): la escala y el centrado en
+// pantalla son cosa de GameView, con una sola matriz al dibujar. La geometría de los niveles
+// (LevelData y su WallGrid) sale de un LevelCache y se comparte entre cargas.
+final class GameSimulation {
+
+    // Tipos de sensor: mismos valores que android.hardware.Sensor.TYPE_*
+    static final int SENSOR_ACCELEROMETER = 1;
+    static final int SENSOR_LIGHT = 5;
+    static final int SENSOR_PROXIMITY = 8;
+
+    // Nivel generado proceduralmente (después de los niveles de assets/levels.bin)
+    static final int ENDLESS_LEVEL = 4;
+    static final int ENDLESS_MAZE_CELLS = 40;
+
+    // Modo persecución: la disposición del primer nivel con cientos de perseguidores
+    static final int CHASE_LEVEL = 5;
+    static final int CHASER_COUNT = 200;
+    static final float CHASER_RADIUS = 12; // Unidades de diseño
+    private static final float CHASER_SPEED = 1.2f; // Unidades de diseño por paso
+    private static final float NAV_CELL_DESIGN_SIZE = 20f;
+    private static final int CHASER_SPAWN_DISTANCE = 25; // Celdas de navegación
+    private static final int FLOW_CELLS_PER_STEP = 2048; // Presupuesto del BFS repartido
+
+    // Modo multibola: miles de bolas con la disposición del primer nivel; se gana al meter
+    // MULTI_BALL_GOAL en la meta
+    static final int MULTI_BALL_LEVEL = 6;
+    static final int MULTI_BALL_COUNT = 2000;
+    static final int MULTI_BALL_GOAL = 200;
+    static final float MULTI_BALL_RADIUS = 8; // Unidades de diseño
+
+    // Laberinto gigante leído por trozos (LevelChunks) a medida que la bola avanza; solo
+    // existe si se ha dado un fichero con setStreamedLevel
+    static final int STREAMED_LEVEL = 7;
+    static final long STREAMED_BUDGET_BYTES = 256 * 1024;
+    static final int STREAMED_PREFETCH_RADIUS = 2; // Trozos de distancia
+
+    // Carrera contra otros jugadores (RaceServer) en la disposición del primer nivel; aquí es
+    // un nivel normal, las bolas de los demás las pone RaceClient
+    static final int RACE_LEVEL = 8;
+
+    // --- ÁREA DE DISEÑO ---
+    static final float DESIGN_WIDTH = 1010f;
+    static final float DESIGN_HEIGHT = 1710f;
+
+    // Salida, radio y velocidad de la bola en unidades de diseño
+    static final float ORIGINAL_START_X = 60;
+    static final float ORIGINAL_START_Y = 60;
+    static final float ORIGINAL_RADIUS = 30;
+    static final float ORIGINAL_SPEED = 2.5f;
+
+    // *** CAMBIO CONSTANTE DE FORMA (NIVEL 3) ***
+    private static final long SHAPE_CHANGE_INTERVAL = 72; // Cambia la forma cada 72 pasos (~0.6 s a 120 Hz)
+
+    // ORIGINAL_SPEED se calibró para un evento de SENSOR_DELAY_GAME (~50 Hz), así que se
+    // reparte proporcionalmente entre los pasos de simulación.
+    private static final float SENSOR_REFERENCE_HZ = 50f;
+
+    private static final float GRID_CELL_DESIGN_SIZE = 100f; // Tamaño de celda en unidades de diseño
+    // Los del pack y unos pocos laberintos generados
+    static final int LEVEL_CACHE_CAPACITY = 8;
+    private static final int MAX_SLIDE_ITERATIONS = 3; // Impacto + deslizamiento por cada eje
+
+    // Con poca luz el fondo pasa a gris oscuro (Color.DKGRAY)
+    static final int DARK_BACKGROUND_COLOR = 0xFF444444;
+    private static final float DARK_LUX = 10;
+
+    interface Listener {
+        void onStateChanged(GameState from, GameState to);
+    }
+
+    private final LevelPack levelPack;
+    // Geometría por (nivel, semilla): los del pack con semilla 0, el generado con la suya
+    private final LevelCache levelCache;
+    private Executor precomputeExecutor; // Para adelantar el siguiente laberinto (o null)
+    private final FrameStats stats;
+    private InputRecorder recorder;
+    private Listener listener;
+
+    private GameState gameState = GameState.LEVEL_SELECT;
+    private PlayerShape playerShape = PlayerShape.CIRCLE;
+    private int currentLevel = 0; // 0 significa en el menú de selección
+    private LevelData levelData;
+    private long endlessSeed = 1;
+    private long levelSeed = 0; // Semilla con la que se cargó el nivel actual
+    private long frameCount = 0; // Contador de pasos de simulación para la forma cambiante
+    private long levelSteps = 0; // Pasos de reloj en el nivel actual, simulados o no (tiempo de partida)
+    private final RunTimer runTimer = new RunTimer();
+
+    private final FixedStepLoop loop = new FixedStepLoop(FixedStepLoop.DEFAULT_HZ);
+    private final TiltFilter tiltFilter = new TiltFilter(0.05f);
+    private float tiltX, tiltY; // Inclinación filtrada del acelerómetro
+    private long lastTiltTimestampNanos = -1; // Base de tiempos de SensorEvent.timestamp
+    private float proximityMaxRange = 0;
+
+    private float ballX, ballY;
+    private float prevBallX, prevBallY; // Posición en el paso anterior (para interpolar)
+    private final float radius = ORIGINAL_RADIUS;
+    private final float movementSpeed = ORIGINAL_SPEED;
+
+    // Índice espacial de los muros del nivel; las colisiones solo miran las celdas que toca
+    // la bola
+    private WallGrid wallGrid;
+    private final WallGrid.Contact contact = new WallGrid.Contact();
+    private boolean hasExit = false;
+    private float exitLeft, exitTop, exitRight, exitBottom;
+    private float levelRight, levelBottom; // Extensión del nivel actual
+
+    // Modo persecución: campo de flujo hacia el jugador y perseguidores
+    private FlowField flowField;
+    private final ChaserSwarm chasers = new ChaserSwarm(CHASER_COUNT);
+
+    // Modo multibola: bolas y pool en el que se reparte su paso (null = en este hilo)
+    private final BallSwarm balls = new BallSwarm(MULTI_BALL_COUNT);
+    private ForkJoinPool ballPool = ForkJoinPool.commonPool();
+    private int ballsHome = 0;
+
+    // Nivel por trozos: fichero, executor de lecturas y el streamer del nivel cargado
+    private LevelChunks streamedLevel;
+    private Executor streamExecutor;
+    private ChunkStreamer streamer;
+
+    private int backgroundColor = 0xFF000000;
+    private int levelBackgroundColor = 0xFF000000; // Color de la paleta del nivel actual
+
+    private long lastStepCostNanos = 0;
+
+    GameSimulation(LevelPack levelPack, FrameStats stats) {
+        this.levelPack = levelPack;
+        this.stats = stats;
+        levelCache = new LevelCache(LEVEL_CACHE_CAPACITY, GRID_CELL_DESIGN_SIZE, this::buildLevel);
+    }
+
+    void setRecorder(InputRecorder recorder) {
+        this.recorder = recorder;
+        if (recorder != null) {
+            recorder.recordConfigure(proximityMaxRange);
+        }
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Alcance máximo del sensor de proximidad: por debajo, la partida se pausa
+    void setProximityMaxRange(float proximityMaxRange) {
+        this.proximityMaxRange = proximityMaxRange;
+        if (recorder != null) {
+            recorder.recordConfigure(proximityMaxRange);
+        }
+    }
+
+    // Pool para el modo multibola; null lo ejecuta en el hilo de la simulación. El resultado
+    // no depende de esto.
+    void setBallPool(ForkJoinPool pool) {
+        this.ballPool = pool;
+    }
+
+    // Construye en el executor la geometría de todos los niveles del pack y del siguiente
+    // laberinto, y a partir de aquí la del laberinto que toque después de cada carga
+    void precomputeLevels(Executor executor) {
+        precomputeExecutor = executor;
+        for (int i = 0; i < levelPack.levelCount(); i++) {
+            levelCache.precompute(i + 1, 0, executor);
+        }
+        levelCache.precompute(ENDLESS_LEVEL, endlessSeed, executor);
+    }
+
+    // Fichero del nivel por trozos y executor en el que se leen sus trozos (null: sin fichero)
+    void setStreamedLevel(LevelChunks chunks, Executor executor) {
+        this.streamedLevel = chunks;
+        this.streamExecutor = executor;
+    }
+
+    // ¿Existe el nivel? (el de trozos solo si ya hay fichero)
+    boolean canLoad(int level) {
+        return level >= 0 && level <= MULTI_BALL_LEVEL || level == STREAMED_LEVEL && streamedLevel != null
+                || level == RACE_LEVEL;
+    }
+
+    void loadLevel(int level) {
+        loadLevel(level, level == ENDLESS_LEVEL || level == CHASE_LEVEL || level == MULTI_BALL_LEVEL
+                ? endlessSeed++ : 0);
+    }
+
+    // seed solo se usa para el nivel generado y el reparto de perseguidores y bolas
+    void loadLevel(int level, long seed) {
+        if (!canLoad(level)) {
+            throw new IllegalStateException("Nivel no disponible: " + level);
+        }
+        if (recorder != null) {
+            recorder.recordLevel(level, seed);
+        }
+        currentLevel = level;
+        levelSeed = seed;
+
+        // Reinicia el contador de frames al cargar un nivel
+        frameCount = 0;
+        levelSteps = 0;
+
+        ballX = ORIGINAL_START_X;
+        ballY = ORIGINAL_START_Y;
+        prevBallX = ballX;
+        prevBallY = ballY;
+        tiltX = 0;
+        tiltY = 0;
+        tiltFilter.reset();
+        loop.reset();
+
+        flowField = null;
+        chasers.clear();
+        balls.clear();
+        ballsHome = 0;
+        streamer = null;
+
+        if (level == 0) { // Menú de Selección
+            backgroundColor = 0xFF000000;
+            playerShape = PlayerShape.CIRCLE;
+            levelData = null;
+            wallGrid = null;
+            hasExit = false;
+            setState(GameState.LEVEL_SELECT);
+            return;
+        }
+
+        // --- Configuración por Nivel (desde assets/levels.bin o generado) ---
+        // Normalmente ya está en la caché (precalculado o de una carga anterior)
+        LevelData data;
+        if (level == STREAMED_LEVEL) {
+            // Sin muros al empezar: los trae el streamer en los primeros pasos
+            data = streamedLevel.header();
+            streamer = new ChunkStreamer(streamedLevel, streamExecutor, STREAMED_BUDGET_BYTES,
+                    STREAMED_PREFETCH_RADIUS);
+            wallGrid = streamer.grid();
+        } else {
+            // Persecución, multibola y carrera usan la disposición del primer nivel
+            LevelCache.Entry geometry = level == ENDLESS_LEVEL ? levelCache.get(ENDLESS_LEVEL, seed)
+                    : levelCache.get(level == CHASE_LEVEL || level == MULTI_BALL_LEVEL || level == RACE_LEVEL
+                    ? 1 : level, 0);
+            data = geometry.data;
+            wallGrid = geometry.grid;
+            if (precomputeExecutor != null) {
+                levelCache.precompute(ENDLESS_LEVEL, endlessSeed, precomputeExecutor);
+            }
+        }
+        levelData = data;
+        levelBackgroundColor = data.backgroundColor;
+        backgroundColor = data.backgroundColor;
+        playerShape = data.playerShape;
+        if (streamer != null) {
+            levelRight = Math.max(DESIGN_WIDTH, streamedLevel.width());
+            levelBottom = Math.max(DESIGN_HEIGHT, streamedLevel.height());
+        } else {
+            levelRight = Math.max(DESIGN_WIDTH, wallGrid.maxRight());
+            levelBottom = Math.max(DESIGN_HEIGHT, wallGrid.maxBottom());
+        }
+
+        exitLeft = data.exitLeft;
+        exitTop = data.exitTop;
+        exitRight = data.exitRight;
+        exitBottom = data.exitBottom;
+        hasExit = true;
+        runTimer.start(ballX, ballY, (exitLeft + exitRight) / 2, (exitTop + exitBottom) / 2);
+
+        if (level == CHASE_LEVEL) {
+            spawnChasers(seed);
+        } else if (level == MULTI_BALL_LEVEL) {
+            balls.spawn(wallGrid, 0, 0, levelRight, levelBottom, MULTI_BALL_COUNT, MULTI_BALL_RADIUS, seed);
+        }
+
+        setState(GameState.RUNNING);
+    }
+
+    // Vuelve al punto guardado en un GameSnapshot: recarga el nivel con la misma semilla (el
+    // laberinto generado sale idéntico y la geometría del pack viene de la caché) y repone la
+    // bola, la forma y los contadores. Perseguidores y bolas del multibola no se guardan: las
+    // bolas vuelven a su reparto inicial y los perseguidores se reparten lejos de la posición
+    // repuesta.
+    void restore(int level, long seed, long nextSeed, GameState state, PlayerShape shape,
+            long frameCount, long levelSteps, float x, float y, int ballsHome) {
+        loadLevel(level, seed);
+        endlessSeed = Math.max(endlessSeed, nextSeed);
+        if (level == 0) return;
+        this.frameCount = frameCount;
+        this.levelSteps = levelSteps;
+        this.ballsHome = ballsHome;
+        playerShape = shape;
+        ballX = x;
+        ballY = y;
+        prevBallX = x;
+        prevBallY = y;
+        if (level == MULTI_BALL_LEVEL) {
+            runTimer.update(ballsHome / (float) MULTI_BALL_GOAL, RunTimer.NOT_REACHED);
+        } else {
+            runTimer.resume(x, y);
+        }
+        if (flowField != null) {
+            flowField.rebuild(flowField.cellOf(ballX, ballY));
+            chasers.spawn(flowField, CHASER_COUNT, CHASER_SPAWN_DISTANCE, CHASER_RADIUS, CHASER_SPEED, seed);
+        }
+        setState(state);
+    }
+
+    // Geometría de un nivel para LevelCache (puede llamarse desde el hilo de precálculo: solo
+    // lee el pack, con lecturas absolutas, o genera)
+    private LevelData buildLevel(int level, long seed) {
+        return level == ENDLESS_LEVEL ? MazeGenerator.generate(ENDLESS_MAZE_CELLS, ENDLESS_MAZE_CELLS, seed)
+                : levelPack.level(level - 1);
+    }
+
+    // Rasteriza el nivel en la rejilla de navegación, calcula el campo entero hacia la
+    // posición inicial y reparte los perseguidores lejos de ella
+    private void spawnChasers(long seed) {
+        flowField = FlowField.build(wallGrid, 0, 0, levelRight, levelBottom,
+                NAV_CELL_DESIGN_SIZE, CHASER_RADIUS + NAV_CELL_DESIGN_SIZE / 2);
+        flowField.rebuild(flowField.cellOf(ballX, ballY));
+        chasers.spawn(flowField, CHASER_COUNT, CHASER_SPAWN_DISTANCE, CHASER_RADIUS, CHASER_SPEED, seed);
+    }
+
+    private void setState(GameState state) {
+        GameState previous = gameState;
+        gameState = state;
+        if (previous != state && listener != null) {
+            listener.onStateChanged(previous, state);
+        }
+    }
+
+    // --- Entrada de sensores ---
+    // Firma compatible con SensorRingBuffer.Sink
+    void handleSample(int type, long timestampNanos, float v0, float v1, float v2) {
+        if (recorder != null) {
+            recorder.recordSample(type, timestampNanos, v0, v1, v2);
+        }
+        if (type == SENSOR_ACCELEROMETER) {
+            tiltFilter.update(v0, v1, timestampNanos);
+            tiltX = tiltFilter.x();
+            tiltY = tiltFilter.y();
+            lastTiltTimestampNanos = timestampNanos;
+        } else if (type == SENSOR_PROXIMITY) {
+            // Tapar el sensor de proximidad pausa la partida
+            if (v0 < proximityMaxRange && gameState == GameState.RUNNING) {
+                setState(GameState.PAUSED);
+            } else if (v0 >= proximityMaxRange && gameState == GameState.PAUSED) {
+                setState(GameState.RUNNING);
+                loop.reset();
+            }
+        } else if (type == SENSOR_LIGHT) {
+            if (wallGrid != null) {
+                backgroundColor = (v0 < DARK_LUX) ? DARK_BACKGROUND_COLOR : levelBackgroundColor;
+            }
+        }
+    }
+
+    void setTiltFilterTimeConstant(float seconds) {
+        tiltFilter.setTimeConstant(seconds);
+    }
+
+    // --- Paso fijo ---
+    // Ejecuta los pasos fijos pendientes hasta el instante nowNanos (en la app, en la base de
+    // SensorEvent.timestamp: SystemClock.elapsedRealtimeNanos)
+    int advance(long nowNanos) {
+        int steps = loop.advance(nowNanos);
+        // Los pasos que el tope por frame no deja simular siguen siendo tiempo de partida
+        skipSteps(loop.lastFrameDroppedSteps());
+        if (steps > 0 && gameState == GameState.RUNNING) {
+            runSteps(steps);
+        }
+        return steps;
+    }
+
+    void runSteps(int steps) {
+        if (recorder != null) {
+            recorder.recordSteps(steps);
+        }
+        for (int i = 0; i < steps && gameState == GameState.RUNNING; i++) {
+            prevBallX = ballX;
+            prevBallY = ballY;
+            long start = System.nanoTime();
+            step();
+            levelSteps++;
+            lastStepCostNanos = System.nanoTime() - start;
+            stats.recordSimulation(lastStepCostNanos);
+        }
+    }
+
+    // Cuenta pasos en el tiempo de partida sin simularlos (tope por frame o reposo)
+    void skipSteps(long steps) {
+        if (steps <= 0 || gameState != GameState.RUNNING) return;
+        if (recorder != null) {
+            recorder.recordSkippedSteps(steps);
+        }
+        levelSteps += steps;
+    }
+
+    // Olvida el tiempo acumulado (al volver de una pausa o reanudar los sensores): ese rato no
+    // cuenta en el tiempo de partida
+    void resetClock() {
+        loop.reset();
+    }
+
+    // Vuelta del reposo: el rato sin frames cuenta en el tiempo de partida, pero no se simula
+    // (nada de pasos pendientes de golpe)
+    void resumeClock(long nowNanos) {
+        skipSteps(loop.skip(nowNanos));
+    }
+
+    // Un paso de simulación de duración fija
+    void step() {
+        if (wallGrid == null) return;
+
+        float stepSpeed = movementSpeed * SENSOR_REFERENCE_HZ * loop.stepSeconds();
+        float xMovement = -tiltX * stepSpeed;
+        float yMovement = tiltY * stepSpeed;
+
+        // *** Lógica de Cambio de Forma Constante (NIVEL 3) ***
+        if (changesShape()) {
+            frameCount++;
+            if (frameCount % SHAPE_CHANGE_INTERVAL == 0) {
+                // Alterna entre Círculo y Cuadrado
+                if (playerShape == PlayerShape.CIRCLE) {
+                    playerShape = PlayerShape.SQUARE;
+                } else {
+                    playerShape = PlayerShape.CIRCLE;
+                }
+            }
+        }
+        // *******************************************************
+
+        // Modo multibola: las bolas sustituyen a la del jugador
+        if (currentLevel == MULTI_BALL_LEVEL) {
+            long collisionStart = System.nanoTime();
+            balls.step(xMovement, yMovement, ballPool);
+            stats.recordCollision(System.nanoTime() - collisionStart, balls.count());
+            ballsHome += balls.removeTouching(exitLeft, exitTop, exitRight, exitBottom);
+            runTimer.update(ballsHome / (float) MULTI_BALL_GOAL, levelSteps + 1);
+            if (ballsHome >= MULTI_BALL_GOAL) {
+                setState(GameState.WON);
+            }
+            return;
+        }
+
+        // Nivel por trozos: la rejilla es la de los trozos cercanos ya cargados. Si el movimiento
+        // llega a una zona que aún no está, la bola espera en vez de atravesar muros sin cargar.
+        if (streamer != null) {
+            streamer.update(ballX, ballY);
+            wallGrid = streamer.grid();
+            if (!streamer.ready(Math.min(ballX, ballX + xMovement) - radius,
+                    Math.min(ballY, ballY + yMovement) - radius,
+                    Math.max(ballX, ballX + xMovement) + radius,
+                    Math.max(ballY, ballY + yMovement) + radius)) {
+                return;
+            }
+        }
+
+        // Colisión continua: sin atravesar muros finos y deslizando a lo largo de las paredes
+        long collisionStart = System.nanoTime();
+        int tests = moveBall(xMovement, yMovement);
+        stats.recordCollision(System.nanoTime() - collisionStart, tests);
+        // El paso en curso ya cuenta: levelSteps se incrementa al volver. Llegar a la meta
+        // cierra los puntos de control que falten.
+        runTimer.updatePosition(ballX, ballY, levelSteps + 1);
+        if (gameState == GameState.WON) {
+            runTimer.update(1, levelSteps + 1);
+        }
+
+        // LÍMITES AJUSTADOS (choca con el borde del laberinto)
+        float mazeLeft = 0;
+        float mazeRight = levelRight;
+        float mazeTop = 0;
+
+        if (ballX < mazeLeft + radius) ballX = mazeLeft + radius;
+        if (ballX > mazeRight - radius) ballX = mazeRight - radius;
+        if (ballY < mazeTop + radius) ballY = mazeTop + radius;
+
+        // Perseguidores: el campo solo se rehace (repartido) cuando el jugador cambia de celda
+        if (flowField != null && gameState == GameState.RUNNING) {
+            flowField.update(flowField.cellOf(ballX, ballY), FLOW_CELLS_PER_STEP);
+            if (chasers.step(flowField, ballX, ballY, radius)) {
+                setState(GameState.LOST);
+            }
+        }
+    }
+
+    // Mueve la bola (dx,dy) con colisión continua: una sola consulta a la rejilla sobre la
+    // envolvente del movimiento y, con esos candidatos, barridos sucesivos que avanzan hasta el
+    // impacto y deslizan el resto del movimiento por la pared usando la normal de contacto.
+    // Devuelve el número de pruebas de colisión hechas (métrica).
+    private int moveBall(float dx, float dy) {
+        int candidates = wallGrid.gatherCandidates(
+                Math.min(ballX, ballX + dx) - radius,
+                Math.min(ballY, ballY + dy) - radius,
+                Math.max(ballX, ballX + dx) + radius,
+                Math.max(ballY, ballY + dy) + radius);
+
+        int tests = 0;
+        for (int i = 0; i < MAX_SLIDE_ITERATIONS && (dx != 0 || dy != 0); i++) {
+            wallGrid.sweepCandidates(candidates, ballX, ballY, radius, dx, dy, contact);
+            tests += candidates + 1;
+
+            // La meta cuenta si se alcanza antes (o a la vez) que la pared; infinito es "no la toca"
+            float exitToi = !hasExit ? Float.POSITIVE_INFINITY : WallGrid.sweepToi(
+                    ballX, ballY, radius, dx, dy, exitLeft, exitTop, exitRight, exitBottom);
+            if (exitToi != Float.POSITIVE_INFINITY && exitToi <= contact.toi) {
+                ballX += dx * exitToi;
+                ballY += dy * exitToi;
+                setState(GameState.WON);
+                return tests;
+            }
+
+            if (!contact.hit()) {
+                ballX += dx;
+                ballY += dy;
+                return tests;
+            }
+
+            // Avanza hasta el contacto, pega la bola a la cara y desliza el resto tangencialmente
+            float remaining = 1f - contact.toi;
+            int w = contact.wall;
+            if (contact.nx != 0) {
+                ballX = contact.nx < 0 ? wallGrid.left[w] - radius : wallGrid.right[w] + radius;
+                ballY += dy * contact.toi;
+                dx = 0;
+                dy *= remaining;
+            } else {
+                ballX += dx * contact.toi;
+                ballY = contact.ny < 0 ? wallGrid.top[w] - radius : wallGrid.bottom[w] + radius;
+                dx *= remaining;
+                dy = 0;
+            }
+        }
+        return tests;
+    }
+
+    // --- Consultas ---
+    GameState gameState() {
+        return gameState;
+    }
+
+    PlayerShape playerShape() {
+        return playerShape;
+    }
+
+    int currentLevel() {
+        return currentLevel;
+    }
+
+    // La forma del jugador cambia sola aunque la bola no se mueva
+    boolean changesShape() {
+        return currentLevel == 3;
+    }
+
+    // Algo se mueve en pantalla aunque la bola esté quieta (en multibola la bola del jugador
+    // no se mueve nunca, así que no sirve para detectar el reposo)
+    boolean animatesWithoutInput() {
+        return changesShape() || chasers.count() > 0 || balls.count() > 0;
+    }
+
+    ChaserSwarm chasers() {
+        return chasers;
+    }
+
+    BallSwarm balls() {
+        return balls;
+    }
+
+    // Bolas del modo multibola que ya han llegado a la meta
+    int ballsHome() {
+        return ballsHome;
+    }
+
+    LevelCache levelCache() {
+        return levelCache;
+    }
+
+    // Streamer del nivel por trozos cargado, o null
+    ChunkStreamer chunkStreamer() {
+        return streamer;
+    }
+
+    FlowField flowField() {
+        return flowField;
+    }
+
+    // Fracción del paso actual ya transcurrida, para interpolar al dibujar
+    float renderAlpha() {
+        return loop.alpha();
+    }
+
+    LevelData levelData() {
+        return levelData;
+    }
+
+    long frameCount() {
+        return frameCount;
+    }
+
+    long levelSeed() {
+        return levelSeed;
+    }
+
+    // Siguiente semilla para los niveles generados
+    long nextSeed() {
+        return endlessSeed;
+    }
+
+    long levelSteps() {
+        return levelSteps;
+    }
+
+    // Tiempo de partida en el nivel actual: pasos de reloj por la duración del paso fijo. Incluye
+    // el reposo y lo que el tope por frame descarta; las pausas no
+    long elapsedNanos() {
+        return levelSteps * loop.stepNanos();
+    }
+
+    // Tiempo del parcial i de la partida actual, o RunTimer.NOT_REACHED
+    long splitNanos(int i) {
+        long step = runTimer.splitStep(i);
+        return step == RunTimer.NOT_REACHED ? RunTimer.NOT_REACHED : step * loop.stepNanos();
+    }
+
+    float ballX() {
+        return ballX;
+    }
+
+    float ballY() {
+        return ballY;
+    }
+
+    // Posición interpolada entre el paso anterior y el actual, para dibujar
+    float renderX() {
+        return prevBallX + (ballX - prevBallX) * loop.alpha();
+    }
+
+    float renderY() {
+        return prevBallY + (ballY - prevBallY) * loop.alpha();
+    }
+
+    float radius() {
+        return radius;
+    }
+
+    WallGrid wallGrid() {
+        return wallGrid;
+    }
+
+    boolean hasExit() {
+        return hasExit;
+    }
+
+    float exitLeft() {
+        return exitLeft;
+    }
+
+    float exitTop() {
+        return exitTop;
+    }
+
+    float exitRight() {
+        return exitRight;
+    }
+
+    float exitBottom() {
+        return exitBottom;
+    }
+
+    float levelRight() {
+        return levelRight;
+    }
+
+    float levelBottom() {
+        return levelBottom;
+    }
+
+    int backgroundColor() {
+        return backgroundColor;
+    }
+
+    long lastTiltTimestampNanos() {
+        return lastTiltTimestampNanos;
+    }
+
+    long lastStepCostNanos() {
+        return lastStepCostNanos;
+    }
+
+    int lastFrameSteps() {
+        return loop.lastFrameSteps();
+    }
+
+    long totalSteps() {
+        return loop.totalSteps();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.gravityrun;
+
+import java.nio.ByteBuffer;
+
+// Foto binaria de la partida en curso para sobrevivir a la muerte del proceso o a un cambio
+// de configuración: nivel y semilla, estado, forma, bola, contadores y tiempo de partida.
+// Tamaño fijo y sin objetos intermedios, así que capturar en onPause es casi gratis y
+// restaurar cuesta lo mismo que cargar el nivel.
+//
+// Formato (big-endian): magic "GRSS" (int), versión (byte), nivel, estado y forma (byte cada
+// uno), semilla del nivel y siguiente semilla (long), frameCount y pasos del nivel (long),
+// bola x/y (float) y bolas en la meta (int).
+final class GameSnapshot {
+
+    static final int MAGIC = 0x47525353; // "GRSS"
+    static final int VERSION = 1;
+    static final int SIZE = 4 + 1 + 3 + 8 * 4 + 4 * 2 + 4;
+
+    private static final GameState[] STATES = GameState.values();
+    private static final PlayerShape[] SHAPES = PlayerShape.values();
+
+    private GameSnapshot() {}
+
+    static byte[] capture(GameSimulation simulation) {
+        byte[] out = new byte[SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(out);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) simulation.currentLevel());
+        buffer.put((byte) simulation.gameState().ordinal());
+        buffer.put((byte) simulation.playerShape().ordinal());
+        buffer.putLong(simulation.levelSeed());
+        buffer.putLong(simulation.nextSeed());
+        buffer.putLong(simulation.frameCount());
+        buffer.putLong(simulation.levelSteps());
+        buffer.putFloat(simulation.ballX());
+        buffer.putFloat(simulation.ballY());
+        buffer.putInt(simulation.ballsHome());
+        return out;
+    }
+
+    // Aplica la foto a la simulación. Una foto corta, de otra versión o con valores fuera de
+    // rango se ignora (devuelve false) y la simulación queda como estaba: perder la partida
+    // guardada es mejor que no poder arrancar.
+    static boolean restore(GameSimulation simulation, byte[] data) {
+        if (data == null || data.length != SIZE) return false;
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.getInt() != MAGIC || buffer.get() != VERSION) return false;
+        int level = buffer.get();
+        int state = buffer.get();
+        int shape = buffer.get();
+        long seed = buffer.getLong();
+        long nextSeed = buffer.getLong();
+        long frameCount = buffer.getLong();
+        long levelSteps = buffer.getLong();
+        float x = buffer.getFloat();
+        float y = buffer.getFloat();
+        int ballsHome = buffer.getInt();
+
+        if (!simulation.canLoad(level)
+                || state < 0 || state >= STATES.length || shape < 0 || shape >= SHAPES.length
+                || frameCount < 0 || levelSteps < 0 || ballsHome < 0
+                || !Float.isFinite(x) || !Float.isFinite(y)) {
+            return false;
+        }
+        simulation.restore(level, seed, nextSeed, STATES[state], SHAPES[shape],
+                frameCount, levelSteps, x, y, ballsHome);
+        return true;
+    }
+}
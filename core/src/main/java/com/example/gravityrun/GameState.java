@@ -0,0 +1,9 @@
+package com.example.gravityrun;
+
+enum GameState {
+    LEVEL_SELECT,
+    RUNNING,
+    PAUSED,
+    WON,
+    LOST
+}
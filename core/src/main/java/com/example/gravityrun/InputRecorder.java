@@ -0,0 +1,132 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Grabación compacta de todo lo que alimenta a GameSimulation, en orden: configuración del
+// sensor de proximidad, carga de niveles, muestras de sensores y pasos de simulación por frame.
+//
+// Formato: magic "GRRC" (int), versión (byte) y una secuencia de eventos con etiqueta de un
+// byte. Los enteros van como varint (LEB128); los timestamps como delta con signo (zigzag)
+// respecto a la muestra anterior, y los valores float como el XOR de sus bits con el último
+// valor del mismo sensor, que en lecturas consecutivas parecidas cabe en pocos bytes.
+final class InputRecorder {
+
+    static final int MAGIC = 0x47525243; // "GRRC"
+    // Versión 2: la simulación trabaja en unidades de diseño y la configuración ya no lleva
+    // escala ni offset de pantalla (las grabaciones de la versión 1 no se reproducen igual)
+    // Versión 3: TAG_SKIPPED_STEPS (las de la versión 2 se siguen reproduciendo)
+    static final int VERSION = 3;
+
+    static final int TAG_CONFIGURE = 1;
+    static final int TAG_LEVEL = 2;
+    static final int TAG_ACCELEROMETER = 3;
+    static final int TAG_PROXIMITY = 4;
+    static final int TAG_LIGHT = 5;
+    static final int TAG_STEPS = 6;
+    static final int TAG_SKIPPED_STEPS = 7;
+
+    private byte[] buffer = new byte[4096];
+    private int size = 0;
+
+    private long lastTimestamp = 0;
+    private final int[] lastAccelerometer = new int[3];
+    private int lastProximity = 0;
+    private int lastLight = 0;
+
+    InputRecorder() {
+        writeInt(MAGIC);
+        writeByte(VERSION);
+    }
+
+    void recordConfigure(float proximityMaxRange) {
+        writeByte(TAG_CONFIGURE);
+        writeInt(Float.floatToRawIntBits(proximityMaxRange));
+    }
+
+    void recordLevel(int level, long seed) {
+        writeByte(TAG_LEVEL);
+        writeVarLong(level);
+        writeVarLong(zigzag(seed));
+    }
+
+    void recordSample(int sensorType, long timestampNanos, float v0, float v1, float v2) {
+        if (sensorType == GameSimulation.SENSOR_ACCELEROMETER) {
+            writeByte(TAG_ACCELEROMETER);
+            writeTimestamp(timestampNanos);
+            lastAccelerometer[0] = writeXor(v0, lastAccelerometer[0]);
+            lastAccelerometer[1] = writeXor(v1, lastAccelerometer[1]);
+            lastAccelerometer[2] = writeXor(v2, lastAccelerometer[2]);
+        } else if (sensorType == GameSimulation.SENSOR_PROXIMITY) {
+            writeByte(TAG_PROXIMITY);
+            writeTimestamp(timestampNanos);
+            lastProximity = writeXor(v0, lastProximity);
+        } else if (sensorType == GameSimulation.SENSOR_LIGHT) {
+            writeByte(TAG_LIGHT);
+            writeTimestamp(timestampNanos);
+            lastLight = writeXor(v0, lastLight);
+        }
+    }
+
+    void recordSteps(int steps) {
+        writeByte(TAG_STEPS);
+        writeVarLong(steps);
+    }
+
+    // Pasos que cuentan en el tiempo de partida pero no se simularon
+    void recordSkippedSteps(long steps) {
+        writeByte(TAG_SKIPPED_STEPS);
+        writeVarLong(steps);
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    // --- Codificación ---
+    private void writeTimestamp(long timestampNanos) {
+        writeVarLong(zigzag(timestampNanos - lastTimestamp));
+        lastTimestamp = timestampNanos;
+    }
+
+    private int writeXor(float value, int previousBits) {
+        int bits = Float.floatToRawIntBits(value);
+        writeVarLong((bits ^ previousBits) & 0xFFFFFFFFL);
+        return bits;
+    }
+
+    static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private void writeVarLong(long v) {
+        while ((v & ~0x7FL) != 0) {
+            writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        writeByte((int) v);
+    }
+
+    private void writeInt(int v) {
+        writeByte(v >>> 24);
+        writeByte(v >>> 16);
+        writeByte(v >>> 8);
+        writeByte(v);
+    }
+
+    private void writeByte(int b) {
+        if (size == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        buffer[size++] = (byte) b;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.gravityrun;
+
+// Reproduce una grabación de InputRecorder sobre una GameSimulation nueva, sin View, Canvas
+// ni SensorManager y tan rápido como permita la CPU. Como la simulación es de paso fijo y la
+// grabación incluye los pasos de cada frame, el resultado es idéntico bit a bit al original.
+final class InputReplayer {
+
+    private final byte[] log;
+    private int pos;
+
+    private long lastTimestamp = 0;
+    private final int[] lastAccelerometer = new int[3];
+    private int lastProximity = 0;
+    private int lastLight = 0;
+
+    private InputReplayer(byte[] log) {
+        this.log = log;
+    }
+
+    static GameSimulation replay(byte[] log, LevelPack levelPack, GameSimulation.Listener listener) {
+        GameSimulation simulation = new GameSimulation(levelPack, new FrameStats());
+        simulation.setListener(listener);
+        new InputReplayer(log).run(simulation);
+        return simulation;
+    }
+
+    private void run(GameSimulation simulation) {
+        if (readInt() != InputRecorder.MAGIC) {
+            throw new IllegalArgumentException("No es una grabación GRRC");
+        }
+        int version = readByte();
+        if (version < 2 || version > InputRecorder.VERSION) {
+            throw new IllegalArgumentException("Versión de grabación no soportada: " + version);
+        }
+
+        while (pos < log.length) {
+            int tag = readByte();
+            switch (tag) {
+                case InputRecorder.TAG_CONFIGURE:
+                    simulation.setProximityMaxRange(Float.intBitsToFloat(readInt()));
+                    break;
+                case InputRecorder.TAG_LEVEL:
+                    int level = (int) readVarLong();
+                    long seed = unzigzag(readVarLong());
+                    simulation.loadLevel(level, seed);
+                    break;
+                case InputRecorder.TAG_ACCELEROMETER: {
+                    long ts = readTimestamp();
+                    lastAccelerometer[0] = readXor(lastAccelerometer[0]);
+                    lastAccelerometer[1] = readXor(lastAccelerometer[1]);
+                    lastAccelerometer[2] = readXor(lastAccelerometer[2]);
+                    simulation.handleSample(GameSimulation.SENSOR_ACCELEROMETER, ts,
+                            Float.intBitsToFloat(lastAccelerometer[0]),
+                            Float.intBitsToFloat(lastAccelerometer[1]),
+                            Float.intBitsToFloat(lastAccelerometer[2]));
+                    break;
+                }
+                case InputRecorder.TAG_PROXIMITY: {
+                    long ts = readTimestamp();
+                    lastProximity = readXor(lastProximity);
+                    simulation.handleSample(GameSimulation.SENSOR_PROXIMITY, ts,
+                            Float.intBitsToFloat(lastProximity), 0, 0);
+                    break;
+                }
+                case InputRecorder.TAG_LIGHT: {
+                    long ts = readTimestamp();
+                    lastLight = readXor(lastLight);
+                    simulation.handleSample(GameSimulation.SENSOR_LIGHT, ts,
+                            Float.intBitsToFloat(lastLight), 0, 0);
+                    break;
+                }
+                case InputRecorder.TAG_STEPS:
+                    simulation.runSteps((int) readVarLong());
+                    break;
+                case InputRecorder.TAG_SKIPPED_STEPS:
+                    simulation.skipSteps(readVarLong());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Evento desconocido " + tag + " en la posición " + (pos - 1));
+            }
+        }
+    }
+
+    // --- Decodificación ---
+    private long readTimestamp() {
+        lastTimestamp += unzigzag(readVarLong());
+        return lastTimestamp;
+    }
+
+    private int readXor(int previousBits) {
+        return (int) readVarLong() ^ previousBits;
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readVarLong() {
+        long v = 0;
+        int shift = 0;
+        while (true) {
+            int b = readByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+            shift += 7;
+            if (shift > 63) throw new IllegalArgumentException("varint demasiado largo");
+        }
+    }
+
+    private int readInt() {
+        return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+    }
+
+    private int readByte() {
+        if (pos >= log.length) throw new IllegalArgumentException("Grabación truncada");
+        return log[pos++] & 0xFF;
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.gravityrun;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+// Analizador sin pantalla de niveles: ¿se puede llegar a la meta desde ORIGINAL_START_X/Y con
+// una bola de ORIGINAL_RADIUS? y, si se puede, cuánto mide el camino más corto y cuál es el
+// paso más estrecho por el que hay que pasar.
+//
+// Espacio de configuraciones: nodos en una rejilla de paso resolution alineada con la salida.
+// Para cada nodo se calcula la holgura, la distancia L∞ al muro o borde más cercano (el
+// colisionador de GameSimulation trata todas las formas, círculo, cuadrado o triángulo, como
+// la misma caja de semilado radius, así que los muros dilatados son los mismos para las tres).
+// Un nodo está libre para una caja de semilado s si su holgura es >= s. Con resolution < 2 *
+// radius el barrido entre dos nodos libres vecinos queda dentro de la unión de sus cajas, así
+// que un camino encontrado es una prueba: la bola puede recorrerlo. Al revés no: un paso más
+// estrecho que la resolución puede no verse, y entonces el nivel sale "sin demostrar".
+//
+// Cada análisis crea su propia rejilla de muros y sus arrays, así que analyzeAll reparte los
+// niveles entre los hilos de un ForkJoinPool sin compartir nada mutable.
+final class LevelAnalyzer {
+
+    static final float DEFAULT_RESOLUTION = 5f;
+    // Holgura máxima que se mide: pasos más anchos que esto no son "estrechos"
+    static final float CLEARANCE_CAP = 4 * GameSimulation.ORIGINAL_RADIUS;
+    private static final float WALL_GRID_CELL = 100f;
+    private static final float SQRT_2 = (float) Math.sqrt(2);
+
+    static final class Report {
+        final String name;
+        final boolean solvable;
+        final float pathLength; // Unidades de diseño; NaN si no hay camino
+        final float narrowestCorridor; // Ancho del paso más estrecho del camino más holgado
+        final float margin; // Holgura de la bola en ese paso (a cada lado); NaN si no hay camino
+        final int nodes;
+        final long nanos;
+
+        Report(String name, boolean solvable, float pathLength, float narrowestCorridor, float margin,
+               int nodes, long nanos) {
+            this.name = name;
+            this.solvable = solvable;
+            this.pathLength = pathLength;
+            this.narrowestCorridor = narrowestCorridor;
+            this.margin = margin;
+            this.nodes = nodes;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            if (!solvable) {
+                return name + " SIN_DEMOSTRAR nodos " + nodes + " ms " + nanos / 1_000_000;
+            }
+            return name + " OK camino " + pathLength + " paso " + narrowestCorridor + " holgura " + margin
+                    + " nodos " + nodes + " ms " + nanos / 1_000_000;
+        }
+    }
+
+    private final float radius;
+    private final float resolution;
+    private final int cols, rows;
+    private final float originX, originY;
+    private final int start;
+    private final float[] clearance;
+    private final float[] exitDistance;
+    private final IndexedHeap heap;
+
+    private LevelAnalyzer(LevelData data, float radius, float resolution) {
+        if (!(resolution > 0 && resolution < 2 * radius)) {
+            throw new IllegalArgumentException("La resolución debe estar en (0, 2 * radio): " + resolution);
+        }
+        this.radius = radius;
+        this.resolution = resolution;
+
+        // Extensión del nivel como en GameSimulation.compileWallGrid
+        float right = GameSimulation.DESIGN_WIDTH, bottom = GameSimulation.DESIGN_HEIGHT;
+        for (int i = 0; i < data.wallCount; i++) {
+            right = Math.max(right, data.right[i]);
+            bottom = Math.max(bottom, data.bottom[i]);
+        }
+
+        // La salida cae justo en un nodo
+        float startX = GameSimulation.ORIGINAL_START_X, startY = GameSimulation.ORIGINAL_START_Y;
+        int startCol = (int) Math.floor(startX / resolution);
+        int startRow = (int) Math.floor(startY / resolution);
+        originX = startX - startCol * resolution;
+        originY = startY - startRow * resolution;
+        cols = (int) Math.floor((right - originX) / resolution) + 1;
+        rows = (int) Math.floor((bottom - originY) / resolution) + 1;
+        start = startRow * cols + startCol;
+
+        int nodes = cols * rows;
+        clearance = new float[nodes];
+        exitDistance = new float[nodes];
+        heap = new IndexedHeap(nodes);
+
+        WallGrid walls = WallGrid.build(data.left, data.top, data.right, data.bottom, data.wallCount, WALL_GRID_CELL);
+        for (int row = 0; row < rows; row++) {
+            float y = originY + row * resolution;
+            for (int col = 0; col < cols; col++) {
+                float x = originX + col * resolution;
+                // Bordes: GameSimulation limita la bola a izquierda, derecha y arriba; abajo se
+                // toma la extensión del nivel
+                float c = Math.min(Math.min(x, right - x), Math.min(y, bottom - y));
+                c = Math.min(c, CLEARANCE_CAP);
+                int n = walls.gatherCandidates(x - c, y - c, x + c, y + c);
+                for (int k = 0; k < n; k++) {
+                    int w = walls.candidate(k);
+                    c = Math.min(c, linf(x, y, data.left[w], data.top[w], data.right[w], data.bottom[w]));
+                }
+                int node = row * cols + col;
+                clearance[node] = c;
+                // La meta cuenta con solo tocarla (GameSimulation acepta exitToi <= toi del muro,
+                // y en el nivel 1 la meta está bajo el borde inferior)
+                exitDistance[node] = linf(x, y, data.exitLeft, data.exitTop, data.exitRight, data.exitBottom);
+            }
+        }
+    }
+
+    // Distancia L∞ de un punto a un rectángulo: una caja de semilado s centrada en el punto lo
+    // solapa (estrictamente, como RectF.intersects) si y solo si la distancia es < s
+    private static float linf(float x, float y, float l, float t, float r, float b) {
+        float dx = Math.max(0, Math.max(l - x, x - r));
+        float dy = Math.max(0, Math.max(t - y, y - b));
+        return Math.max(dx, dy);
+    }
+
+    static Report analyze(String name, LevelData data) {
+        return analyze(name, data, GameSimulation.ORIGINAL_RADIUS, DEFAULT_RESOLUTION);
+    }
+
+    static Report analyze(String name, LevelData data, float radius, float resolution) {
+        long begin = System.nanoTime();
+        LevelAnalyzer analyzer = new LevelAnalyzer(data, radius, resolution);
+        float length = analyzer.shortestPath();
+        boolean solvable = !Float.isNaN(length);
+        float bottleneck = solvable ? analyzer.widestPathBottleneck() : Float.NaN;
+        return new Report(name, solvable, length, 2 * bottleneck, bottleneck - radius,
+                analyzer.clearance.length, System.nanoTime() - begin);
+    }
+
+    // Analiza count niveles repartidos en pool; levels.apply(i) se llama desde los hilos del
+    // pool, así que debe poder llamarse en paralelo. Los informes salen en orden de índice.
+    static List<Report> analyzeAll(int count, IntFunction<String> names, IntFunction<LevelData> levels,
+                                   float radius, float resolution, ForkJoinPool pool) {
+        List<Callable<Report>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(() -> analyze(names.apply(index), levels.apply(index), radius, resolution));
+        }
+        List<Report> reports = new ArrayList<>(count);
+        for (Future<Report> future : pool.invokeAll(tasks)) {
+            try {
+                reports.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Análisis interrumpido", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falló el análisis de un nivel", e.getCause());
+            }
+        }
+        return reports;
+    }
+
+    // Dijkstra a 8 vecinos sobre los nodos libres para la bola; la diagonal solo si los dos
+    // nodos ortogonales también están libres. Devuelve la longitud hasta el primer nodo que
+    // toca la meta o NaN si no hay camino.
+    private float shortestPath() {
+        if (clearance[start] < radius) return Float.NaN;
+        heap.reset();
+        heap.offer(start, 0);
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            float d = heap.key(node);
+            if (exitDistance[node] <= radius) return d;
+            int col = node % cols;
+            boolean w = col > 0 && free(node - 1);
+            boolean e = col < cols - 1 && free(node + 1);
+            boolean n = node >= cols && free(node - cols);
+            boolean s = node + cols < clearance.length && free(node + cols);
+            if (w) heap.offer(node - 1, d + resolution);
+            if (e) heap.offer(node + 1, d + resolution);
+            if (n) heap.offer(node - cols, d + resolution);
+            if (s) heap.offer(node + cols, d + resolution);
+            float diagonal = d + resolution * SQRT_2;
+            if (n && w && free(node - cols - 1)) heap.offer(node - cols - 1, diagonal);
+            if (n && e && free(node - cols + 1)) heap.offer(node - cols + 1, diagonal);
+            if (s && w && free(node + cols - 1)) heap.offer(node + cols - 1, diagonal);
+            if (s && e && free(node + cols + 1)) heap.offer(node + cols + 1, diagonal);
+        }
+        return Float.NaN;
+    }
+
+    private boolean free(int node) {
+        return clearance[node] >= radius;
+    }
+
+    // Camino más holgado (maximiza la holgura mínima) a 4 vecinos: devuelve el semilado de la
+    // caja más grande que sale del inicio y llega a tocar la meta, es decir, la mitad del paso
+    // más estrecho que no se puede evitar. Los nodos salen en orden de holgura decreciente,
+    // así que el primero desde el que esa caja toca la meta da el máximo.
+    private float widestPathBottleneck() {
+        heap.reset();
+        heap.offer(start, -clearance[start]);
+        while (!heap.isEmpty()) {
+            int node = heap.poll();
+            float bottleneck = -heap.key(node);
+            // Una caja de semilado bottleneck en este nodo ya toca la meta
+            if (exitDistance[node] <= bottleneck) return bottleneck;
+            int col = node % cols;
+            if (col > 0) relaxWidest(node - 1, bottleneck);
+            if (col < cols - 1) relaxWidest(node + 1, bottleneck);
+            if (node >= cols) relaxWidest(node - cols, bottleneck);
+            if (node + cols < clearance.length) relaxWidest(node + cols, bottleneck);
+        }
+        return Float.NaN;
+    }
+
+    private void relaxWidest(int node, float bottleneck) {
+        if (!free(node)) return;
+        heap.offer(node, -Math.min(bottleneck, clearance[node]));
+    }
+
+    // Montículo binario de mínimos indexado por nodo, con disminución de clave; un nodo que ya
+    // salió no vuelve a entrar
+    private static final class IndexedHeap {
+        private final float[] keys;
+        private final int[] heap;
+        private final int[] position; // -1 fuera, -2 ya extraído
+        private int size;
+
+        IndexedHeap(int capacity) {
+            keys = new float[capacity];
+            heap = new int[capacity];
+            position = new int[capacity];
+        }
+
+        void reset() {
+            Arrays.fill(position, -1);
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float key(int node) {
+            return keys[node];
+        }
+
+        void offer(int node, float key) {
+            int p = position[node];
+            if (p == -2 || (p >= 0 && keys[node] <= key)) return;
+            keys[node] = key;
+            if (p < 0) {
+                p = size++;
+                heap[p] = node;
+                position[node] = p;
+            }
+            siftUp(p);
+        }
+
+        int poll() {
+            int top = heap[0];
+            position[top] = -2;
+            int last = heap[--size];
+            if (size > 0) {
+                heap[0] = last;
+                position[last] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int p) {
+            int node = heap[p];
+            float key = keys[node];
+            while (p > 0) {
+                int parent = (p - 1) >>> 1;
+                int other = heap[parent];
+                if (keys[other] <= key) break;
+                heap[p] = other;
+                position[other] = p;
+                p = parent;
+            }
+            heap[p] = node;
+            position[node] = p;
+        }
+
+        private void siftDown(int p) {
+            int node = heap[p];
+            float key = keys[node];
+            while (true) {
+                int child = 2 * p + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) child++;
+                int other = heap[child];
+                if (keys[other] >= key) break;
+                heap[p] = other;
+                position[other] = p;
+                p = child;
+            }
+            heap[p] = node;
+            position[node] = p;
+        }
+    }
+
+    // Uso: LevelAnalyzer [levels.bin ...] [--generated N] [--seed S] [--threads T]
+    //                    [--radius R] [--resolution H] [--min-margin M]
+    // Una línea por nivel y un resumen; sale con código 1 si algún nivel no se demuestra
+    // resoluble o su holgura es menor que M.
+    public static void main(String[] args) throws IOException {
+        List<LevelData> files = new ArrayList<>();
+        List<String> fileNames = new ArrayList<>();
+        int generated = 0;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        float radius = GameSimulation.ORIGINAL_RADIUS;
+        float resolution = DEFAULT_RESOLUTION;
+        float minMargin = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--generated":
+                    generated = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--radius":
+                    radius = Float.parseFloat(args[++i]);
+                    break;
+                case "--resolution":
+                    resolution = Float.parseFloat(args[++i]);
+                    break;
+                case "--min-margin":
+                    minMargin = Float.parseFloat(args[++i]);
+                    break;
+                default:
+                    LevelPack pack;
+                    try (InputStream in = new FileInputStream(args[i])) {
+                        pack = LevelPack.read(in);
+                    }
+                    // Se decodifican aquí: LevelPack no es seguro entre hilos
+                    for (int level = 0; level < pack.levelCount(); level++) {
+                        files.add(pack.level(level));
+                        fileNames.add(args[i] + "#" + (level + 1));
+                    }
+            }
+        }
+
+        int fileCount = files.size();
+        long firstSeed = seed;
+        IntFunction<String> names = i -> i < fileCount ? fileNames.get(i) : "laberinto#" + (firstSeed + i - fileCount);
+        IntFunction<LevelData> levels = i -> i < fileCount ? files.get(i)
+                : MazeGenerator.generate(GameSimulation.ENDLESS_MAZE_CELLS, GameSimulation.ENDLESS_MAZE_CELLS,
+                firstSeed + i - fileCount);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long begin = System.nanoTime();
+        List<Report> reports;
+        try {
+            reports = analyzeAll(fileCount + generated, names, levels, radius, resolution, pool);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        int failed = 0;
+        for (Report report : reports) {
+            out.println(report);
+            if (!report.solvable || report.margin < minMargin) failed++;
+        }
+        out.println("niveles " + reports.size() + " fallos " + failed + " hilos " + threads
+                + " ms " + elapsed / 1_000_000);
+        out.flush();
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+}
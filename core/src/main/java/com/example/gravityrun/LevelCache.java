@@ -0,0 +1,155 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+// Geometría de niveles ya lista para jugar (LevelData y su WallGrid), por (nivel, semilla):
+// cargar o repetir un nivel que está aquí es cambiar una referencia. Se rellena al vuelo en
+// una carga que falla o por adelantado en un Executor de fondo (precompute), y descarta lo
+// usado hace más tiempo por encima de capacity entradas.
+//
+// La geometría está en unidades de diseño y la escala es una matriz al dibujar, así que el
+// tamaño de pantalla no forma parte de la clave. Se puede usar desde varios hilos: las
+// entradas no cambian después de construirse y el mapa va bajo el cerrojo del objeto; la
+// construcción va fuera del cerrojo, así que una carga que coincide con su precálculo lo
+// repite en vez de esperarlo.
+final class LevelCache {
+
+    // Construye la geometría de un nivel; tiene que poder llamarse desde cualquier hilo
+    interface Builder {
+        LevelData build(int level, long seed);
+    }
+
+    static final class Entry {
+        final LevelData data;
+        final WallGrid grid;
+
+        Entry(LevelData data, WallGrid grid) {
+            this.data = data;
+            this.grid = grid;
+        }
+    }
+
+    private static final class Key {
+        final int level;
+        final long seed;
+
+        Key(int level, long seed) {
+            this.level = level;
+            this.seed = seed;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return level == other.level && seed == other.seed;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * level + Long.hashCode(seed);
+        }
+    }
+
+    private final Builder builder;
+    private final float gridCellSize;
+    private final Map<Key, Entry> entries;
+
+    // --- Métricas (bajo el cerrojo) ---
+    private long hits = 0, misses = 0, precomputed = 0, evictions = 0;
+
+    LevelCache(int capacity, float gridCellSize, Builder builder) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity debe ser positiva: " + capacity);
+        this.builder = builder;
+        this.gridCellSize = gridCellSize;
+        entries = new LinkedHashMap<Key, Entry>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, LevelCache.Entry> eldest) {
+                if (size() <= capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    // Geometría del nivel; si no estaba se construye en este hilo (fallo)
+    Entry get(int level, long seed) {
+        Key key = new Key(level, seed);
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+            misses++;
+        }
+        Entry entry = build(level, seed);
+        synchronized (this) {
+            Entry raced = entries.get(key);
+            if (raced != null) return raced;
+            entries.put(key, entry);
+        }
+        return entry;
+    }
+
+    // Construye el nivel en el executor si no está ya; la siguiente carga lo encuentra hecho
+    void precompute(int level, long seed, Executor executor) {
+        Key key = new Key(level, seed);
+        synchronized (this) {
+            if (entries.containsKey(key)) return;
+        }
+        executor.execute(() -> {
+            Entry entry = build(level, seed);
+            synchronized (this) {
+                if (entries.containsKey(key)) return;
+                entries.put(key, entry);
+                precomputed++;
+            }
+        });
+    }
+
+    // Los muros pasan por WallCompiler, así que colisión y dibujo usan el conjunto compilado
+    private Entry build(int level, long seed) {
+        LevelData data = WallCompiler.compile(builder.build(level, seed));
+        // Directamente sobre los arrays del nivel (no se copian: LevelData no cambia después
+        // de decodificarse)
+        return new Entry(data, WallGrid.build(data.left, data.top, data.right, data.bottom, data.wallCount, gridCellSize));
+    }
+
+    synchronized boolean contains(int level, long seed) {
+        return entries.containsKey(new Key(level, seed));
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long precomputed() {
+        return precomputed;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    // Mismo formato que FrameStats.writeSummary: una métrica por línea
+    synchronized void writeSummary(Writer out) throws IOException {
+        out.write("level_cache_hits " + hits + "\n");
+        out.write("level_cache_misses " + misses + "\n");
+        out.write("level_cache_precomputed " + precomputed + "\n");
+        out.write("level_cache_evictions " + evictions + "\n");
+        out.flush();
+    }
+}
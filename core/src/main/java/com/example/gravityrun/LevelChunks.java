@@ -0,0 +1,278 @@
+package com.example.gravityrun;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+// Nivel troceado en cuadrados de chunkSize unidades de diseño, para laberintos que no caben
+// (o no conviene tener) enteros en memoria. Solo la cabecera y el índice se leen al abrir;
+// cada trozo se lee y decodifica por separado con una lectura posicional, así que varios
+// hilos de carga pueden leer a la vez del mismo fichero. Big-endian:
+//
+//   Cabecera: magic "GRCH" (int), versión (short), 0 (short)
+//             tamaño de trozo, columnas, filas (ints), ancho y alto del nivel (ints)
+//             paleta (4 ints ARGB), forma del jugador (byte), meta (4 ints)
+//   Índice:   por trozo, fila a fila: desplazamiento desde el inicio del fichero y número de
+//             muros (ints)
+//   Trozo:    muros (4 shorts sin signo por muro: left, top, right, bottom, relativos a la
+//             esquina del trozo)
+//
+// Un muro que cruza varios trozos se guarda recortado en cada uno; la unión es la misma.
+// close() cierra el canal: después, read falla.
+final class LevelChunks implements Closeable {
+
+    static final int MAGIC = 0x47524348; // "GRCH"
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 + 2 + 2 + 5 * 4 + 4 * 4 + 1 + 4 * 4;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    private static final int WALL_BYTES = 8;
+
+    // Muros de un trozo en coordenadas de diseño absolutas; no cambia después de leerse
+    static final class Chunk {
+        final int index;
+        final int count;
+        final float[] left, top, right, bottom;
+
+        Chunk(int index, int count, float[] left, float[] top, float[] right, float[] bottom) {
+            this.index = index;
+            this.count = count;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        // Memoria de los arrays decodificados
+        long bytes() {
+            return 16L * count;
+        }
+    }
+
+    private final FileChannel channel;
+    private final int chunkSize, cols, rows;
+    private final int width, height;
+    private final int[] offsets, counts;
+    // Paleta, forma y meta, sin muros
+    private final LevelData header;
+
+    private LevelChunks(FileChannel channel, int chunkSize, int cols, int rows, int width, int height,
+                        int[] offsets, int[] counts, LevelData header) {
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.cols = cols;
+        this.rows = rows;
+        this.width = width;
+        this.height = height;
+        this.offsets = offsets;
+        this.counts = counts;
+        this.header = header;
+    }
+
+    // Lee la cabecera y el índice; los trozos se leen después con read()
+    static LevelChunks open(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(channel, head, 0);
+        if (head.getInt() != MAGIC) {
+            throw new IllegalArgumentException("No es un nivel por trozos GRCH");
+        }
+        int version = head.getShort();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de nivel por trozos no soportada: " + version);
+        }
+        head.getShort();
+        int chunkSize = head.getInt();
+        int cols = head.getInt();
+        int rows = head.getInt();
+        int width = head.getInt();
+        int height = head.getInt();
+        int backgroundColor = head.getInt();
+        int wallColor = head.getInt();
+        int ballColor = head.getInt();
+        int exitColor = head.getInt();
+        PlayerShape shape = PlayerShape.values()[head.get()];
+        float exitLeft = head.getInt(), exitTop = head.getInt(), exitRight = head.getInt(), exitBottom = head.getInt();
+
+        int chunks = cols * rows;
+        ByteBuffer index = ByteBuffer.allocate(chunks * INDEX_ENTRY_BYTES);
+        readFully(channel, index, HEADER_BYTES);
+        int[] offsets = new int[chunks], counts = new int[chunks];
+        for (int c = 0; c < chunks; c++) {
+            offsets[c] = index.getInt();
+            counts[c] = index.getInt();
+        }
+
+        LevelData header = new LevelData(backgroundColor, wallColor, ballColor, exitColor, shape,
+                exitLeft, exitTop, exitRight, exitBottom, new float[0], new float[0], new float[0], new float[0], 0);
+        return new LevelChunks(channel, chunkSize, cols, rows, width, height, offsets, counts, header);
+    }
+
+    // Lee y decodifica un trozo. Crea sus arrays: es para los hilos de carga, no para el paso.
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    Chunk read(int index) throws IOException {
+        int count = counts[index];
+        ByteBuffer data = ByteBuffer.allocate(count * WALL_BYTES);
+        readFully(channel, data, offsets[index]);
+
+        float originX = (float) (index % cols) * chunkSize;
+        float originY = (float) (index / cols) * chunkSize;
+        float[] left = new float[count], top = new float[count], right = new float[count], bottom = new float[count];
+        for (int i = 0; i < count; i++) {
+            left[i] = originX + data.getChar();
+            top[i] = originY + data.getChar();
+            right[i] = originX + data.getChar();
+            bottom[i] = originY + data.getChar();
+        }
+        return new Chunk(index, count, left, top, right, bottom);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            int n = channel.read(dst, position + dst.position());
+            if (n < 0) throw new EOFException("Nivel por trozos truncado");
+        }
+        dst.flip();
+    }
+
+    int chunkSize() {
+        return chunkSize;
+    }
+
+    int cols() {
+        return cols;
+    }
+
+    int rows() {
+        return rows;
+    }
+
+    int chunkCount() {
+        return cols * rows;
+    }
+
+    int wallCount(int index) {
+        return counts[index];
+    }
+
+    int width() {
+        return width;
+    }
+
+    int height() {
+        return height;
+    }
+
+    LevelData header() {
+        return header;
+    }
+
+    // Trozo que contiene la coordenada (recortado al nivel)
+    int chunkCol(float x) {
+        int c = (int) Math.floor(x / chunkSize);
+        return c < 0 ? 0 : (c >= cols ? cols - 1 : c);
+    }
+
+    int chunkRow(float y) {
+        int r = (int) Math.floor(y / chunkSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    // Trocea el nivel (herramientas, tests y la generación del laberinto gigante). Las
+    // coordenadas tienen que ser enteras y no negativas, como en LevelPack.
+    static void write(LevelData level, int chunkSize, OutputStream os) throws IOException {
+        if (chunkSize <= 0 || chunkSize > 0xFFFF) {
+            throw new IllegalArgumentException("Tamaño de trozo no válido: " + chunkSize);
+        }
+        int width = 0, height = 0;
+        for (int i = 0; i < level.wallCount; i++) {
+            checkCoord(level.left[i]);
+            checkCoord(level.top[i]);
+            width = Math.max(width, checkCoord(level.right[i]));
+            height = Math.max(height, checkCoord(level.bottom[i]));
+        }
+        int cols = Math.max(1, (width + chunkSize - 1) / chunkSize);
+        int rows = Math.max(1, (height + chunkSize - 1) / chunkSize);
+
+        // Primera pasada: cuántos trozos de muro caen en cada trozo (como WallGrid.build)
+        int[] start = new int[cols * rows + 1];
+        for (int i = 0; i < level.wallCount; i++) {
+            int c0 = (int) level.left[i] / chunkSize, c1 = ((int) level.right[i] - 1) / chunkSize;
+            int r0 = (int) level.top[i] / chunkSize, r1 = ((int) level.bottom[i] - 1) / chunkSize;
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    start[r * cols + c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            start[c + 1] += start[c];
+        }
+
+        // Segunda pasada: muros recortados a cada trozo, en coordenadas relativas
+        int[] pieces = new int[start[cols * rows] * 4];
+        int[] cursor = new int[cols * rows];
+        System.arraycopy(start, 0, cursor, 0, cols * rows);
+        for (int i = 0; i < level.wallCount; i++) {
+            int l = (int) level.left[i], t = (int) level.top[i], r = (int) level.right[i], b = (int) level.bottom[i];
+            int c0 = l / chunkSize, c1 = (r - 1) / chunkSize;
+            int r0 = t / chunkSize, r1 = (b - 1) / chunkSize;
+            for (int row = r0; row <= r1; row++) {
+                for (int col = c0; col <= c1; col++) {
+                    int ox = col * chunkSize, oy = row * chunkSize;
+                    int k = cursor[row * cols + col]++ * 4;
+                    pieces[k] = Math.max(l, ox) - ox;
+                    pieces[k + 1] = Math.max(t, oy) - oy;
+                    pieces[k + 2] = Math.min(r, ox + chunkSize) - ox;
+                    pieces[k + 3] = Math.min(b, oy + chunkSize) - oy;
+                }
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeInt(chunkSize);
+        out.writeInt(cols);
+        out.writeInt(rows);
+        out.writeInt(width);
+        out.writeInt(height);
+        out.writeInt(level.backgroundColor);
+        out.writeInt(level.wallColor);
+        out.writeInt(level.ballColor);
+        out.writeInt(level.exitColor);
+        out.writeByte(level.playerShape.ordinal());
+        out.writeInt(checkCoord(level.exitLeft));
+        out.writeInt(checkCoord(level.exitTop));
+        out.writeInt(checkCoord(level.exitRight));
+        out.writeInt(checkCoord(level.exitBottom));
+
+        int offset = HEADER_BYTES + cols * rows * INDEX_ENTRY_BYTES;
+        for (int c = 0; c < cols * rows; c++) {
+            int count = start[c + 1] - start[c];
+            out.writeInt(offset);
+            out.writeInt(count);
+            offset += count * WALL_BYTES;
+        }
+        for (int k = 0; k < pieces.length; k++) {
+            out.writeShort(pieces[k]);
+        }
+        out.flush();
+    }
+
+    private static int checkCoord(float v) {
+        int i = (int) v;
+        if (i != v || i < 0) {
+            throw new IllegalArgumentException("Coordenada no representable en el formato: " + v);
+        }
+        return i;
+    }
+}
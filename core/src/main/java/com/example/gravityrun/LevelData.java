@@ -0,0 +1,38 @@
+package com.example.gravityrun;
+
+// Un nivel en coordenadas de diseño (DESIGN_WIDTH x DESIGN_HEIGHT), ya decodificado.
+// Los muros van en arrays planos (estructura de arrays), incluidos los bordes.
+final class LevelData {
+
+    // Paleta de colores del nivel (ARGB)
+    final int backgroundColor;
+    final int wallColor;
+    final int ballColor;
+    final int exitColor;
+
+    final PlayerShape playerShape;
+
+    final float exitLeft, exitTop, exitRight, exitBottom;
+
+    final int wallCount;
+    final float[] left, top, right, bottom;
+
+    LevelData(int backgroundColor, int wallColor, int ballColor, int exitColor, PlayerShape playerShape,
+              float exitLeft, float exitTop, float exitRight, float exitBottom,
+              float[] left, float[] top, float[] right, float[] bottom, int wallCount) {
+        this.backgroundColor = backgroundColor;
+        this.wallColor = wallColor;
+        this.ballColor = ballColor;
+        this.exitColor = exitColor;
+        this.playerShape = playerShape;
+        this.exitLeft = exitLeft;
+        this.exitTop = exitTop;
+        this.exitRight = exitRight;
+        this.exitBottom = exitBottom;
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.wallCount = wallCount;
+    }
+}
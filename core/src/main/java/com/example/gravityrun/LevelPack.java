@@ -0,0 +1,151 @@
+package com.example.gravityrun;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Formato binario compacto de niveles (assets/levels.bin), big-endian:
+//
+//   Cabecera: magic "GRLV" (int), versión (short), número de niveles (short)
+//   Índice:   un int por nivel con el desplazamiento de sus datos desde el inicio del fichero
+//   Nivel:    paleta (4 ints ARGB: fondo, muros, bola, meta)
+//             forma del jugador (byte, ordinal de PlayerShape)
+//             meta (4 shorts sin signo: left, top, right, bottom)
+//             número de muros (int)
+//             muros (4 shorts sin signo por muro: left, top, right, bottom)
+//
+// Las coordenadas son unidades de diseño enteras (0..65535). El índice permite decodificar
+// el nivel N directamente, sin recorrer los anteriores.
+final class LevelPack {
+
+    static final int MAGIC = 0x47524C56; // "GRLV"
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 8;
+    private static final PlayerShape[] SHAPES = PlayerShape.values();
+
+    private final ByteBuffer buffer;
+    private final int levelCount;
+
+    private LevelPack(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("No es un fichero de niveles GRLV");
+        }
+        int version = buffer.getShort(4);
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Versión de niveles no soportada: " + version);
+        }
+        this.levelCount = buffer.getShort(6) & 0xFFFF;
+    }
+
+    static LevelPack wrap(byte[] bytes) {
+        return new LevelPack(ByteBuffer.wrap(bytes));
+    }
+
+    static LevelPack read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 1024));
+        byte[] chunk = new byte[4096];
+        int n;
+        while ((n = in.read(chunk)) > 0) {
+            out.write(chunk, 0, n);
+        }
+        return wrap(out.toByteArray());
+    }
+
+    int levelCount() {
+        return levelCount;
+    }
+
+    // Decodifica el nivel en la posición index (0 = nivel 1)
+    LevelData level(int index) {
+        if (index < 0 || index >= levelCount) {
+            throw new IndexOutOfBoundsException("Nivel " + index + " de " + levelCount);
+        }
+        int pos = buffer.getInt(HEADER_BYTES + index * 4);
+
+        int backgroundColor = buffer.getInt(pos);
+        int wallColor = buffer.getInt(pos + 4);
+        int ballColor = buffer.getInt(pos + 8);
+        int exitColor = buffer.getInt(pos + 12);
+        pos += 16;
+
+        int shapeOrdinal = buffer.get(pos);
+        if (shapeOrdinal < 0 || shapeOrdinal >= SHAPES.length) {
+            throw new IllegalArgumentException("Forma de jugador desconocida en el nivel " + (index + 1)
+                    + ": " + shapeOrdinal);
+        }
+        PlayerShape shape = SHAPES[shapeOrdinal];
+        pos += 1;
+
+        float exitLeft = buffer.getChar(pos);
+        float exitTop = buffer.getChar(pos + 2);
+        float exitRight = buffer.getChar(pos + 4);
+        float exitBottom = buffer.getChar(pos + 6);
+        pos += 8;
+
+        int count = buffer.getInt(pos);
+        pos += 4;
+
+        float[] left = new float[count], top = new float[count], right = new float[count], bottom = new float[count];
+        for (int i = 0; i < count; i++, pos += 8) {
+            left[i] = buffer.getChar(pos);
+            top[i] = buffer.getChar(pos + 2);
+            right[i] = buffer.getChar(pos + 4);
+            bottom[i] = buffer.getChar(pos + 6);
+        }
+
+        return new LevelData(backgroundColor, wallColor, ballColor, exitColor, shape,
+                exitLeft, exitTop, exitRight, exitBottom, left, top, right, bottom, count);
+    }
+
+    // Codifica los niveles en el formato anterior (herramientas y tests)
+    static void write(List<LevelData> levels, OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(levels.size());
+
+        int offset = HEADER_BYTES + levels.size() * 4;
+        for (LevelData level : levels) {
+            out.writeInt(offset);
+            offset += encodedSize(level);
+        }
+
+        for (LevelData level : levels) {
+            out.writeInt(level.backgroundColor);
+            out.writeInt(level.wallColor);
+            out.writeInt(level.ballColor);
+            out.writeInt(level.exitColor);
+            out.writeByte(level.playerShape.ordinal());
+            writeCoord(out, level.exitLeft);
+            writeCoord(out, level.exitTop);
+            writeCoord(out, level.exitRight);
+            writeCoord(out, level.exitBottom);
+            out.writeInt(level.wallCount);
+            for (int i = 0; i < level.wallCount; i++) {
+                writeCoord(out, level.left[i]);
+                writeCoord(out, level.top[i]);
+                writeCoord(out, level.right[i]);
+                writeCoord(out, level.bottom[i]);
+            }
+        }
+        out.flush();
+    }
+
+    private static int encodedSize(LevelData level) {
+        return 16 + 1 + 8 + 4 + level.wallCount * 8;
+    }
+
+    private static void writeCoord(DataOutputStream out, float v) throws IOException {
+        int i = (int) v;
+        if (i != v || i < 0 || i > 0xFFFF) {
+            throw new IllegalArgumentException("Coordenada no representable en el formato: " + v);
+        }
+        out.writeShort(i);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.gravityrun;
+
+// Generador procedural de laberintos perfectos (backtracker recursivo, implementado con pila
+// explícita) en el mismo espacio de diseño que los niveles hechos a mano.
+//
+// El laberinto es una rejilla de cols x rows celdas de CELL_PITCH unidades. Cada línea de la
+// rejilla es un muro de WALL_THICKNESS unidades que empieza en k * CELL_PITCH, así que con
+// los valores por defecto la primera celda queda centrada en (60, 60), como ORIGINAL_START_X/Y.
+// Los tramos de muro contiguos de una misma línea se emiten como un solo rectángulo.
+//
+// Memoria: unos pocos arrays primitivos proporcionales al número de celdas; ningún objeto por
+// muro ni por celda. La misma semilla produce siempre el mismo laberinto.
+final class MazeGenerator {
+
+    static final float WALL_THICKNESS = 20;
+    static final float CELL_PITCH = 100;
+
+    // Paleta por defecto de los niveles generados
+    private static final int BACKGROUND_COLOR = 0xFF2F4F4F;
+    private static final int WALL_COLOR = 0xFF444444;
+    private static final int BALL_COLOR = 0xFFFF8C00;
+    private static final int EXIT_COLOR = 0xFF00FF00;
+
+    private MazeGenerator() {
+    }
+
+    // Laberinto que cabe en el área de diseño original (1010 x 1710)
+    static LevelData generateForDesign(float designWidth, float designHeight, long seed) {
+        int cols = Math.max(1, (int) ((designWidth - WALL_THICKNESS) / CELL_PITCH));
+        int rows = Math.max(1, (int) ((designHeight - WALL_THICKNESS) / CELL_PITCH));
+        return generate(cols, rows, seed);
+    }
+
+    static LevelData generate(int cols, int rows, long seed) {
+        if (cols <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Tamaño de laberinto no válido: " + cols + "x" + rows);
+        }
+        if ((long) cols * rows > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Laberinto demasiado grande: " + cols + "x" + rows);
+        }
+
+        int cells = cols * rows;
+        boolean[] visited = new boolean[cells];
+        boolean[] eastOpen = new boolean[cells];
+        boolean[] southOpen = new boolean[cells];
+        int[] stack = new int[cells];
+        int[] neighbours = new int[4];
+
+        // xorshift64*: determinista y sin sincronización (java.util.Random usa AtomicLong)
+        long rng = seed ^ 0x9E3779B97F4A7C15L;
+        if (rng == 0) rng = 1;
+
+        int top = 0;
+        stack[top++] = 0;
+        visited[0] = true;
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int x = cell % cols;
+            int y = cell / cols;
+
+            int n = 0;
+            if (x > 0 && !visited[cell - 1]) neighbours[n++] = cell - 1;
+            if (x < cols - 1 && !visited[cell + 1]) neighbours[n++] = cell + 1;
+            if (y > 0 && !visited[cell - cols]) neighbours[n++] = cell - cols;
+            if (y < rows - 1 && !visited[cell + cols]) neighbours[n++] = cell + cols;
+
+            if (n == 0) {
+                top--;
+                continue;
+            }
+
+            rng ^= rng >>> 12;
+            rng ^= rng << 25;
+            rng ^= rng >>> 27;
+            int pick = (int) (((rng * 0x2545F4914F6CDD1DL) >>> 33) % n);
+            int next = neighbours[pick];
+
+            // Abre el paso entre cell y next
+            if (next == cell + 1) eastOpen[cell] = true;
+            else if (next == cell - 1) eastOpen[next] = true;
+            else if (next == cell + cols) southOpen[cell] = true;
+            else southOpen[next] = true;
+
+            visited[next] = true;
+            stack[top++] = next;
+        }
+
+        int count = countWalls(cols, rows, eastOpen, southOpen);
+        float[] left = new float[count], topArr = new float[count], right = new float[count], bottom = new float[count];
+        int i = 0;
+
+        // Líneas horizontales (incluidos los bordes superior e inferior)
+        for (int line = 0; line <= rows; line++) {
+            int runStart = -1;
+            for (int x = 0; x <= cols; x++) {
+                boolean wall = x < cols && hasHorizontalWall(line, x, cols, rows, southOpen);
+                if (wall && runStart < 0) {
+                    runStart = x;
+                } else if (!wall && runStart >= 0) {
+                    left[i] = runStart * CELL_PITCH;
+                    topArr[i] = line * CELL_PITCH;
+                    right[i] = x * CELL_PITCH + WALL_THICKNESS;
+                    bottom[i] = line * CELL_PITCH + WALL_THICKNESS;
+                    i++;
+                    runStart = -1;
+                }
+            }
+        }
+
+        // Líneas verticales (incluidos los bordes izquierdo y derecho)
+        for (int line = 0; line <= cols; line++) {
+            int runStart = -1;
+            for (int y = 0; y <= rows; y++) {
+                boolean wall = y < rows && hasVerticalWall(line, y, cols, eastOpen);
+                if (wall && runStart < 0) {
+                    runStart = y;
+                } else if (!wall && runStart >= 0) {
+                    left[i] = line * CELL_PITCH;
+                    topArr[i] = runStart * CELL_PITCH;
+                    right[i] = line * CELL_PITCH + WALL_THICKNESS;
+                    bottom[i] = y * CELL_PITCH + WALL_THICKNESS;
+                    i++;
+                    runStart = -1;
+                }
+            }
+        }
+
+        // La meta ocupa el interior de la última celda
+        float exitLeft = (cols - 1) * CELL_PITCH + WALL_THICKNESS;
+        float exitTop = (rows - 1) * CELL_PITCH + WALL_THICKNESS;
+        float exitRight = cols * CELL_PITCH;
+        float exitBottom = rows * CELL_PITCH;
+
+        return new LevelData(BACKGROUND_COLOR, WALL_COLOR, BALL_COLOR, EXIT_COLOR, PlayerShape.CIRCLE,
+                exitLeft, exitTop, exitRight, exitBottom, left, topArr, right, bottom, count);
+    }
+
+    // Centro de la celda (x, y) en unidades de diseño
+    static float cellCenter(int index) {
+        return index * CELL_PITCH + WALL_THICKNESS + (CELL_PITCH - WALL_THICKNESS) / 2;
+    }
+
+    private static boolean hasHorizontalWall(int line, int x, int cols, int rows, boolean[] southOpen) {
+        return line == 0 || line == rows || !southOpen[(line - 1) * cols + x];
+    }
+
+    private static boolean hasVerticalWall(int line, int y, int cols, boolean[] eastOpen) {
+        return line == 0 || line == cols || !eastOpen[y * cols + line - 1];
+    }
+
+    private static int countWalls(int cols, int rows, boolean[] eastOpen, boolean[] southOpen) {
+        int count = 0;
+        for (int line = 0; line <= rows; line++) {
+            boolean inRun = false;
+            for (int x = 0; x < cols; x++) {
+                boolean wall = hasHorizontalWall(line, x, cols, rows, southOpen);
+                if (wall && !inRun) count++;
+                inRun = wall;
+            }
+        }
+        for (int line = 0; line <= cols; line++) {
+            boolean inRun = false;
+            for (int y = 0; y < rows; y++) {
+                boolean wall = hasVerticalWall(line, y, cols, eastOpen);
+                if (wall && !inRun) count++;
+                inRun = wall;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,5 @@
+package com.example.gravityrun;
+
+enum PlayerShape {
+    CIRCLE, SQUARE, TRIANGLE
+}
@@ -0,0 +1,257 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.Writer;
+
+// Modo de ahorro adaptativo. Decide qué sensores hacen falta en cada estado y a qué ritmo, y
+// cuándo se puede dejar de redibujar porque la bola está en reposo. No toca Android: GameView
+// aplica el plan (registrar o quitar sensores, invalidate) y le pasa los tiempos, todos en la
+// base de SensorEvent.timestamp (SystemClock.elapsedRealtimeNanos).
+//
+// Los ahorros se estiman frente al comportamiento anterior: los tres sensores siempre
+// registrados a su ritmo nominal y un frame por refresco mientras se juega.
+final class PowerGovernor {
+
+    // Huecos de sensor
+    static final int ACCELEROMETER = 0;
+    static final int PROXIMITY = 1;
+    static final int LIGHT = 2;
+    static final int SENSOR_SLOTS = 3;
+
+    // Periodos de muestreo en microsegundos (los de SENSOR_DELAY_GAME, _UI y _NORMAL)
+    static final int OFF = 0;
+    static final int FAST_PERIOD_US = 20_000;
+    static final int SLOW_PERIOD_US = 66_667;
+    static final int NORMAL_PERIOD_US = 200_000;
+    private static final int[] BASELINE_PERIOD_US = {FAST_PERIOD_US, NORMAL_PERIOD_US, NORMAL_PERIOD_US};
+
+    static final long REST_NANOS = 500_000_000L; // Bola quieta este tiempo: deja de redibujar
+    static final long STABLE_TILT_NANOS = 1_500_000_000L; // Inclinación estable: acelerómetro lento
+    static final float TILT_TOLERANCE = 0.2f; // m/s² en x o y; por encima cuenta como movimiento
+    // Unidades de diseño por paso: lo que avanza la bola en un paso a 120 Hz con una inclinación
+    // de TILT_TOLERANCE (0,2 × ORIGINAL_SPEED 2,5 × 50 Hz de referencia / 120 ≈ 0,21). Se compara
+    // por frame, y un frame que simula tiene al menos un paso, así que rodar con una inclinación
+    // que cuenta como movimiento nunca pasa por reposo.
+    private static final float REST_DISTANCE = 0.2f;
+
+    private final int[] periodUs = new int[SENSOR_SLOTS];
+    private boolean planChanged = true;
+
+    private GameState state = GameState.LEVEL_SELECT;
+    private boolean foreground = true;
+    private boolean animated; // La forma cambiante del nivel 3 nunca está en reposo
+
+    // Inclinación de referencia: es estable mientras no se aleje más de TILT_TOLERANCE
+    private float refTiltX, refTiltY;
+    private long tiltStableSince = -1;
+    private boolean slowTilt;
+
+    private float lastBallX = Float.NaN, lastBallY = Float.NaN;
+    private long restSince = -1;
+
+    // Escritos en el hilo de UI y leídos en el de sensores
+    private volatile boolean idle;
+    private volatile float idleTiltX, idleTiltY;
+    private volatile boolean wakeRequested;
+
+    // Contabilidad de ahorros
+    private float refreshRateHz = 60f;
+    private long lastAccountNanos = -1;
+    private long foregroundNanos;
+    private double framesSaved;
+    private double sensorEventsSaved;
+
+    PowerGovernor() {
+        updatePlan();
+    }
+
+    void setRefreshRate(float hz) {
+        if (hz > 0) refreshRateHz = hz;
+    }
+
+    // Con animación propia la bola no llega a estar en reposo
+    void setAnimated(boolean animated) {
+        this.animated = animated;
+        if (animated) restSince = -1;
+    }
+
+    void onStateChanged(GameState state, long nowNanos) {
+        account(nowNanos);
+        this.state = state;
+        leaveIdle();
+        restSince = -1;
+        lastBallX = Float.NaN;
+        tiltStableSince = -1;
+        slowTilt = false;
+        updatePlan();
+    }
+
+    // La app pasa a segundo plano o vuelve; fuera de primer plano no se cuentan ahorros
+    void setForeground(boolean foreground, long nowNanos) {
+        account(nowNanos);
+        this.foreground = foreground;
+        if (!foreground) leaveIdle();
+        updatePlan();
+    }
+
+    // --- Hilo de sensores ---
+    // ¿Hay que procesar esta muestra del acelerómetro? En reposo solo pasan las que cambian la
+    // inclinación, y la primera de ellas pide despertar.
+    boolean acceptTilt(float rawX, float rawY) {
+        if (!idle) return true;
+        if (Math.abs(rawX - idleTiltX) <= TILT_TOLERANCE && Math.abs(rawY - idleTiltY) <= TILT_TOLERANCE) {
+            return false;
+        }
+        wakeRequested = true;
+        return true;
+    }
+
+    boolean isIdle() {
+        return idle;
+    }
+
+    // --- Hilo de UI ---
+    // Muestra del acelerómetro ya en la simulación: vigila si la inclinación se mantiene
+    void onTilt(float rawX, float rawY, long timestampNanos) {
+        if (tiltStableSince < 0
+                || Math.abs(rawX - refTiltX) > TILT_TOLERANCE || Math.abs(rawY - refTiltY) > TILT_TOLERANCE) {
+            refTiltX = rawX;
+            refTiltY = rawY;
+            tiltStableSince = timestampNanos;
+            if (slowTilt) {
+                account(timestampNanos);
+                slowTilt = false;
+                updatePlan();
+            }
+        } else if (!slowTilt && timestampNanos - tiltStableSince >= STABLE_TILT_NANOS) {
+            account(timestampNanos);
+            slowTilt = true;
+            updatePlan();
+        }
+    }
+
+    // Sale del reposo si el hilo de sensores lo pidió; true si el juego debe reanudar el reloj
+    boolean resumeIfWoken(long nowNanos) {
+        if (!idle || !wakeRequested) return false;
+        account(nowNanos);
+        leaveIdle();
+        restSince = nowNanos;
+        slowTilt = false;
+        tiltStableSince = -1;
+        updatePlan();
+        return true;
+    }
+
+    // Tras dibujar un frame en RUNNING; false si la bola lleva REST_NANOS quieta y se puede
+    // dejar de redibujar hasta que cambie la inclinación
+    boolean onFrame(float ballX, float ballY, long nowNanos) {
+        boolean moved = Float.isNaN(lastBallX)
+                || Math.abs(ballX - lastBallX) > REST_DISTANCE || Math.abs(ballY - lastBallY) > REST_DISTANCE;
+        lastBallX = ballX;
+        lastBallY = ballY;
+        if (moved || animated || restSince < 0) {
+            restSince = nowNanos;
+            return true;
+        }
+        if (nowNanos - restSince < REST_NANOS) return true;
+
+        account(nowNanos);
+        idleTiltX = refTiltX;
+        idleTiltY = refTiltY;
+        wakeRequested = false;
+        idle = true;
+        updatePlan();
+        return false;
+    }
+
+    private void leaveIdle() {
+        idle = false;
+        wakeRequested = false;
+    }
+
+    // --- Plan de sensores ---
+    // true (una vez) si el plan cambió desde la última consulta
+    boolean takePlanChange() {
+        boolean changed = planChanged;
+        planChanged = false;
+        return changed;
+    }
+
+    // Periodo de muestreo deseado para el hueco, u OFF si no hace falta
+    int periodUs(int slot) {
+        return periodUs[slot];
+    }
+
+    private void updatePlan() {
+        int accelerometer = OFF, proximity = OFF, light = OFF;
+        if (foreground) {
+            if (state == GameState.RUNNING) {
+                accelerometer = (slowTilt || idle) ? SLOW_PERIOD_US : FAST_PERIOD_US;
+                proximity = NORMAL_PERIOD_US;
+                light = NORMAL_PERIOD_US;
+            } else if (state == GameState.PAUSED) {
+                proximity = NORMAL_PERIOD_US; // Destapar el sensor reanuda la partida
+            }
+            // Menú, victoria y derrota solo esperan un toque
+        }
+        setPeriod(ACCELEROMETER, accelerometer);
+        setPeriod(PROXIMITY, proximity);
+        setPeriod(LIGHT, light);
+    }
+
+    private void setPeriod(int slot, int period) {
+        if (periodUs[slot] != period) {
+            periodUs[slot] = period;
+            planChanged = true;
+        }
+    }
+
+    // --- Ahorros ---
+    private void account(long nowNanos) {
+        if (lastAccountNanos >= 0 && foreground && nowNanos > lastAccountNanos) {
+            long dt = nowNanos - lastAccountNanos;
+            double seconds = dt * 1e-9;
+            foregroundNanos += dt;
+            for (int slot = 0; slot < SENSOR_SLOTS; slot++) {
+                sensorEventsSaved += seconds * (rateHz(BASELINE_PERIOD_US[slot]) - rateHz(periodUs[slot]));
+            }
+            if (idle) {
+                framesSaved += seconds * refreshRateHz;
+            }
+        }
+        lastAccountNanos = Math.max(lastAccountNanos, nowNanos);
+    }
+
+    private static double rateHz(int periodUs) {
+        return periodUs == OFF ? 0 : 1e6 / periodUs;
+    }
+
+    double framesSaved(long nowNanos) {
+        account(nowNanos);
+        return framesSaved;
+    }
+
+    double sensorEventsSaved(long nowNanos) {
+        account(nowNanos);
+        return sensorEventsSaved;
+    }
+
+    double framesSavedPerMinute(long nowNanos) {
+        return perMinute(framesSaved(nowNanos));
+    }
+
+    double sensorEventsSavedPerMinute(long nowNanos) {
+        return perMinute(sensorEventsSaved(nowNanos));
+    }
+
+    private double perMinute(double total) {
+        return foregroundNanos > 0 ? total * 60e9 / foregroundNanos : 0;
+    }
+
+    // Mismo formato que FrameStats.writeSummary: una métrica por línea
+    void writeSummary(Writer out, long nowNanos) throws IOException {
+        out.write("frames_saved_per_min " + framesSavedPerMinute(nowNanos) + "\n");
+        out.write("sensor_events_saved_per_min " + sensorEventsSavedPerMinute(nowNanos) + "\n");
+        out.flush();
+    }
+}
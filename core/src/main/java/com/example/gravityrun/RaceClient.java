@@ -0,0 +1,271 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+// Cliente de carreras: se une a un RaceServer, le manda la inclinación y guarda las últimas
+// fotos que recibe (las necesita como base de las siguientes diferencias). Las bolas se
+// dibujan INTERPOLATION_TICKS por detrás de la última foto, interpolando entre las dos que
+// rodean ese instante: una foto perdida o que llega tarde no se nota como un salto.
+//
+// La E/S (join, poll, sendInput, close) no bloquea pero sigue siendo red: en Android, fuera
+// del hilo de UI. interpolate y las lecturas no tocan el socket. Todo va bajo el cerrojo del
+// objeto, así que un hilo puede recibir mientras otro dibuja.
+final class RaceClient {
+
+    static final float INTERPOLATION_TICKS = 2;
+    static final long JOIN_RETRY_NANOS = 250_000_000L;
+    private static final int MAX_PACKET = 1 + RaceSnapshot.MAX_BYTES;
+
+    private final DatagramChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(MAX_PACKET);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(RaceServer.INPUT_BYTES);
+
+    private int slot = -1;
+    private int level = 0;
+    private boolean full = false;
+    private long lastJoinNanos = 0;
+    private long tickNanos = RaceServer.TICK_NANOS;
+
+    private final RaceSnapshot[] history = new RaceSnapshot[RaceServer.HISTORY];
+    private final RaceSnapshot decoding = new RaceSnapshot();
+    private int latestTick = RaceSnapshot.NO_BASE;
+    private long latestArrivalNanos = 0;
+
+    // Resultado de interpolate
+    private final boolean[] present = new boolean[RaceSnapshot.MAX_PLAYERS];
+    private final float[] x = new float[RaceSnapshot.MAX_PLAYERS], y = new float[RaceSnapshot.MAX_PLAYERS];
+    private final PlayerShape[] shape = new PlayerShape[RaceSnapshot.MAX_PLAYERS];
+    private final GameState[] state = new GameState[RaceSnapshot.MAX_PLAYERS];
+
+    // --- Métricas ---
+    private long snapshotsReceived = 0, bytesReceived = 0, missingBase = 0, late = 0, inputsSent = 0;
+
+    private RaceClient(DatagramChannel channel) {
+        this.channel = channel;
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new RaceSnapshot();
+        }
+    }
+
+    static RaceClient connect(InetSocketAddress server) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.connect(server);
+            return new RaceClient(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Pide plaza; poll lo repite hasta que llega la respuesta
+    synchronized void join(long nowNanos) throws IOException {
+        out.clear();
+        out.put(RaceServer.JOIN).putInt(RaceServer.MAGIC).put((byte) RaceServer.VERSION);
+        out.flip();
+        channel.write(out);
+        lastJoinNanos = nowNanos;
+    }
+
+    // Lee todo lo recibido; devuelve cuántas fotos nuevas hay
+    synchronized int poll(long nowNanos) throws IOException {
+        if (slot < 0 && !full && nowNanos - lastJoinNanos > JOIN_RETRY_NANOS) {
+            join(nowNanos);
+        }
+        int snapshots = 0;
+        while (true) {
+            in.clear();
+            int bytes;
+            try {
+                bytes = channel.read(in);
+            } catch (PortUnreachableException e) {
+                continue; // Aún no hay servidor: el siguiente join lo vuelve a intentar
+            }
+            if (bytes <= 0) return snapshots;
+            bytesReceived += bytes;
+            in.flip();
+            byte type = in.get();
+            if (type == RaceServer.WELCOME && in.remaining() >= 3) {
+                // Una bienvenida con plaza o ritmo fuera de rango se ignora: el join se repite
+                byte welcomeSlot = in.get(), welcomeLevel = in.get(), tickHz = in.get();
+                if (welcomeSlot >= 0 && welcomeSlot < RaceSnapshot.MAX_PLAYERS && tickHz > 0) {
+                    slot = welcomeSlot;
+                    level = welcomeLevel;
+                    tickNanos = 1_000_000_000L / tickHz;
+                }
+            } else if (type == RaceServer.FULL) {
+                full = true;
+            } else if (type == RaceServer.SNAPSHOT && receiveSnapshot(in, nowNanos)) {
+                snapshots++;
+            }
+        }
+    }
+
+    private boolean receiveSnapshot(ByteBuffer message, long nowNanos) {
+        if (message.remaining() < RaceSnapshot.HEADER_BYTES) return false;
+        int tick = message.getInt(message.position());
+        int baseTick = RaceSnapshot.baseTickOf(message);
+        if (latestTick != RaceSnapshot.NO_BASE && tick <= latestTick - RaceServer.HISTORY) {
+            late++;
+            return false;
+        }
+        RaceSnapshot base = null;
+        if (baseTick != RaceSnapshot.NO_BASE) {
+            base = find(baseTick);
+            if (base == null) {
+                missingBase++; // El servidor vuelve a la última confirmada en el siguiente tick
+                return false;
+            }
+        }
+        if (!decoding.decodeDelta(message, base)) return false;
+        // Ocupa el hueco del tick más viejo, que ya no puede ser base ni se interpola
+        RaceSnapshot target = history[Math.floorMod(tick, RaceServer.HISTORY)];
+        target.copyFrom(decoding);
+        snapshotsReceived++;
+        if (tick > latestTick) {
+            latestTick = tick;
+            latestArrivalNanos = nowNanos;
+        } else {
+            late++;
+        }
+        return true;
+    }
+
+    private RaceSnapshot find(int tick) {
+        RaceSnapshot snapshot = history[Math.floorMod(tick, RaceServer.HISTORY)];
+        return snapshot.tick == tick ? snapshot : null;
+    }
+
+    // Manda la inclinación actual (el mismo eje que SENSOR_ACCELEROMETER) y confirma la
+    // última foto recibida
+    synchronized void sendInput(float tiltX, float tiltY) throws IOException {
+        if (slot < 0) return;
+        out.clear();
+        out.put(RaceServer.INPUT).put((byte) slot).putInt(latestTick)
+                .putShort(quantizeTilt(tiltX)).putShort(quantizeTilt(tiltY));
+        out.flip();
+        channel.write(out);
+        inputsSent++;
+    }
+
+    private static short quantizeTilt(float tilt) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(tilt * RaceServer.TILT_SCALE)));
+    }
+
+    // Calcula las posiciones a dibujar en nowNanos
+    synchronized void interpolate(long nowNanos) {
+        if (latestTick == RaceSnapshot.NO_BASE) return;
+        float renderTick = latestTick + (nowNanos - latestArrivalNanos) / (float) tickNanos - INTERPOLATION_TICKS;
+        renderTick = Math.min(renderTick, latestTick);
+
+        // Las fotos que rodean renderTick
+        RaceSnapshot from = null, to = null;
+        for (RaceSnapshot snapshot : history) {
+            if (snapshot.tick == RaceSnapshot.NO_BASE || snapshot.tick <= latestTick - RaceServer.HISTORY) continue;
+            if (snapshot.tick <= renderTick) {
+                if (from == null || snapshot.tick > from.tick) from = snapshot;
+            } else if (to == null || snapshot.tick < to.tick) {
+                to = snapshot;
+            }
+        }
+        if (from == null) {
+            from = to;
+            to = null;
+        }
+        float t = to == null ? 0 : (renderTick - from.tick) / (to.tick - from.tick);
+        for (int i = 0; i < RaceSnapshot.MAX_PLAYERS; i++) {
+            present[i] = from.present(i);
+            if (!present[i]) continue;
+            shape[i] = from.shape(i);
+            state[i] = from.state(i);
+            if (to != null && to.present(i)) {
+                x[i] = from.x(i) + (to.x(i) - from.x(i)) * t;
+                y[i] = from.y(i) + (to.y(i) - from.y(i)) * t;
+            } else {
+                x[i] = from.x(i);
+                y[i] = from.y(i);
+            }
+        }
+    }
+
+    synchronized void close() throws IOException {
+        try {
+            if (slot >= 0) {
+                out.clear();
+                out.put(RaceServer.LEAVE).put((byte) slot);
+                out.flip();
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            // Sin servidor al que despedirse: caduca solo
+        }
+        channel.close();
+    }
+
+    // Plaza propia, o -1 mientras no hay respuesta
+    synchronized int slot() {
+        return slot;
+    }
+
+    synchronized boolean isFull() {
+        return full;
+    }
+
+    synchronized int level() {
+        return level;
+    }
+
+    synchronized int latestTick() {
+        return latestTick;
+    }
+
+    // --- Resultado de interpolate ---
+    synchronized boolean present(int slot) {
+        return present[slot];
+    }
+
+    synchronized float x(int slot) {
+        return x[slot];
+    }
+
+    synchronized float y(int slot) {
+        return y[slot];
+    }
+
+    synchronized PlayerShape shape(int slot) {
+        return shape[slot];
+    }
+
+    synchronized GameState state(int slot) {
+        return state[slot];
+    }
+
+    // --- Métricas ---
+    synchronized long snapshotsReceived() {
+        return snapshotsReceived;
+    }
+
+    synchronized long bytesReceived() {
+        return bytesReceived;
+    }
+
+    synchronized long missingBase() {
+        return missingBase;
+    }
+
+    // Mismo formato que FrameStats.writeSummary: una métrica por línea
+    synchronized void writeSummary(Writer out) throws IOException {
+        out.write("race_client_snapshots " + snapshotsReceived + "\n");
+        out.write("race_client_bytes_in " + bytesReceived + "\n");
+        out.write("race_client_missing_base " + missingBase + "\n");
+        out.write("race_client_late " + late + "\n");
+        out.write("race_client_inputs " + inputsSent + "\n");
+        out.flush();
+    }
+}
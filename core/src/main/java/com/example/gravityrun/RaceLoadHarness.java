@@ -0,0 +1,175 @@
+package com.example.gravityrun;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+// Prueba de carga de carreras, toda en loopback: un RaceServer en su hilo y N clientes sin
+// pantalla movidos desde un solo hilo al ritmo del servidor (recibir, interpolar y mandar la
+// inclinación, como haría el juego en cada frame). La inclinación de cada cliente da vueltas
+// para que las bolas rueden y choquen y las diferencias no salgan vacías.
+//
+// Ejecutar con: ./gradlew :core:raceLoadTest (o -Pclients=N -Pseconds=S)
+final class RaceLoadHarness {
+
+    static final class Result {
+        int clients, joined;
+        double seconds;
+        long serverTicks, overruns, tickP50Nanos, tickP99Nanos, serverBytesOut, fullSnapshots;
+        long minSnapshots, totalSnapshots, totalBytesIn, missingBase;
+
+        // Fotos por segundo del cliente que menos recibió
+        double minSnapshotsPerSecond() {
+            return minSnapshots / seconds;
+        }
+
+        // Bajada media por cliente
+        double bytesInPerClientPerSecond() {
+            return joined == 0 ? 0 : totalBytesIn / (double) joined / seconds;
+        }
+
+        double bytesPerSnapshot() {
+            return totalSnapshots == 0 ? 0 : totalBytesIn / (double) totalSnapshots;
+        }
+
+        void writeSummary(Writer out) throws IOException {
+            out.write("load_clients " + clients + "\n");
+            out.write("load_joined " + joined + "\n");
+            out.write("load_seconds " + seconds + "\n");
+            out.write("load_server_ticks " + serverTicks + "\n");
+            out.write("load_tick_overruns " + overruns + "\n");
+            out.write("load_tick_p50_ns " + tickP50Nanos + "\n");
+            out.write("load_tick_p99_ns " + tickP99Nanos + "\n");
+            out.write("load_server_bytes_out " + serverBytesOut + "\n");
+            out.write("load_full_snapshots " + fullSnapshots + "\n");
+            out.write("load_min_snapshots_per_s " + minSnapshotsPerSecond() + "\n");
+            out.write("load_bytes_in_per_client_per_s " + bytesInPerClientPerSecond() + "\n");
+            out.write("load_bytes_per_snapshot " + bytesPerSnapshot() + "\n");
+            out.write("load_missing_base " + missingBase + "\n");
+            out.flush();
+        }
+    }
+
+    private static final long JOIN_TIMEOUT_NANOS = 3_000_000_000L;
+
+    private RaceLoadHarness() {
+    }
+
+    static Result run(LevelPack levelPack, int clientCount, long durationNanos) throws IOException {
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        RaceServer server = RaceServer.open(loopback, levelPack, GameSimulation.RACE_LEVEL);
+        RaceClient[] clients = new RaceClient[clientCount];
+        Result result = new Result();
+        result.clients = clientCount;
+        try {
+            server.start();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.address().getPort());
+            for (int i = 0; i < clientCount; i++) {
+                clients[i] = RaceClient.connect(address);
+                clients[i].join(System.nanoTime());
+            }
+
+            // Hasta que todos tienen plaza (o se acaba la espera)
+            long deadline = System.nanoTime() + JOIN_TIMEOUT_NANOS;
+            while (joined(clients) < clientCount && System.nanoTime() < deadline) {
+                frame(clients, System.nanoTime());
+                LockSupport.parkNanos(RaceServer.TICK_NANOS);
+            }
+            result.joined = joined(clients);
+
+            long[] startSnapshots = new long[clientCount], startBytes = new long[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                startSnapshots[i] = clients[i].snapshotsReceived();
+                startBytes[i] = clients[i].bytesReceived();
+            }
+            long startTicks = server.ticks(), startBytesOut = server.bytesOut(), startFull = server.fullSnapshots();
+            long start = System.nanoTime(), next = start;
+            while (System.nanoTime() - start < durationNanos) {
+                frame(clients, System.nanoTime());
+                next += RaceServer.TICK_NANOS;
+                LockSupport.parkNanos(next - System.nanoTime());
+            }
+            result.seconds = (System.nanoTime() - start) / 1e9;
+            result.serverTicks = server.ticks() - startTicks;
+            result.serverBytesOut = server.bytesOut() - startBytesOut;
+            result.fullSnapshots = server.fullSnapshots() - startFull;
+            result.minSnapshots = Long.MAX_VALUE;
+            for (int i = 0; i < clientCount; i++) {
+                if (clients[i].slot() < 0) continue;
+                long snapshots = clients[i].snapshotsReceived() - startSnapshots[i];
+                result.minSnapshots = Math.min(result.minSnapshots, snapshots);
+                result.totalSnapshots += snapshots;
+                result.totalBytesIn += clients[i].bytesReceived() - startBytes[i];
+                result.missingBase += clients[i].missingBase();
+            }
+            if (result.minSnapshots == Long.MAX_VALUE) result.minSnapshots = 0;
+        } finally {
+            for (RaceClient client : clients) {
+                if (client != null) client.close();
+            }
+            server.close();
+        }
+        // Con el servidor parado ya se puede leer su histograma
+        result.overruns = server.overruns();
+        result.tickP50Nanos = server.tickCost().percentile(0.50);
+        result.tickP99Nanos = server.tickCost().percentile(0.99);
+        return result;
+    }
+
+    // Lo que hace cada cliente en un frame
+    private static void frame(RaceClient[] clients, long nowNanos) throws IOException {
+        double phase = nowNanos / 1e9;
+        for (int i = 0; i < clients.length; i++) {
+            RaceClient client = clients[i];
+            client.poll(nowNanos);
+            client.interpolate(nowNanos);
+            float angle = (float) (phase + i * 0.7);
+            client.sendInput(6 * (float) Math.cos(angle), 6 * (float) Math.sin(angle));
+        }
+    }
+
+    private static int joined(RaceClient[] clients) {
+        int joined = 0;
+        for (RaceClient client : clients) {
+            if (client.slot() >= 0) joined++;
+        }
+        return joined;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String levels = null;
+        int clients = RaceSnapshot.MAX_PLAYERS;
+        double seconds = 10;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--clients":
+                    clients = Integer.parseInt(args[++i]);
+                    break;
+                case "--seconds":
+                    seconds = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    levels = args[i];
+            }
+        }
+        if (levels == null) {
+            System.err.println("Uso: RaceLoadHarness levels.bin [--clients N] [--seconds S]");
+            System.exit(2);
+        }
+        LevelPack pack;
+        try (InputStream in = new FileInputStream(levels)) {
+            pack = LevelPack.read(in);
+        }
+        Result result = run(pack, clients, (long) (seconds * 1e9));
+        result.writeSummary(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        if (result.joined < clients || result.minSnapshotsPerSecond() < RaceServer.TICK_HZ * 0.9) {
+            System.exit(1);
+        }
+    }
+}
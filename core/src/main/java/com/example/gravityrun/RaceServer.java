@@ -0,0 +1,316 @@
+package com.example.gravityrun;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+// Servidor de carreras: cada jugador tiene su GameSimulation en el servidor, movida con la
+// inclinación que manda su cliente, así que lo que ven todos es lo que pasó en el servidor.
+// TICK_HZ veces por segundo avanza todas las simulaciones STEPS_PER_TICK pasos (los 120 Hz del
+// juego) y manda a cada cliente una RaceSnapshot como diferencia con la última que confirmó.
+//
+// UDP en un DatagramChannel no bloqueante y un solo hilo para todo (select hasta el siguiente
+// tick): una foto perdida no retrasa las siguientes, como pasaría con TCP, porque la siguiente
+// se codifica contra una base que el cliente sí tiene. Mensajes (big-endian, primer byte el
+// tipo):
+//   cliente -> servidor: JOIN magic (int) versión (byte); INPUT plaza (byte), último tick
+//     recibido (int), inclinación x/y en milésimas de m/s² (short); LEAVE plaza (byte)
+//   servidor -> cliente: WELCOME plaza (byte) nivel (byte) ticks por segundo (byte);
+//     FULL; SNAPSHOT foto (ver RaceSnapshot)
+// Un jugador del que no llega nada en TIMEOUT_NANOS deja libre su plaza.
+final class RaceServer implements Runnable {
+
+    static final int MAGIC = 0x47525250; // "GRRP"
+    static final int VERSION = 1;
+    static final byte JOIN = 1, INPUT = 2, LEAVE = 3, WELCOME = 4, FULL = 5, SNAPSHOT = 6;
+    static final int INPUT_BYTES = 1 + 1 + 4 + 2 + 2;
+    static final float TILT_SCALE = 1000f;
+
+    static final int TICK_HZ = 60;
+    static final int STEPS_PER_TICK = 2;
+    static final long TICK_NANOS = 1_000_000_000L / TICK_HZ;
+    static final int HISTORY = 32; // Fotos guardadas como base (~0.5 s)
+    static final long TIMEOUT_NANOS = 5_000_000_000L;
+    private static final int MAX_PACKET = 1 + RaceSnapshot.MAX_BYTES;
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final LevelPack levelPack;
+    private final int level;
+    private final FrameStats stats = new FrameStats(); // Coste de paso de todas las simulaciones
+
+    // --- Plazas (solo el hilo del servidor) ---
+    private final SocketAddress[] addresses = new SocketAddress[RaceSnapshot.MAX_PLAYERS];
+    private final GameSimulation[] simulations = new GameSimulation[RaceSnapshot.MAX_PLAYERS];
+    private final int[] ackTick = new int[RaceSnapshot.MAX_PLAYERS];
+    private final long[] lastHeardNanos = new long[RaceSnapshot.MAX_PLAYERS];
+    private final float[] tiltX = new float[RaceSnapshot.MAX_PLAYERS], tiltY = new float[RaceSnapshot.MAX_PLAYERS];
+    private final RaceSnapshot[] history = new RaceSnapshot[HISTORY];
+    private int tick = 0;
+    private final ByteBuffer in = ByteBuffer.allocateDirect(MAX_PACKET);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(MAX_PACKET);
+    // -------------------------------------------
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    // --- Métricas ---
+    private final LatencyHistogram tickCost = new LatencyHistogram();
+    private volatile long ticks = 0, overruns = 0, packetsIn = 0, packetsOut = 0, bytesOut = 0,
+            fullSnapshots = 0, sendDrops = 0;
+    private volatile int players = 0;
+
+    private RaceServer(DatagramChannel channel, Selector selector, LevelPack levelPack, int level) {
+        this.channel = channel;
+        this.selector = selector;
+        this.levelPack = levelPack;
+        this.level = level;
+        for (int i = 0; i < HISTORY; i++) {
+            history[i] = new RaceSnapshot();
+        }
+    }
+
+    // Abre el socket en address (puerto 0: uno libre). El nivel tiene que caber en la
+    // cuantización de RaceSnapshot.
+    static RaceServer open(InetSocketAddress address, LevelPack levelPack, int level) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            // Con 64 clientes a 60 Hz caben varios ticks de entradas sin perder ninguna
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 20);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, 1 << 20);
+            channel.bind(address);
+            channel.configureBlocking(false);
+            Selector selector = Selector.open();
+            channel.register(selector, SelectionKey.OP_READ);
+            return new RaceServer(channel, selector, levelPack, level);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    InetSocketAddress address() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    // Bucle en un hilo propio hasta close()
+    void start() {
+        running = true;
+        thread = new Thread(this, "GravityRunRaceServer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void close() throws IOException {
+        running = false;
+        if (thread != null) {
+            selector.wakeup();
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        selector.close();
+        channel.close();
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                if (now >= nextTick) {
+                    tick(now);
+                    nextTick += TICK_NANOS;
+                    now = System.nanoTime();
+                    if (now - nextTick > TICK_NANOS) {
+                        // Más de un tick de retraso: se salta en vez de encadenar ticks
+                        overruns++;
+                        nextTick = now + TICK_NANOS;
+                    }
+                    continue;
+                }
+                long waitMillis = Math.max(1, (nextTick - now) / 1_000_000);
+                if (selector.select(waitMillis) > 0) {
+                    selector.selectedKeys().clear();
+                }
+                receive(System.nanoTime());
+            }
+        } catch (IOException e) {
+            // Socket cerrado: fin del servidor
+        }
+    }
+
+    // Lee todos los mensajes pendientes
+    void receive(long nowNanos) throws IOException {
+        SocketAddress from;
+        while (true) {
+            in.clear();
+            from = channel.receive(in);
+            if (from == null) return;
+            packetsIn++;
+            in.flip();
+            if (in.hasRemaining()) handle(from, in, nowNanos);
+        }
+    }
+
+    private void handle(SocketAddress from, ByteBuffer message, long nowNanos) throws IOException {
+        byte type = message.get();
+        if (type == JOIN) {
+            if (message.remaining() < 5 || message.getInt() != MAGIC || message.get() != VERSION) return;
+            int slot = slotOf(from);
+            if (slot < 0) slot = join(from, nowNanos);
+            out.clear();
+            if (slot < 0) {
+                out.put(FULL);
+            } else {
+                out.put(WELCOME).put((byte) slot).put((byte) level).put((byte) TICK_HZ);
+            }
+            out.flip();
+            send(from);
+        } else if (type == INPUT) {
+            if (message.remaining() < INPUT_BYTES - 1) return;
+            int slot = message.get();
+            if (slot < 0 || slot >= RaceSnapshot.MAX_PLAYERS || !from.equals(addresses[slot])) return;
+            int ack = message.getInt();
+            if (ack > ackTick[slot] && ack < tick) ackTick[slot] = ack;
+            tiltX[slot] = message.getShort() / TILT_SCALE;
+            tiltY[slot] = message.getShort() / TILT_SCALE;
+            lastHeardNanos[slot] = nowNanos;
+        } else if (type == LEAVE) {
+            if (!message.hasRemaining()) return;
+            int slot = message.get();
+            if (slot >= 0 && slot < RaceSnapshot.MAX_PLAYERS && from.equals(addresses[slot])) {
+                leave(slot);
+            }
+        }
+    }
+
+    private int slotOf(SocketAddress address) {
+        for (int slot = 0; slot < RaceSnapshot.MAX_PLAYERS; slot++) {
+            if (address.equals(addresses[slot])) return slot;
+        }
+        return -1;
+    }
+
+    // Primera plaza libre, con su simulación en el nivel desde la salida; -1 si no hay
+    private int join(SocketAddress address, long nowNanos) {
+        for (int slot = 0; slot < RaceSnapshot.MAX_PLAYERS; slot++) {
+            if (addresses[slot] != null) continue;
+            if (simulations[slot] == null) {
+                simulations[slot] = new GameSimulation(levelPack, stats);
+            }
+            simulations[slot].loadLevel(level);
+            addresses[slot] = address;
+            ackTick[slot] = RaceSnapshot.NO_BASE;
+            lastHeardNanos[slot] = nowNanos;
+            tiltX[slot] = 0;
+            tiltY[slot] = 0;
+            players++;
+            return slot;
+        }
+        return -1;
+    }
+
+    private void leave(int slot) {
+        addresses[slot] = null;
+        players--;
+    }
+
+    // Avanza todas las simulaciones un tick y manda a cada jugador su foto
+    void tick(long nowNanos) throws IOException {
+        long start = System.nanoTime();
+        RaceSnapshot snapshot = history[tick % HISTORY];
+        snapshot.clear();
+        snapshot.tick = tick;
+        // La marca de tiempo de la inclinación es el reloj del servidor: el filtro va al mismo
+        // ritmo para todos, llegue como llegue la entrada
+        long timestamp = (long) tick * TICK_NANOS;
+        for (int slot = 0; slot < RaceSnapshot.MAX_PLAYERS; slot++) {
+            if (addresses[slot] == null) continue;
+            if (nowNanos - lastHeardNanos[slot] > TIMEOUT_NANOS) {
+                leave(slot);
+                continue;
+            }
+            GameSimulation simulation = simulations[slot];
+            simulation.handleSample(GameSimulation.SENSOR_ACCELEROMETER, timestamp, tiltX[slot], tiltY[slot], 0);
+            simulation.runSteps(STEPS_PER_TICK);
+            snapshot.set(slot, simulation.ballX(), simulation.ballY(), simulation.playerShape(), simulation.gameState());
+        }
+
+        for (int slot = 0; slot < RaceSnapshot.MAX_PLAYERS; slot++) {
+            if (addresses[slot] == null) continue;
+            int ack = ackTick[slot];
+            RaceSnapshot base = ack != RaceSnapshot.NO_BASE && tick - ack < HISTORY
+                    && history[ack % HISTORY].tick == ack ? history[ack % HISTORY] : null;
+            if (base == null) fullSnapshots++;
+            out.clear();
+            out.put(SNAPSHOT);
+            snapshot.encodeDelta(base, out);
+            out.flip();
+            send(addresses[slot]);
+        }
+        tick++;
+        ticks++;
+        tickCost.record(System.nanoTime() - start);
+    }
+
+    private void send(SocketAddress to) throws IOException {
+        int bytes = out.remaining();
+        if (channel.send(out, to) == 0) {
+            sendDrops++; // Búfer del socket lleno: la siguiente foto lo arregla
+            return;
+        }
+        packetsOut++;
+        bytesOut += bytes;
+    }
+
+    // --- Métricas ---
+    int players() {
+        return players;
+    }
+
+    long ticks() {
+        return ticks;
+    }
+
+    long overruns() {
+        return overruns;
+    }
+
+    long bytesOut() {
+        return bytesOut;
+    }
+
+    long fullSnapshots() {
+        return fullSnapshots;
+    }
+
+    // Solo con el servidor parado (el histograma es del hilo del servidor)
+    LatencyHistogram tickCost() {
+        return tickCost;
+    }
+
+    // Mismo formato que FrameStats.writeSummary: una métrica por línea
+    void writeSummary(Writer out) throws IOException {
+        out.write("race_players " + players + "\n");
+        out.write("race_ticks " + ticks + "\n");
+        out.write("race_tick_overruns " + overruns + "\n");
+        out.write("race_tick_p50_ns " + tickCost.percentile(0.50) + "\n");
+        out.write("race_tick_p99_ns " + tickCost.percentile(0.99) + "\n");
+        out.write("race_packets_in " + packetsIn + "\n");
+        out.write("race_packets_out " + packetsOut + "\n");
+        out.write("race_bytes_out " + bytesOut + "\n");
+        out.write("race_full_snapshots " + fullSnapshots + "\n");
+        out.write("race_send_drops " + sendDrops + "\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.gravityrun;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Estado de una carrera en un tick del servidor: por plaza, si hay jugador y su bola, forma y
+// estado. Las posiciones van cuantizadas a 1/16 de unidad de diseño en 16 bits sin signo
+// (hasta 4096 unidades, de sobra para la disposición del primer nivel): el error, 1/32 de
+// unidad, no se ve ni a la mayor escala.
+//
+// Se envía como diferencia con una foto base que el cliente ya tiene (la última que
+// confirmó), big-endian:
+//   tick (int), tick de la base (int, NO_BASE si es completa), plazas cambiadas (long, un bit
+//   por plaza); por plaza cambiada: banderas (byte: PRESENT, X, Y, LOOK), dx y dy respecto a la
+//   base en zigzag varint (si cambian), forma << 4 | estado (byte, si cambia)
+// Una bola quieta no cuesta nada y una que rueda, unos 5 bytes. Las plazas vacías tienen todo a
+// cero, así que una foto completa es la diferencia con la foto vacía.
+final class RaceSnapshot {
+
+    static final int MAX_PLAYERS = 64;
+    static final float POSITION_SCALE = 16f;
+    static final int NO_BASE = -1;
+    static final int HEADER_BYTES = 4 + 4 + 8;
+    // dx y dy caben en 3 bytes de varint cada uno
+    static final int MAX_BYTES = HEADER_BYTES + MAX_PLAYERS * (1 + 3 + 3 + 1);
+
+    private static final int PRESENT = 1, X = 2, Y = 4, LOOK = 8;
+    private static final int MAX_QUANTIZED = 0xFFFF;
+    private static final GameState[] STATES = GameState.values();
+    private static final PlayerShape[] SHAPES = PlayerShape.values();
+
+    int tick = NO_BASE;
+    private final boolean[] present = new boolean[MAX_PLAYERS];
+    private final int[] x = new int[MAX_PLAYERS], y = new int[MAX_PLAYERS];
+    private final byte[] look = new byte[MAX_PLAYERS]; // forma << 4 | estado
+
+    void clear() {
+        tick = NO_BASE;
+        Arrays.fill(present, false);
+        Arrays.fill(x, 0);
+        Arrays.fill(y, 0);
+        Arrays.fill(look, (byte) 0);
+    }
+
+    void copyFrom(RaceSnapshot other) {
+        tick = other.tick;
+        System.arraycopy(other.present, 0, present, 0, MAX_PLAYERS);
+        System.arraycopy(other.x, 0, x, 0, MAX_PLAYERS);
+        System.arraycopy(other.y, 0, y, 0, MAX_PLAYERS);
+        System.arraycopy(other.look, 0, look, 0, MAX_PLAYERS);
+    }
+
+    void set(int slot, float ballX, float ballY, PlayerShape shape, GameState state) {
+        present[slot] = true;
+        x[slot] = quantize(ballX);
+        y[slot] = quantize(ballY);
+        look[slot] = (byte) (shape.ordinal() << 4 | state.ordinal());
+    }
+
+    static int quantize(float value) {
+        return Math.max(0, Math.min(MAX_QUANTIZED, Math.round(value * POSITION_SCALE)));
+    }
+
+    boolean present(int slot) {
+        return present[slot];
+    }
+
+    float x(int slot) {
+        return x[slot] / POSITION_SCALE;
+    }
+
+    float y(int slot) {
+        return y[slot] / POSITION_SCALE;
+    }
+
+    PlayerShape shape(int slot) {
+        return SHAPES[look[slot] >> 4];
+    }
+
+    GameState state(int slot) {
+        return STATES[look[slot] & 0xF];
+    }
+
+    int playerCount() {
+        int count = 0;
+        for (boolean p : present) if (p) count++;
+        return count;
+    }
+
+    // --- Codificación ---
+    // Escribe la diferencia con base (null: foto completa). No crea objetos.
+    void encodeDelta(RaceSnapshot base, ByteBuffer out) {
+        out.putInt(tick);
+        out.putInt(base == null ? NO_BASE : base.tick);
+        int maskAt = out.position();
+        out.putLong(0);
+        long changed = 0;
+        for (int slot = 0; slot < MAX_PLAYERS; slot++) {
+            boolean basePresent = base != null && base.present[slot];
+            int baseX = base == null ? 0 : base.x[slot];
+            int baseY = base == null ? 0 : base.y[slot];
+            byte baseLook = base == null ? 0 : base.look[slot];
+            int flags = (present[slot] ? PRESENT : 0) | (x[slot] != baseX ? X : 0)
+                    | (y[slot] != baseY ? Y : 0) | (look[slot] != baseLook ? LOOK : 0);
+            if (flags == (basePresent ? PRESENT : 0)) continue;
+            changed |= 1L << slot;
+            out.put((byte) flags);
+            if ((flags & X) != 0) putVarint(out, zigzag(x[slot] - baseX));
+            if ((flags & Y) != 0) putVarint(out, zigzag(y[slot] - baseY));
+            if ((flags & LOOK) != 0) out.put(look[slot]);
+        }
+        out.putLong(maskAt, changed);
+    }
+
+    // Tick de la base de la diferencia que empieza en la posición actual de in
+    static int baseTickOf(ByteBuffer in) {
+        return in.getInt(in.position() + 4);
+    }
+
+    // Lee una diferencia sobre base (la foto de baseTickOf, o null si es completa). Devuelve
+    // false si el mensaje está mal formado; entonces esta foto queda a medias.
+    boolean decodeDelta(ByteBuffer in, RaceSnapshot base) {
+        if (in.remaining() < HEADER_BYTES) return false;
+        if (base != null) {
+            copyFrom(base);
+        } else {
+            clear();
+        }
+        tick = in.getInt();
+        in.getInt();
+        long changed = in.getLong();
+        for (int slot = 0; slot < MAX_PLAYERS; slot++) {
+            if ((changed & (1L << slot)) == 0) continue;
+            if (!in.hasRemaining()) return false;
+            int flags = in.get();
+            present[slot] = (flags & PRESENT) != 0;
+            if ((flags & X) != 0) x[slot] += unzigzag(getVarint(in));
+            if ((flags & Y) != 0) y[slot] += unzigzag(getVarint(in));
+            if ((flags & LOOK) != 0) {
+                if (!in.hasRemaining()) return false;
+                look[slot] = in.get();
+            }
+            if (x[slot] < 0 || x[slot] > MAX_QUANTIZED || y[slot] < 0 || y[slot] > MAX_QUANTIZED
+                    || (look[slot] >> 4) >= SHAPES.length || (look[slot] & 0xF) >= STATES.length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    private static int unzigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void putVarint(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    // Un varint cortado o de más de 3 bytes da un valor fuera de rango, que decodeDelta rechaza
+    private static int getVarint(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; shift < 21 && in.hasRemaining(); shift += 7) {
+            int b = in.get();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.gravityrun;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Entrega de frames entre el hilo de la simulación (escribe) y el de dibujo (lee), sin que
+// ninguno espere al otro. Son dos buffers de cara a cada lado (el que se escribe y el que se
+// dibuja) más uno intermedio: publicar cambia el escrito por el intermedio y leer cambia el
+// dibujado por el intermedio si hay uno nuevo. Con solo dos, uno de los lados tendría que
+// bloquearse mientras el otro termina. Un solo escritor y un solo lector.
+final class RenderBuffer {
+
+    private static final int INDEX = 3;
+    private static final int FRESH = 4; // El intermedio trae un frame que el lector no ha visto
+
+    private final RenderFrame[] frames = {new RenderFrame(), new RenderFrame(), new RenderFrame()};
+    private final AtomicInteger middle = new AtomicInteger(2);
+    private int back = 0;  // Solo el escritor
+    private int front = 1; // Solo el lector
+
+    // Frame que el escritor rellena; es suyo hasta publish()
+    RenderFrame back() {
+        return frames[back];
+    }
+
+    void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX;
+    }
+
+    boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+
+    // Último frame publicado (o el mismo que la vez anterior si no hay otro); es del lector
+    // hasta la siguiente llamada
+    RenderFrame acquire() {
+        if (hasFresh()) {
+            front = middle.getAndSet(front) & INDEX;
+        }
+        return frames[front];
+    }
+}
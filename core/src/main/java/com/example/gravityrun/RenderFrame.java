@@ -0,0 +1,123 @@
+package com.example.gravityrun;
+
+// Todo lo que hace falta para dibujar un frame, copiado de GameSimulation en el hilo de la
+// simulación para que otro hilo lo dibuje sin tocar el estado vivo. La geometría del nivel
+// (LevelData, WallGrid) no cambia después de construirse, así que va por referencia; lo que
+// se mueve (bola interpolada, perseguidores, bolas del multibola) se copia. Los arrays crecen
+// la primera vez que hacen falta y después se reutilizan: capturar no crea objetos.
+final class RenderFrame {
+
+    int level;
+    GameState state = GameState.LEVEL_SELECT;
+    int backgroundColor = 0xFF000000;
+
+    // Nivel (null en el menú)
+    LevelData levelData;
+    WallGrid wallGrid;
+    float exitLeft, exitTop, exitRight, exitBottom;
+    float levelRight, levelBottom;
+
+    // Jugador, ya interpolado para el dibujo
+    PlayerShape playerShape = PlayerShape.CIRCLE;
+    float playerX, playerY;
+    float radius;
+    long tiltTimestampNanos = -1;
+
+    int chaserCount;
+    float chaserRadius;
+    float[] chaserX = new float[0], chaserY = new float[0];
+
+    int ballCount;
+    float ballRadius;
+    float[] ballX = new float[0], ballY = new float[0];
+    PlayerShape[] ballShape = new PlayerShape[0];
+    int ballsHome;
+
+    // Rivales de la carrera sin la bola propia, ya interpolados (ver captureRace)
+    int ghostCount, ghostsWon;
+    final float[] ghostX = new float[RaceSnapshot.MAX_PLAYERS], ghostY = new float[RaceSnapshot.MAX_PLAYERS];
+    final PlayerShape[] ghostShape = new PlayerShape[RaceSnapshot.MAX_PLAYERS];
+
+    // Cronómetro de la partida; la mejor marca la rellena quien captura (NO_TIME si no hay)
+    long runNanos;
+    long bestNanos = RunJournal.NO_TIME;
+    boolean newBest;
+
+    // HUD de rendimiento (lo rellena quien captura, si está visible)
+    boolean performanceHud;
+    long frameP50, frameP95, frameP99, droppedFrames;
+
+    void capture(GameSimulation simulation) {
+        level = simulation.currentLevel();
+        state = simulation.gameState();
+        backgroundColor = simulation.backgroundColor();
+
+        levelData = simulation.levelData();
+        wallGrid = simulation.wallGrid();
+        exitLeft = simulation.exitLeft();
+        exitTop = simulation.exitTop();
+        exitRight = simulation.exitRight();
+        exitBottom = simulation.exitBottom();
+        levelRight = simulation.levelRight();
+        levelBottom = simulation.levelBottom();
+
+        playerShape = simulation.playerShape();
+        playerX = simulation.renderX();
+        playerY = simulation.renderY();
+        radius = simulation.radius();
+        tiltTimestampNanos = simulation.lastTiltTimestampNanos();
+
+        float alpha = simulation.renderAlpha();
+        ChaserSwarm chasers = simulation.chasers();
+        chaserCount = chasers.count();
+        chaserRadius = chasers.radius();
+        if (chaserX.length < chaserCount) {
+            chaserX = new float[chaserCount];
+            chaserY = new float[chaserCount];
+        }
+        for (int i = 0; i < chaserCount; i++) {
+            chaserX[i] = chasers.renderX(i, alpha);
+            chaserY[i] = chasers.renderY(i, alpha);
+        }
+
+        BallSwarm balls = simulation.balls();
+        ballCount = balls.count();
+        ballRadius = balls.radius();
+        if (ballX.length < ballCount) {
+            ballX = new float[ballCount];
+            ballY = new float[ballCount];
+            ballShape = new PlayerShape[ballCount];
+        }
+        for (int i = 0; i < ballCount; i++) {
+            ballX[i] = balls.renderX(i, alpha);
+            ballY[i] = balls.renderY(i, alpha);
+            ballShape[i] = balls.shape(i);
+        }
+        ballsHome = simulation.ballsHome();
+        runNanos = simulation.elapsedNanos();
+    }
+
+    // ¿Se mueve algo más que la bola propia (perseguidores, multibola o rivales de la carrera)?
+    // Entonces no basta con repintar la caja del jugador
+    boolean hasMovingExtras() {
+        return chaserCount > 0 || ballCount > 0 || ghostCount > 0;
+    }
+
+    // Bolas de los demás en la carrera (client == null: sin carrera); interpolate ya hecho
+    void captureRace(RaceClient client) {
+        ghostCount = 0;
+        ghostsWon = 0;
+        if (client == null) return;
+        synchronized (client) {
+            int own = client.slot();
+            for (int slot = 0; slot < RaceSnapshot.MAX_PLAYERS; slot++) {
+                if (slot == own || !client.present(slot)) continue;
+                ghostX[ghostCount] = client.x(slot);
+                ghostY[ghostCount] = client.y(slot);
+                ghostShape[ghostCount] = client.shape(slot);
+                if (client.state(slot) == GameState.WON) ghostsWon++;
+                ghostCount++;
+            }
+        }
+    }
+}
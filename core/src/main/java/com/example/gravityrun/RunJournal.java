@@ -0,0 +1,464 @@
+package com.example.gravityrun;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Mejores marcas e historial de partidas terminadas.
+//
+// Cada partida es un registro de tamaño fijo añadido al final de un diario (runs.grj); un
+// índice pequeño (runs.grx) guarda por nivel la mejor marca, sus parciales y cuántas partidas
+// hay, más hasta qué byte del diario los tiene en cuenta. Al abrir solo se lee el índice y, si
+// el diario creció después (una muerte entre escribir el diario y el índice), la cola que
+// falta; sin índice se repasa el diario entero. Big-endian:
+//
+//   Diario: magic "GRJ1" (int), versión (short), 0 (short)
+//           por partida: nivel (byte), 0 (3 bytes), tiempo en ns (long), SPLITS parciales en
+//           ns o -1 (longs), fin en ms de reloj de pared (long)
+//   Índice: magic "GRJX" (int), versión (short), niveles (short), bytes del diario cubiertos
+//           (long), partidas totales (long); por nivel: nivel (byte), partidas (int), mejor
+//           tiempo (long), parciales de la mejor (longs)
+//
+// record() es del hilo de UI: actualiza las marcas en memoria al momento y deja la partida en
+// una cola. Las escrituras (diario, índice y compactación) van en lote en flushExecutor, que
+// puede retrasarlas para juntar más. Por encima de COMPACT_RECORDS registros el diario se
+// reescribe con las últimas KEEP_PER_LEVEL partidas de cada nivel y su mejor marca.
+final class RunJournal {
+
+    static final String JOURNAL_FILE = "runs.grj";
+    static final String INDEX_FILE = "runs.grx";
+    static final int MAX_LEVELS = 16;
+    static final int SPLITS = RunTimer.SPLITS;
+    static final int COMPACT_RECORDS = 4096;
+    static final int KEEP_PER_LEVEL = 64;
+    static final long NO_TIME = -1;
+
+    private static final int JOURNAL_MAGIC = 0x47524A31; // "GRJ1"
+    private static final int INDEX_MAGIC = 0x47524A58; // "GRJX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    static final int RECORD_BYTES = 4 + 8 + SPLITS * 8 + 8;
+    private static final int INDEX_HEADER_BYTES = 4 + 2 + 2 + 8 + 8;
+    private static final int INDEX_ENTRY_BYTES = 1 + 4 + 8 + SPLITS * 8;
+
+    // Una partida terminada
+    static final class Run {
+        final int level;
+        final long nanos;
+        final long[] splitNanos;
+        final long finishedAtMillis;
+
+        Run(int level, long nanos, long[] splitNanos, long finishedAtMillis) {
+            if (level <= 0 || level >= MAX_LEVELS) {
+                throw new IllegalArgumentException("Nivel fuera de rango: " + level);
+            }
+            if (splitNanos.length != SPLITS) {
+                throw new IllegalArgumentException("Se esperaban " + SPLITS + " parciales");
+            }
+            this.level = level;
+            this.nanos = nanos;
+            this.splitNanos = splitNanos;
+            this.finishedAtMillis = finishedAtMillis;
+        }
+    }
+
+    // Mejores marcas por nivel. Hay dos copias: la del hilo de UI (al día) y la del hilo de
+    // escritura (lo que ya está en disco, para el índice).
+    private static final class Bests {
+        final int[] runs = new int[MAX_LEVELS];
+        final long[] best = new long[MAX_LEVELS];
+        final long[] bestSplits = new long[MAX_LEVELS * SPLITS];
+        long totalRuns = 0;
+
+        Bests() {
+            clear();
+        }
+
+        void clear() {
+            Arrays.fill(runs, 0);
+            Arrays.fill(best, NO_TIME);
+            Arrays.fill(bestSplits, NO_TIME);
+            totalRuns = 0;
+        }
+
+        // true si es mejor marca
+        boolean apply(Run run) {
+            runs[run.level]++;
+            totalRuns++;
+            if (best[run.level] != NO_TIME && best[run.level] <= run.nanos) return false;
+            best[run.level] = run.nanos;
+            System.arraycopy(run.splitNanos, 0, bestSplits, run.level * SPLITS, SPLITS);
+            return true;
+        }
+
+        void copyFrom(Bests other) {
+            System.arraycopy(other.runs, 0, runs, 0, MAX_LEVELS);
+            System.arraycopy(other.best, 0, best, 0, MAX_LEVELS);
+            System.arraycopy(other.bestSplits, 0, bestSplits, 0, bestSplits.length);
+            totalRuns = other.totalRuns;
+        }
+    }
+
+    private final File journalFile, indexFile;
+    private final Executor flushExecutor;
+
+    // --- HILO DE UI ---
+    private final Bests live = new Bests();
+    // ------------------
+
+    private final ConcurrentLinkedQueue<Run> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // --- HILO DE ESCRITURA (bajo el cerrojo del objeto) ---
+    private final Bests persisted = new Bests();
+    private long journalBytes = 0; // Bytes válidos del diario (sin un registro a medias)
+    private boolean indexStale = false;
+    // ------------------------------------------------------
+
+    // --- Métricas ---
+    private long openNanos = 0;
+    private int replayedAtOpen = 0; // Registros leídos del diario al abrir (la cola sin índice)
+    private volatile long flushes = 0, recordsWritten = 0, compactions = 0, writeErrors = 0;
+
+    private RunJournal(File dir, Executor flushExecutor) {
+        this.journalFile = new File(dir, JOURNAL_FILE);
+        this.indexFile = new File(dir, INDEX_FILE);
+        this.flushExecutor = flushExecutor;
+    }
+
+    // Lee el índice (y la cola del diario que no cubra). Un diario o índice roto no impide
+    // arrancar: se empieza de cero o se repasa el diario.
+    static RunJournal open(File dir, Executor flushExecutor) {
+        long start = System.nanoTime();
+        RunJournal journal = new RunJournal(dir, flushExecutor);
+        synchronized (journal) {
+            journal.load();
+            journal.live.copyFrom(journal.persisted);
+        }
+        journal.openNanos = System.nanoTime() - start;
+        return journal;
+    }
+
+    private void load() {
+        long length = journalFile.length();
+        if (length > 0 && (length < HEADER_BYTES || !validHeader())) {
+            journalFile.delete(); // De otra versión o roto: historial perdido, mejor que no arrancar
+            length = 0;
+        }
+        // Sin el registro a medias de una escritura interrumpida
+        journalBytes = length == 0 ? 0 : length - (length - HEADER_BYTES) % RECORD_BYTES;
+
+        long covered = readIndex();
+        if (covered < 0 || covered > journalBytes || (covered > 0 && covered < HEADER_BYTES)) {
+            persisted.clear();
+            covered = Math.min(journalBytes, HEADER_BYTES);
+        }
+        if (covered < journalBytes) {
+            try {
+                replayedAtOpen = replay(covered, journalBytes);
+            } catch (IOException e) {
+                persisted.clear();
+                journalFile.delete();
+                journalBytes = 0;
+            }
+            indexStale = true;
+        }
+    }
+
+    private boolean validHeader() {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(journalFile))) {
+            return in.readInt() == JOURNAL_MAGIC && in.readShort() == VERSION;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Bytes del diario cubiertos por el índice (y marcas en persisted), o -1 si no hay índice
+    // válido
+    private long readIndex() {
+        long length = indexFile.length();
+        if (length < INDEX_HEADER_BYTES) return -1;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(indexFile))) {
+            if (in.readInt() != INDEX_MAGIC || in.readShort() != VERSION) return -1;
+            int levels = in.readShort();
+            if (length != INDEX_HEADER_BYTES + (long) levels * INDEX_ENTRY_BYTES) return -1;
+            long covered = in.readLong();
+            persisted.totalRuns = in.readLong();
+            for (int k = 0; k < levels; k++) {
+                int level = in.readByte();
+                if (level <= 0 || level >= MAX_LEVELS) return -1;
+                persisted.runs[level] = in.readInt();
+                persisted.best[level] = in.readLong();
+                for (int i = 0; i < SPLITS; i++) {
+                    persisted.bestSplits[level * SPLITS + i] = in.readLong();
+                }
+            }
+            return covered;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private int replay(long from, long to) throws IOException {
+        int count = 0;
+        for (Run run : readRuns(from, to)) {
+            persisted.apply(run);
+            count++;
+        }
+        return count;
+    }
+
+    private List<Run> readRuns(long from, long to) throws IOException {
+        List<Run> runs = new ArrayList<>();
+        if (to <= from) return runs;
+        byte[] bytes = new byte[(int) (to - from)];
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "r")) {
+            file.seek(from);
+            file.readFully(bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.remaining() >= RECORD_BYTES) {
+            int level = buffer.get();
+            buffer.position(buffer.position() + 3);
+            long nanos = buffer.getLong();
+            long[] splits = new long[SPLITS];
+            for (int i = 0; i < SPLITS; i++) splits[i] = buffer.getLong();
+            long finishedAt = buffer.getLong();
+            if (level <= 0 || level >= MAX_LEVELS) continue; // Registro dañado
+            runs.add(new Run(level, nanos, splits, finishedAt));
+        }
+        return runs;
+    }
+
+    // --- Hilo de UI ---
+    // Apunta una partida terminada; devuelve si es mejor marca. La escritura queda pendiente.
+    boolean record(Run run) {
+        boolean best = live.apply(run);
+        pending.add(run);
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(this::flush);
+        }
+        return best;
+    }
+
+    long bestNanos(int level) {
+        return level > 0 && level < MAX_LEVELS ? live.best[level] : NO_TIME;
+    }
+
+    long bestSplitNanos(int level, int split) {
+        return level > 0 && level < MAX_LEVELS ? live.bestSplits[level * SPLITS + split] : NO_TIME;
+    }
+
+    int runs(int level) {
+        return level > 0 && level < MAX_LEVELS ? live.runs[level] : 0;
+    }
+
+    long totalRuns() {
+        return live.totalRuns;
+    }
+
+    // --- Hilo de escritura ---
+    // Escribe en lote todo lo pendiente: registros al diario (una sola escritura y un sync),
+    // compactación si toca e índice nuevo (temporal y renombrado)
+    synchronized void flush() {
+        flushScheduled.set(false);
+        List<Run> batch = new ArrayList<>();
+        Run run;
+        while ((run = pending.poll()) != null) {
+            batch.add(run);
+        }
+        if (batch.isEmpty() && !indexStale) return;
+
+        if (!batch.isEmpty()) {
+            try {
+                append(batch);
+            } catch (IOException e) {
+                // Nada quedó en el diario (append recorta lo que hubiera escrito a medias): se
+                // reintenta en la siguiente escritura (el orden del historial puede variar)
+                writeErrors++;
+                pending.addAll(batch);
+                return;
+            }
+            for (Run r : batch) persisted.apply(r);
+            recordsWritten += batch.size();
+            indexStale = true;
+        }
+        // El lote ya está en el diario: si falla lo de después no se vuelve a encolar (se
+        // duplicaría); el índice queda atrasado y se rehace en la siguiente escritura o, si no
+        // la hay, al abrir repasando la cola del diario
+        try {
+            if ((journalBytes - HEADER_BYTES) / RECORD_BYTES > COMPACT_RECORDS) {
+                compact();
+            }
+            writeIndex();
+            indexStale = false;
+            flushes++;
+        } catch (IOException e) {
+            writeErrors++;
+        }
+    }
+
+    private void append(List<Run> batch) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((journalBytes == 0 ? HEADER_BYTES : 0) + batch.size() * RECORD_BYTES);
+        if (journalBytes == 0) {
+            buffer.putInt(JOURNAL_MAGIC);
+            buffer.putShort((short) VERSION);
+            buffer.putShort((short) 0);
+        }
+        for (Run run : batch) {
+            putRun(buffer, run);
+        }
+        try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+            file.setLength(journalBytes); // Fuera un registro a medias
+            file.seek(journalBytes);
+            file.write(buffer.array());
+            file.getFD().sync();
+        }
+        journalBytes += buffer.capacity();
+    }
+
+    private static void putRun(ByteBuffer buffer, Run run) {
+        buffer.put((byte) run.level);
+        buffer.put((byte) 0);
+        buffer.putShort((short) 0);
+        buffer.putLong(run.nanos);
+        for (int i = 0; i < SPLITS; i++) buffer.putLong(run.splitNanos[i]);
+        buffer.putLong(run.finishedAtMillis);
+    }
+
+    // Reescribe el diario con las últimas KEEP_PER_LEVEL partidas de cada nivel y la de su
+    // mejor marca (para poder rehacer el índice si se pierde), en su orden original
+    private void compact() throws IOException {
+        List<Run> runs = readRuns(HEADER_BYTES, journalBytes);
+        boolean[] keep = new boolean[runs.size()];
+        int[] kept = new int[MAX_LEVELS];
+        boolean[] bestKept = new boolean[MAX_LEVELS];
+        for (int k = runs.size() - 1; k >= 0; k--) {
+            Run run = runs.get(k);
+            if (kept[run.level] < KEEP_PER_LEVEL) {
+                keep[k] = true;
+                kept[run.level]++;
+            }
+            if (!bestKept[run.level] && run.nanos == persisted.best[run.level]) {
+                keep[k] = true;
+                bestKept[run.level] = true;
+            }
+        }
+        int count = 0;
+        for (boolean k : keep) if (k) count++;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * RECORD_BYTES);
+        buffer.putInt(JOURNAL_MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) 0);
+        for (int k = 0; k < runs.size(); k++) {
+            if (keep[k]) putRun(buffer, runs.get(k));
+        }
+        File tmp = new File(journalFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(buffer.array());
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(journalFile)) {
+            tmp.delete();
+            throw new IOException("No se pudo sustituir el diario compactado");
+        }
+        journalBytes = buffer.capacity();
+        compactions++;
+    }
+
+    private void writeIndex() throws IOException {
+        int levels = 0;
+        for (int level = 1; level < MAX_LEVELS; level++) {
+            if (persisted.runs[level] > 0) levels++;
+        }
+        File tmp = new File(indexFile.getPath() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp)) {
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(INDEX_MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(levels);
+            out.writeLong(journalBytes);
+            out.writeLong(persisted.totalRuns);
+            for (int level = 1; level < MAX_LEVELS; level++) {
+                if (persisted.runs[level] == 0) continue;
+                out.writeByte(level);
+                out.writeInt(persisted.runs[level]);
+                out.writeLong(persisted.best[level]);
+                for (int i = 0; i < SPLITS; i++) {
+                    out.writeLong(persisted.bestSplits[level * SPLITS + i]);
+                }
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        if (!tmp.renameTo(indexFile)) {
+            tmp.delete();
+            throw new IOException("No se pudo sustituir el índice");
+        }
+    }
+
+    // Últimas partidas del nivel en disco, de la más reciente a la más antigua. Lee el diario:
+    // para hilos de fondo, no para el de UI.
+    synchronized List<Run> history(int level, int max) throws IOException {
+        List<Run> all = readRuns(Math.min(journalBytes, HEADER_BYTES), journalBytes);
+        List<Run> result = new ArrayList<>();
+        for (int k = all.size() - 1; k >= 0 && result.size() < max; k--) {
+            if (all.get(k).level == level) result.add(all.get(k));
+        }
+        return result;
+    }
+
+    // --- Métricas ---
+    long openNanos() {
+        return openNanos;
+    }
+
+    int replayedAtOpen() {
+        return replayedAtOpen;
+    }
+
+    long flushes() {
+        return flushes;
+    }
+
+    long recordsWritten() {
+        return recordsWritten;
+    }
+
+    long compactions() {
+        return compactions;
+    }
+
+    long writeErrors() {
+        return writeErrors;
+    }
+
+    synchronized long journalBytes() {
+        return journalBytes;
+    }
+
+    // Mismo formato que FrameStats.writeSummary: una métrica por línea
+    void writeSummary(Writer out) throws IOException {
+        out.write("runs_total " + live.totalRuns + "\n");
+        out.write("runs_open_ns " + openNanos + "\n");
+        out.write("runs_replayed_at_open " + replayedAtOpen + "\n");
+        out.write("runs_flushes " + flushes + "\n");
+        out.write("runs_records_written " + recordsWritten + "\n");
+        out.write("runs_compactions " + compactions + "\n");
+        out.write("runs_write_errors " + writeErrors + "\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.gravityrun;
+
+import java.util.Arrays;
+
+// Parciales de una partida: el paso en que se alcanzó por primera vez cada cuarto del
+// recorrido (SPLITS puntos de control antes de la meta). El progreso lo da la simulación: la
+// fracción de la distancia en línea recta hasta la meta ya recorrida o, en multibola, las bolas
+// en la meta respecto al objetivo. El tiempo va en pasos de reloj de GameSimulation, que la app
+// avanza con SystemClock.elapsedRealtimeNanos (la base de SensorEvent.timestamp): cuenta el
+// reposo y los pasos que el tope por frame descarta, no las pausas, y una repetición da los
+// mismos parciales.
+final class RunTimer {
+
+    static final int SPLITS = 3;
+    static final long NOT_REACHED = -1;
+
+    private final long[] splitSteps = new long[SPLITS];
+    private int reached = 0;
+    private float targetX, targetY;
+    private float startDistance;
+
+    // Nueva partida desde (x, y) hacia (targetX, targetY)
+    void start(float x, float y, float targetX, float targetY) {
+        this.targetX = targetX;
+        this.targetY = targetY;
+        startDistance = (float) Math.hypot(targetX - x, targetY - y);
+        Arrays.fill(splitSteps, NOT_REACHED);
+        reached = 0;
+    }
+
+    // Partida repuesta desde una foto: los parciales anteriores no se guardan, así que los
+    // puntos ya pasados quedan sin tiempo
+    void resume(float x, float y) {
+        Arrays.fill(splitSteps, NOT_REACHED);
+        reached = 0;
+        float progress = progressAt(x, y);
+        while (reached < SPLITS && progress >= threshold(reached)) {
+            reached++;
+        }
+    }
+
+    // Progreso por posición (0 en la salida, 1 en la meta)
+    void updatePosition(float x, float y, long step) {
+        update(progressAt(x, y), step);
+    }
+
+    // Progreso ya calculado (multibola)
+    void update(float progress, long step) {
+        while (reached < SPLITS && progress >= threshold(reached)) {
+            splitSteps[reached++] = step;
+        }
+    }
+
+    private float progressAt(float x, float y) {
+        if (startDistance <= 0) return 1;
+        return 1 - (float) Math.hypot(targetX - x, targetY - y) / startDistance;
+    }
+
+    private static float threshold(int split) {
+        return (split + 1) / (float) (SPLITS + 1);
+    }
+
+    // Paso del parcial i, o NOT_REACHED
+    long splitStep(int i) {
+        return splitSteps[i];
+    }
+
+    int reached() {
+        return reached;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.gravityrun;
+
+// Cola circular sin bloqueos de un productor y un consumidor (SPSC) para muestras de sensores.
+// El productor es el hilo de los sensores (onSensorChanged) y el consumidor la simulación.
+// Todo está preasignado en arrays primitivos: encolar y vaciar no crean objetos.
+//
+// Publicación: el productor escribe la muestra y después avanza head (volatile); el consumidor
+// lee head, procesa el lote y avanza tail una sola vez. Si la cola está llena la muestra nueva
+// se descarta y se cuenta.
+final class SensorRingBuffer {
+
+    // Receptor de muestras al vaciar la cola
+    interface Sink {
+        void onSample(int sensorType, long timestampNanos, float v0, float v1, float v2);
+    }
+
+    private final int mask;
+    private final int[] types;
+    private final long[] timestamps;
+    private final float[] values; // 3 valores por muestra
+
+    private volatile long head = 0; // Siguiente posición a escribir (solo el productor)
+    private volatile long tail = 0; // Siguiente posición a leer (solo el consumidor)
+    private volatile long dropped = 0;
+
+    SensorRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("La capacidad debe ser potencia de 2: " + capacity);
+        }
+        mask = capacity - 1;
+        types = new int[capacity];
+        timestamps = new long[capacity];
+        values = new float[capacity * 3];
+    }
+
+    // Productor: devuelve false si la cola estaba llena
+    boolean offer(int sensorType, long timestampNanos, float v0, float v1, float v2) {
+        long h = head;
+        if (h - tail > mask) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) (h & mask);
+        types[slot] = sensorType;
+        timestamps[slot] = timestampNanos;
+        values[slot * 3] = v0;
+        values[slot * 3 + 1] = v1;
+        values[slot * 3 + 2] = v2;
+        head = h + 1;
+        return true;
+    }
+
+    // Consumidor: entrega hasta max muestras en orden y devuelve cuántas se procesaron
+    int drain(Sink sink, int max) {
+        long t = tail;
+        long available = head - t;
+        int n = (int) Math.min(available, max);
+        for (int i = 0; i < n; i++) {
+            int slot = (int) ((t + i) & mask);
+            sink.onSample(types[slot], timestamps[slot],
+                    values[slot * 3], values[slot * 3 + 1], values[slot * 3 + 2]);
+        }
+        tail = t + n;
+        return n;
+    }
+
+    // Consumidor: descarta lo pendiente (p. ej. al empezar un nivel)
+    void clear() {
+        tail = head;
+    }
+
+    int size() {
+        return (int) (head - tail);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long dropped() {
+        return dropped;
+    }
+}
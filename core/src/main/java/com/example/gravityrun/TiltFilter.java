@@ -0,0 +1,52 @@
+package com.example.gravityrun;
+
+// Filtro paso bajo de primer orden para la inclinación del acelerómetro. Usa el timestamp de
+// cada muestra, así que la suavidad no depende de la cadencia con la que llegan los eventos.
+// timeConstantSeconds = 0 desactiva el filtrado.
+final class TiltFilter {
+
+    private float timeConstantSeconds;
+    private float x, y;
+    private long lastTimestampNanos = -1;
+
+    TiltFilter(float timeConstantSeconds) {
+        setTimeConstant(timeConstantSeconds);
+    }
+
+    void setTimeConstant(float seconds) {
+        if (seconds < 0) throw new IllegalArgumentException("Constante de tiempo negativa: " + seconds);
+        timeConstantSeconds = seconds;
+    }
+
+    float timeConstant() {
+        return timeConstantSeconds;
+    }
+
+    void update(float rawX, float rawY, long timestampNanos) {
+        if (lastTimestampNanos < 0 || timeConstantSeconds == 0) {
+            x = rawX;
+            y = rawY;
+        } else if (timestampNanos > lastTimestampNanos) {
+            float dt = (timestampNanos - lastTimestampNanos) * 1e-9f;
+            float alpha = dt / (timeConstantSeconds + dt);
+            x += alpha * (rawX - x);
+            y += alpha * (rawY - y);
+        }
+        // Las muestras repetidas o desordenadas no mueven el filtro
+        lastTimestampNanos = Math.max(lastTimestampNanos, timestampNanos);
+    }
+
+    void reset() {
+        x = 0;
+        y = 0;
+        lastTimestampNanos = -1;
+    }
+
+    float x() {
+        return x;
+    }
+
+    float y() {
+        return y;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.gravityrun;
+
+import java.util.Arrays;
+
+// Compilador de geometría al cargar: sustituye los muros de un nivel, que se solapan y se
+// tocan (bordes añadidos a cada nivel, tramos partidos, esquinas de anillos), por un
+// recubrimiento más corto que ocupa exactamente la misma zona.
+//
+// Comprime las coordenadas de todos los bordes en una rejilla irregular y marca las celdas
+// cubiertas con una suma de prefijos 2D. Luego cada muro crece mientras la franja de al lado
+// esté cubierta entera (dos tramos que se tocan acaban siendo el mismo rectángulo), se quitan
+// los repetidos y, del más pequeño al más grande, se descarta cada muro cuyas celdas ya cubre
+// otro. El resultado puede tener solapes: los muros son opacos y la colisión se queda con el
+// primer contacto, así que no cambia nada y sale más corto que una partición sin solapes (que
+// en los cruces en T obliga a partir muros). No es el mínimo exacto, que es NP-difícil.
+//
+// Memoria: proporcional a (bordes distintos en x) * (bordes distintos en y), solo durante la
+// compilación; va en el hilo de precálculo de niveles.
+final class WallCompiler {
+
+    private WallCompiler() {
+    }
+
+    // Nivel con la misma paleta, forma y meta y los muros compilados. Si no sale más corto se
+    // devuelve el original.
+    static LevelData compile(LevelData level) {
+        int n = level.wallCount;
+        if (n < 2) return level;
+
+        float[] xs = edges(level.left, level.right, n);
+        float[] ys = edges(level.top, level.bottom, n);
+        int cols = xs.length - 1, rows = ys.length - 1;
+        if (cols <= 0 || rows <= 0) return level;
+
+        // Muros en índices de la rejilla: [c0, c1) x [r0, r1)
+        int[] c0 = new int[n], r0 = new int[n], c1 = new int[n], r1 = new int[n];
+        for (int i = 0; i < n; i++) {
+            c0[i] = Arrays.binarySearch(xs, level.left[i]);
+            c1[i] = Arrays.binarySearch(xs, level.right[i]);
+            r0[i] = Arrays.binarySearch(ys, level.top[i]);
+            r1[i] = Arrays.binarySearch(ys, level.bottom[i]);
+        }
+
+        // Cobertura por celda: +1/-1 en las esquinas de cada muro y suma de prefijos
+        int[] coverage = new int[(cols + 1) * (rows + 1)];
+        for (int i = 0; i < n; i++) {
+            if (c0[i] >= c1[i] || r0[i] >= r1[i]) continue; // Muro vacío
+            coverage[r0[i] * (cols + 1) + c0[i]]++;
+            coverage[r0[i] * (cols + 1) + c1[i]]--;
+            coverage[r1[i] * (cols + 1) + c0[i]]--;
+            coverage[r1[i] * (cols + 1) + c1[i]]++;
+        }
+        boolean[] covered = new boolean[cols * rows];
+        for (int r = 0; r < rows; r++) {
+            int run = 0;
+            for (int c = 0; c < cols; c++) {
+                run += coverage[r * (cols + 1) + c];
+                if (r > 0) {
+                    coverage[r * (cols + 1) + c] = run + coverage[(r - 1) * (cols + 1) + c];
+                } else {
+                    coverage[c] = run;
+                }
+                covered[r * cols + c] = coverage[r * (cols + 1) + c] > 0;
+            }
+        }
+
+        // Cada muro, tan grande como permita la zona cubierta
+        for (int i = 0; i < n; i++) {
+            if (c0[i] >= c1[i] || r0[i] >= r1[i]) continue;
+            boolean grew = true;
+            while (grew) {
+                grew = false;
+                if (c0[i] > 0 && full(covered, cols, c0[i] - 1, c0[i], r0[i], r1[i])) { c0[i]--; grew = true; }
+                if (c1[i] < cols && full(covered, cols, c1[i], c1[i] + 1, r0[i], r1[i])) { c1[i]++; grew = true; }
+                if (r0[i] > 0 && full(covered, cols, c0[i], c1[i], r0[i] - 1, r0[i])) { r0[i]--; grew = true; }
+                if (r1[i] < rows && full(covered, cols, c0[i], c1[i], r1[i], r1[i] + 1)) { r1[i]++; grew = true; }
+            }
+        }
+
+        // Cuántos muros cubren cada celda; se quitan (de menor a mayor área) los que no aportan
+        // ninguna celda propia. Los repetidos caen aquí también.
+        int[] cover = new int[cols * rows];
+        Integer[] order = new Integer[n];
+        boolean[] kept = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            if (c0[i] >= c1[i] || r0[i] >= r1[i]) continue;
+            kept[i] = true;
+            for (int r = r0[i]; r < r1[i]; r++) {
+                for (int c = c0[i]; c < c1[i]; c++) cover[r * cols + c]++;
+            }
+        }
+        float[] area = new float[n];
+        for (int i = 0; i < n; i++) {
+            area[i] = (xs[c1[i]] - xs[c0[i]]) * (ys[r1[i]] - ys[r0[i]]);
+        }
+        Arrays.sort(order, (a, b) -> a.equals(b) ? 0 : area[a] != area[b] ? Float.compare(area[a], area[b]) : a - b);
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            int i = order[k];
+            if (!kept[i]) continue;
+            boolean redundant = true;
+            for (int r = r0[i]; r < r1[i] && redundant; r++) {
+                for (int c = c0[i]; c < c1[i]; c++) {
+                    if (cover[r * cols + c] < 2) {
+                        redundant = false;
+                        break;
+                    }
+                }
+            }
+            if (redundant) {
+                kept[i] = false;
+                for (int r = r0[i]; r < r1[i]; r++) {
+                    for (int c = c0[i]; c < c1[i]; c++) cover[r * cols + c]--;
+                }
+            } else {
+                count++;
+            }
+        }
+        if (count >= n) return level;
+
+        // En el orden original, para que el resultado no dependa de cómo se ordenó
+        float[] left = new float[count], top = new float[count], right = new float[count], bottom = new float[count];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (!kept[i]) continue;
+            left[k] = xs[c0[i]];
+            top[k] = ys[r0[i]];
+            right[k] = xs[c1[i]];
+            bottom[k] = ys[r1[i]];
+            k++;
+        }
+        return new LevelData(level.backgroundColor, level.wallColor, level.ballColor, level.exitColor,
+                level.playerShape, level.exitLeft, level.exitTop, level.exitRight, level.exitBottom,
+                left, top, right, bottom, count);
+    }
+
+    // ¿Están cubiertas todas las celdas de [c0, c1) x [r0, r1)?
+    private static boolean full(boolean[] covered, int cols, int c0, int c1, int r0, int r1) {
+        for (int r = r0; r < r1; r++) {
+            for (int c = c0; c < c1; c++) {
+                if (!covered[r * cols + c]) return false;
+            }
+        }
+        return true;
+    }
+
+    // Bordes distintos, ordenados
+    private static float[] edges(float[] a, float[] b, int n) {
+        float[] all = new float[2 * n];
+        System.arraycopy(a, 0, all, 0, n);
+        System.arraycopy(b, 0, all, n, n);
+        Arrays.sort(all);
+        int k = 0;
+        for (int i = 0; i < all.length; i++) {
+            if (k == 0 || all[i] != all[k - 1]) all[k++] = all[i];
+        }
+        return Arrays.copyOf(all, k);
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.gravityrun;
+
+import java.util.Arrays;
+
+// Índice espacial de rejilla uniforme para los muros del nivel.
+// Los rectángulos se guardan como arrays de floats (estructura de arrays) y cada celda
+// guarda los índices de los muros que la tocan en formato compacto (CSR): los muros de la
+// celda c están en cellItems[cellStart[c] .. cellStart[c + 1]).
+// Se construye una vez al cargar el nivel; las consultas no crean objetos.
+final class WallGrid {
+
+    // Resultado de un barrido: instante de impacto (0..1 del movimiento) y normal de contacto
+    static final class Contact {
+        float toi;
+        float nx, ny;
+        int wall;
+
+        void clear() {
+            toi = Float.POSITIVE_INFINITY;
+            nx = 0;
+            ny = 0;
+            wall = -1;
+        }
+
+        boolean hit() {
+            return wall >= 0;
+        }
+    }
+
+    final int count;
+    final float[] left, top, right, bottom;
+
+    private final float originX, originY;
+    private final float maxRight, maxBottom; // Extremos de los muros
+    private final float cellSize;
+    private final float invCellSize;
+    private final int cols, rows;
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    // Número de pruebas rectángulo-rectángulo hechas en la última consulta (métrica)
+    private int lastQueryTests = 0;
+
+    // Candidatos de la última consulta de barrido, sin repetidos (marcados por consulta)
+    private final int[] candidates;
+    private final int[] stamps;
+    private int stamp = 0;
+
+    private WallGrid(float[] left, float[] top, float[] right, float[] bottom, int count,
+                     float originX, float originY, float maxRight, float maxBottom,
+                     float cellSize, int cols, int rows, int[] cellStart, int[] cellItems) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+        this.count = count;
+        this.originX = originX;
+        this.originY = originY;
+        this.maxRight = maxRight;
+        this.maxBottom = maxBottom;
+        this.cellSize = cellSize;
+        this.invCellSize = 1f / cellSize;
+        this.cols = cols;
+        this.rows = rows;
+        this.cellStart = cellStart;
+        this.cellItems = cellItems;
+        this.candidates = new int[count];
+        this.stamps = new int[count];
+    }
+
+    static WallGrid build(float[] left, float[] top, float[] right, float[] bottom, int count, float cellSize) {
+        if (cellSize <= 0) throw new IllegalArgumentException("cellSize debe ser positivo: " + cellSize);
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, left[i]);
+            minY = Math.min(minY, top[i]);
+            maxX = Math.max(maxX, right[i]);
+            maxY = Math.max(maxY, bottom[i]);
+        }
+        if (count == 0) {
+            minX = minY = 0;
+            maxX = maxY = cellSize;
+        }
+
+        int cols = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        int rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        float inv = 1f / cellSize;
+
+        // Primera pasada: cuántos muros caen en cada celda
+        int[] cellStart = new int[cols * rows + 1];
+        for (int i = 0; i < count; i++) {
+            int c0 = clamp((int) ((left[i] - minX) * inv), cols);
+            int c1 = clamp((int) ((right[i] - minX) * inv), cols);
+            int r0 = clamp((int) ((top[i] - minY) * inv), rows);
+            int r1 = clamp((int) ((bottom[i] - minY) * inv), rows);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellStart[r * cols + c + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // Segunda pasada: rellenar los índices
+        int[] cellItems = new int[cellStart[cols * rows]];
+        int[] cursor = new int[cols * rows];
+        System.arraycopy(cellStart, 0, cursor, 0, cols * rows);
+        for (int i = 0; i < count; i++) {
+            int c0 = clamp((int) ((left[i] - minX) * inv), cols);
+            int c1 = clamp((int) ((right[i] - minX) * inv), cols);
+            int r0 = clamp((int) ((top[i] - minY) * inv), rows);
+            int r1 = clamp((int) ((bottom[i] - minY) * inv), rows);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    cellItems[cursor[r * cols + c]++] = i;
+                }
+            }
+        }
+
+        return new WallGrid(left, top, right, bottom, count, minX, minY, maxX, maxY,
+                cellSize, cols, rows, cellStart, cellItems);
+    }
+
+    private static int clamp(int v, int n) {
+        return v < 0 ? 0 : (v >= n ? n - 1 : v);
+    }
+
+    // ¿Algún muro se solapa (estrictamente, como RectF.intersects) con el rectángulo dado?
+    boolean intersectsAny(float l, float t, float r, float b) {
+        int tests = 0;
+        int c0 = (int) Math.floor((l - originX) * invCellSize);
+        int c1 = (int) Math.floor((r - originX) * invCellSize);
+        int r0 = (int) Math.floor((t - originY) * invCellSize);
+        int r1 = (int) Math.floor((b - originY) * invCellSize);
+        if (c1 < 0 || r1 < 0 || c0 >= cols || r0 >= rows) {
+            lastQueryTests = 0;
+            return false;
+        }
+        if (c0 < 0) c0 = 0;
+        if (r0 < 0) r0 = 0;
+        if (c1 >= cols) c1 = cols - 1;
+        if (r1 >= rows) r1 = rows - 1;
+
+        for (int row = r0; row <= r1; row++) {
+            for (int col = c0; col <= c1; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int i = cellItems[k];
+                    tests++;
+                    if (l < right[i] && left[i] < r && t < bottom[i] && top[i] < b) {
+                        lastQueryTests = tests;
+                        return true;
+                    }
+                }
+            }
+        }
+        lastQueryTests = tests;
+        return false;
+    }
+
+    // Fase amplia: recoge una sola vez los muros de las celdas que toca el rectángulo
+    // (normalmente la envolvente de todo el movimiento del paso). Devuelve cuántos hay.
+    int gatherCandidates(float l, float t, float r, float b) {
+        int c0 = (int) Math.floor((l - originX) * invCellSize);
+        int c1 = (int) Math.floor((r - originX) * invCellSize);
+        int r0 = (int) Math.floor((t - originY) * invCellSize);
+        int r1 = (int) Math.floor((b - originY) * invCellSize);
+        if (c1 < 0 || r1 < 0 || c0 >= cols || r0 >= rows) return 0;
+        if (c0 < 0) c0 = 0;
+        if (r0 < 0) r0 = 0;
+        if (c1 >= cols) c1 = cols - 1;
+        if (r1 >= rows) r1 = rows - 1;
+
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        int n = 0;
+        for (int row = r0; row <= r1; row++) {
+            for (int col = c0; col <= c1; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int i = cellItems[k];
+                    if (stamps[i] != stamp) {
+                        stamps[i] = stamp;
+                        candidates[n++] = i;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    // Muros que se solapan (estrictamente) con el rectángulo, escritos en out sin repetidos;
+    // devuelve cuántos hay. No usa los buffers de candidatos ni las métricas, así que otro
+    // hilo (el de dibujo) puede consultarla mientras la simulación barre. Un muro de varias
+    // celdas solo se cuenta en la primera que comparte con la consulta, la de su esquina
+    // superior izquierda recortada al rango.
+    int collect(float l, float t, float r, float b, int[] out) {
+        int c0 = (int) Math.floor((l - originX) * invCellSize);
+        int c1 = (int) Math.floor((r - originX) * invCellSize);
+        int r0 = (int) Math.floor((t - originY) * invCellSize);
+        int r1 = (int) Math.floor((b - originY) * invCellSize);
+        if (c1 < 0 || r1 < 0 || c0 >= cols || r0 >= rows) return 0;
+        if (c0 < 0) c0 = 0;
+        if (r0 < 0) r0 = 0;
+        if (c1 >= cols) c1 = cols - 1;
+        if (r1 >= rows) r1 = rows - 1;
+
+        int n = 0;
+        for (int row = r0; row <= r1; row++) {
+            for (int col = c0; col <= c1; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int i = cellItems[k];
+                    if (!(l < right[i] && left[i] < r && t < bottom[i] && top[i] < b)) continue;
+                    int firstCol = Math.max(c0, clamp((int) Math.floor((left[i] - originX) * invCellSize), cols));
+                    int firstRow = Math.max(r0, clamp((int) Math.floor((top[i] - originY) * invCellSize), rows));
+                    if (col == firstCol && row == firstRow) {
+                        out[n++] = i;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+
+    // Índice del k-ésimo muro devuelto por la última llamada a gatherCandidates
+    int candidate(int k) {
+        return candidates[k];
+    }
+
+    // Fase estrecha: barre la caja de la bola (centro x,y, semilado half) con el
+    // desplazamiento (dx,dy) contra los primeros n candidatos y deja el primer impacto en out.
+    boolean sweepCandidates(int n, float x, float y, float half, float dx, float dy, Contact out) {
+        out.clear();
+        for (int k = 0; k < n; k++) {
+            int i = candidates[k];
+            float toi = sweepToi(x, y, half, dx, dy, left[i], top[i], right[i], bottom[i]);
+            if (toi < out.toi) {
+                out.toi = toi;
+                out.wall = i;
+            }
+        }
+        lastQueryTests = n;
+        if (!out.hit()) return false;
+        resolveNormal(x, y, half, dx, dy, out);
+        return true;
+    }
+
+    // Barrido completo (fase amplia y estrecha) que no toca los buffers compartidos de
+    // candidatos ni las métricas, así que varios hilos pueden llamarlo a la vez sobre la misma
+    // rejilla. Un muro que ocupa varias celdas se prueba una vez por celda; el resultado es el
+    // mismo y el orden de recorrido es fijo, así que también lo es el muro elegido en un empate.
+    boolean sweep(float x, float y, float half, float dx, float dy, Contact out) {
+        out.clear();
+        int c0 = (int) Math.floor((Math.min(x, x + dx) - half - originX) * invCellSize);
+        int c1 = (int) Math.floor((Math.max(x, x + dx) + half - originX) * invCellSize);
+        int r0 = (int) Math.floor((Math.min(y, y + dy) - half - originY) * invCellSize);
+        int r1 = (int) Math.floor((Math.max(y, y + dy) + half - originY) * invCellSize);
+        if (c1 < 0 || r1 < 0 || c0 >= cols || r0 >= rows) return false;
+        if (c0 < 0) c0 = 0;
+        if (r0 < 0) r0 = 0;
+        if (c1 >= cols) c1 = cols - 1;
+        if (r1 >= rows) r1 = rows - 1;
+
+        for (int row = r0; row <= r1; row++) {
+            for (int col = c0; col <= c1; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int i = cellItems[k];
+                    float toi = sweepToi(x, y, half, dx, dy, left[i], top[i], right[i], bottom[i]);
+                    if (toi < out.toi) {
+                        out.toi = toi;
+                        out.wall = i;
+                    }
+                }
+            }
+        }
+        if (!out.hit()) return false;
+        resolveNormal(x, y, half, dx, dy, out);
+        return true;
+    }
+
+    private void resolveNormal(float x, float y, float half, float dx, float dy, Contact out) {
+        // La normal la da el eje por el que se entró más tarde
+        int i = out.wall;
+        float txEnter = dx > 0 ? (left[i] - half - x) / dx : dx < 0 ? (right[i] + half - x) / dx : Float.NEGATIVE_INFINITY;
+        float tyEnter = dy > 0 ? (top[i] - half - y) / dy : dy < 0 ? (bottom[i] + half - y) / dy : Float.NEGATIVE_INFINITY;
+        if (txEnter >= tyEnter) {
+            out.nx = dx > 0 ? -1 : 1;
+        } else {
+            out.ny = dy > 0 ? -1 : 1;
+        }
+    }
+
+    // Instante de impacto [0, 1] de una caja que barre (dx,dy) contra el rectángulo dado, o
+    // infinito si no lo toca. Igual que RectF.intersects, tocar un borde no cuenta, y si la caja
+    // ya empieza solapada se ignora para que pueda salir.
+    static float sweepToi(float x, float y, float half, float dx, float dy,
+                          float l, float t, float r, float b) {
+        float el = l - half, er = r + half, et = t - half, eb = b + half;
+
+        float txEnter, txExit;
+        if (dx == 0) {
+            if (!(x > el && x < er)) return Float.POSITIVE_INFINITY;
+            txEnter = Float.NEGATIVE_INFINITY;
+            txExit = Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (el - x) / dx, t2 = (er - x) / dx;
+            txEnter = Math.min(t1, t2);
+            txExit = Math.max(t1, t2);
+        }
+
+        float tyEnter, tyExit;
+        if (dy == 0) {
+            if (!(y > et && y < eb)) return Float.POSITIVE_INFINITY;
+            tyEnter = Float.NEGATIVE_INFINITY;
+            tyExit = Float.POSITIVE_INFINITY;
+        } else {
+            float t1 = (et - y) / dy, t2 = (eb - y) / dy;
+            tyEnter = Math.min(t1, t2);
+            tyExit = Math.max(t1, t2);
+        }
+
+        float enter = Math.max(txEnter, tyEnter);
+        float exit = Math.min(txExit, tyExit);
+        if (enter >= exit || enter < 0 || enter > 1) return Float.POSITIVE_INFINITY;
+        return enter;
+    }
+
+    int lastQueryTests() {
+        return lastQueryTests;
+    }
+
+    // Borde derecho e inferior más lejanos de los muros (cellSize si no hay muros)
+    float maxRight() {
+        return maxRight;
+    }
+
+    float maxBottom() {
+        return maxBottom;
+    }
+
+    float cellSize() {
+        return cellSize;
+    }
+
+    int cellCount() {
+        return cols * rows;
+    }
+
+    // Memoria de los arrays: rectángulos, CSR y buffers de candidatos (métrica)
+    long memoryBytes() {
+        return 4L * (4 * left.length + cellStart.length + cellItems.length + candidates.length + stamps.length);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+// El camino por frame de GameView (vaciar sensores, avanzar la simulación, medir) no debe
+// crear objetos en estado estable: cada asignación es trabajo futuro para el GC y, en
+// dispositivos lentos, tirones visibles.
+public class AllocationTest {
+
+    private static final int FRAMES = 10_000;
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    @Test
+    public void runningFramesDoNotAllocate() throws IOException {
+        assertFramesDoNotAllocate(1);
+    }
+
+    @Test
+    public void nonScrollingShapeChangingLevelDoesNotAllocate() throws IOException {
+        assertFramesDoNotAllocate(3);
+    }
+
+    @Test
+    public void levelSelectFramesDoNotAllocate() throws IOException {
+        assertFramesDoNotAllocate(0);
+    }
+
+    private static void assertFramesDoNotAllocate(int level) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeAllocationCounting(threads);
+        long thread = Thread.currentThread().getId();
+
+        Frames frames = new Frames(level);
+        frames.run(3 * FRAMES); // Calentamiento: carga de clases y compilación JIT
+
+        // Lo que cuesta la propia medida, para restarlo
+        long before = threads.getThreadAllocatedBytes(thread);
+        long overhead = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Las transiciones del JIT pueden asignar unos pocos bytes sueltos; una regresión real
+        // asigna en cada frame, así que basta con que una de las tandas quede a cero.
+        long allocated = Long.MAX_VALUE;
+        for (int round = 0; round < 3 && allocated != 0; round++) {
+            before = threads.getThreadAllocatedBytes(thread);
+            frames.run(FRAMES);
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(thread) - before - overhead);
+        }
+
+        assertEquals(level == 0 ? GameState.LEVEL_SELECT : GameState.RUNNING, frames.simulation.gameState());
+        assertEquals("Bytes asignados en " + FRAMES + " frames", 0, allocated);
+    }
+
+    private static void assumeAllocationCounting(com.sun.management.ThreadMXBean threads) {
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    // Reproduce el trabajo por frame de GameView.onDraw sin Canvas
+    private static final class Frames {
+        final GameSimulation simulation;
+        final FrameStats stats = new FrameStats();
+        final SensorRingBuffer samples = new SensorRingBuffer(256);
+        final SensorRingBuffer.Sink sink;
+        long now = 1_000_000_000L;
+        long checksum = 0; // Consume los resultados para que no se eliminen
+        int frame;
+
+        Frames(int level) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            LevelPack.write(LevelPackTest.originalLevels(), out);
+            simulation = new GameSimulation(LevelPack.wrap(out.toByteArray()), stats);
+            simulation.setProximityMaxRange(5f);
+            simulation.loadLevel(level);
+            sink = simulation::handleSample;
+            stats.setRefreshRate(60f);
+        }
+
+        void run(int frames) {
+            for (int i = 0; i < frames; i++, frame++) {
+                now += FRAME_NANOS;
+                // Inclinación que oscila lo bastante despacio para recorrer el nivel sin salir
+                float phase = frame * 0.01f;
+                samples.offer(GameSimulation.SENSOR_ACCELEROMETER, now, (float) Math.sin(phase) * 0.5f,
+                        (float) Math.cos(phase * 0.7f) * 0.5f, 9.81f);
+                if (frame % 500 == 0) {
+                    samples.offer(GameSimulation.SENSOR_LIGHT, now, frame % 1000 == 0 ? 3f : 80f, 0, 0);
+                }
+                if (frame % 700 == 0) {
+                    samples.offer(GameSimulation.SENSOR_PROXIMITY, now, 5f, 0, 0);
+                }
+                samples.drain(sink, samples.capacity());
+
+                stats.beginFrame(now);
+                simulation.advance(now);
+                checksum += (long) simulation.renderX() + simulation.backgroundColor();
+                stats.endFrame(1_000_000L);
+                stats.recordSensorToPhoton(2_000_000L);
+                // El HUD de rendimiento lee percentiles cada frame
+                checksum += stats.frameInterval.percentile(0.99) + stats.droppedFrames();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class BallSwarmTest {
+
+    private static final int BALLS = 3000;
+    private static final float RADIUS = 4;
+
+    // Caja de 600x600 con bordes y una fila de pilares en medio
+    private static WallGrid walls() {
+        int n = 4 + 5;
+        float[] l = new float[n], t = new float[n], r = new float[n], b = new float[n];
+        set(l, t, r, b, 0, 0, 0, 600, 10);
+        set(l, t, r, b, 1, 0, 590, 600, 600);
+        set(l, t, r, b, 2, 0, 0, 10, 600);
+        set(l, t, r, b, 3, 590, 0, 600, 600);
+        for (int i = 0; i < 5; i++) {
+            set(l, t, r, b, 4 + i, 60 + i * 110, 290, 100 + i * 110, 310);
+        }
+        return WallGrid.build(l, t, r, b, n, 50);
+    }
+
+    private static void set(float[] l, float[] t, float[] r, float[] b, int i,
+                            float left, float top, float right, float bottom) {
+        l[i] = left;
+        t[i] = top;
+        r[i] = right;
+        b[i] = bottom;
+    }
+
+    private static BallSwarm run(ForkJoinPool pool, int steps) {
+        BallSwarm balls = new BallSwarm(BALLS);
+        assertEquals(BALLS, balls.spawn(walls(), 0, 0, 600, 600, BALLS, RADIUS, 7));
+        for (int s = 0; s < steps; s++) {
+            // La inclinación gira para que las bolas se amontonen contra distintas paredes
+            float angle = s * 0.01f;
+            balls.step((float) Math.cos(angle) * 1.5f, (float) Math.sin(angle) * 1.5f, pool);
+        }
+        return balls;
+    }
+
+    @Test
+    public void resultDoesNotDependOnTheNumberOfThreads() {
+        BallSwarm sequential = run(null, 400);
+        ForkJoinPool one = new ForkJoinPool(1), four = new ForkJoinPool(4);
+        try {
+            for (ForkJoinPool pool : new ForkJoinPool[]{one, four}) {
+                BallSwarm parallel = run(pool, 400);
+                assertEquals(sequential.count(), parallel.count());
+                for (int i = 0; i < sequential.count(); i++) {
+                    assertEquals(Float.floatToIntBits(sequential.x(i)), Float.floatToIntBits(parallel.x(i)));
+                    assertEquals(Float.floatToIntBits(sequential.y(i)), Float.floatToIntBits(parallel.y(i)));
+                }
+            }
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    public void ballsStayOutOfWallsAndApart() {
+        BallSwarm balls = run(null, 600);
+        WallGrid walls = walls();
+        float half = balls.radius();
+        int deepOverlaps = 0;
+        for (int i = 0; i < balls.count(); i++) {
+            float x = balls.x(i), y = balls.y(i);
+            assertFalse("bola " + i + " dentro de un muro",
+                    walls.intersectsAny(x - half + 0.01f, y - half + 0.01f, x + half - 0.01f, y + half - 0.01f));
+            for (int j = i + 1; j < balls.count(); j++) {
+                float dx = Math.abs(x - balls.x(j)), dy = Math.abs(y - balls.y(j));
+                // La separación es blanda: se permite solape pero no que dos bolas se fundan
+                if (dx < half && dy < half) deepOverlaps++;
+            }
+        }
+        assertTrue("solapes profundos: " + deepOverlaps, deepOverlaps < balls.count() / 100);
+    }
+
+    @Test
+    public void removesBallsThatReachTheExit() {
+        BallSwarm balls = new BallSwarm(BALLS);
+        balls.spawn(walls(), 0, 0, 600, 600, BALLS, RADIUS, 7);
+        int removed = balls.removeTouching(10, 10, 100, 100);
+        assertTrue(removed > 0);
+        assertEquals(BALLS - removed, balls.count());
+        for (int i = 0; i < balls.count(); i++) {
+            assertFalse(balls.x(i) - RADIUS < 100 && balls.y(i) - RADIUS < 100);
+        }
+    }
+}
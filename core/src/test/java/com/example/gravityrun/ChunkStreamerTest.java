@@ -0,0 +1,266 @@
+package com.example.gravityrun;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class ChunkStreamerTest {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void chunksCoverTheSameWallsAsTheLevel() throws IOException {
+        LevelData maze = MazeGenerator.generate(30, 30, 11);
+        LevelChunks chunks = writeAndOpen(maze);
+        assertEquals(maze.exitLeft, chunks.header().exitLeft, 0f);
+        assertEquals(maze.wallColor, chunks.header().wallColor);
+
+        // Todas las piezas juntas en una rejilla, para comparar punto a punto con el original
+        int total = 0;
+        for (int c = 0; c < chunks.chunkCount(); c++) total += chunks.wallCount(c);
+        float[] l = new float[total], t = new float[total], r = new float[total], b = new float[total];
+        int n = 0;
+        for (int c = 0; c < chunks.chunkCount(); c++) {
+            LevelChunks.Chunk chunk = chunks.read(c);
+            float originX = (c % chunks.cols()) * CHUNK_SIZE, originY = (c / chunks.cols()) * CHUNK_SIZE;
+            for (int i = 0; i < chunk.count; i++, n++) {
+                l[n] = chunk.left[i];
+                t[n] = chunk.top[i];
+                r[n] = chunk.right[i];
+                b[n] = chunk.bottom[i];
+                assertTrue(l[n] >= originX && r[n] <= originX + CHUNK_SIZE);
+                assertTrue(t[n] >= originY && b[n] <= originY + CHUNK_SIZE);
+            }
+        }
+        WallGrid pieces = WallGrid.build(l, t, r, b, total, 100);
+        WallGrid original = WallGrid.build(maze.left, maze.top, maze.right, maze.bottom, maze.wallCount, 100);
+        for (float y = 2.5f; y < chunks.height(); y += 5) {
+            for (float x = 2.5f; x < chunks.width(); x += 5) {
+                assertEquals(original.intersectsAny(x - 1, y - 1, x + 1, y + 1),
+                        pieces.intersectsAny(x - 1, y - 1, x + 1, y + 1));
+            }
+        }
+    }
+
+    @Test
+    public void walkingThroughTheMazeStaysWithinBudget() throws IOException {
+        LevelChunks chunks = writeAndOpen(MazeGenerator.generate(30, 30, 11));
+        long budget = 10 * 1024; // Unos dos tercios del nivel
+        ChunkStreamer streamer = new ChunkStreamer(chunks, Runnable::run, budget, 2);
+
+        // En zigzag por todo el nivel, fila a fila
+        for (float y = 60; y < chunks.height(); y += 400) {
+            for (float x = 60; x < chunks.width(); x += 10) {
+                float px = ((int) (y / 400) % 2 == 0) ? x : chunks.width() - x;
+                streamer.update(px, y);
+                assertTrue(streamer.ready(px - 30, y - 30, px + 30, y + 30));
+                assertTrue(streamer.residentBytes() <= budget);
+            }
+        }
+        assertTrue(streamer.evictions() > 0);
+        assertTrue(streamer.residentChunks() < chunks.chunkCount());
+        assertEquals(0, streamer.loadErrors());
+        assertEquals(streamer.loads(), streamer.loadLatency().count());
+        // Con la precarga, casi todo lo de la ventana activa ya está al llegar
+        assertTrue(streamer.hitRate() > 0.8);
+    }
+
+    @Test
+    public void ballWaitsInsteadOfBlockingWhileChunksLoad() throws IOException {
+        LevelChunks chunks = writeAndOpen(MazeGenerator.generate(30, 30, 11));
+        Executor never = task -> { };
+        GameSimulation simulation = newSimulation(chunks, never);
+        simulation.loadLevel(GameSimulation.STREAMED_LEVEL);
+        simulation.handleSample(GameSimulation.SENSOR_ACCELEROMETER, 1, -5f, -5f, 9.81f);
+        simulation.runSteps(120);
+
+        assertEquals(GameSimulation.ORIGINAL_START_X, simulation.ballX(), 0f);
+        assertEquals(GameSimulation.ORIGINAL_START_Y, simulation.ballY(), 0f);
+        assertTrue(simulation.chunkStreamer().stalls() > 0);
+        assertEquals(0, simulation.wallGrid().count);
+    }
+
+    @Test
+    public void streamedLevelCollidesLikeTheWholeMaze() throws IOException {
+        LevelData maze = MazeGenerator.generate(30, 30, 11);
+        GameSimulation streamed = newSimulation(writeAndOpen(maze), Runnable::run);
+        streamed.loadLevel(GameSimulation.STREAMED_LEVEL);
+        assertEquals(chunksWidth(maze), streamed.levelRight(), 0f);
+
+        streamed.handleSample(GameSimulation.SENSOR_ACCELEROMETER, 1, -5f, -5f, 9.81f);
+        streamed.runSteps(600);
+        // Se mueve y no atraviesa muros
+        assertTrue(streamed.ballX() > GameSimulation.ORIGINAL_START_X || streamed.ballY() > GameSimulation.ORIGINAL_START_Y);
+        WallGrid whole = WallGrid.build(maze.left, maze.top, maze.right, maze.bottom, maze.wallCount, 100);
+        float x = streamed.ballX(), y = streamed.ballY(), half = streamed.radius() - 0.01f;
+        assertFalse(whole.intersectsAny(x - half, y - half, x + half, y + half));
+        assertTrue(streamed.chunkStreamer().stalls() == 0);
+    }
+
+    @Test
+    public void failedReadsAreRetriedUntilTheChunkArrives() throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            LevelChunks.write(MazeGenerator.generate(30, 30, 11), CHUNK_SIZE, out);
+        }
+        FlakyChannel channel = new FlakyChannel(new RandomAccessFile(file, "r").getChannel());
+        LevelChunks chunks = LevelChunks.open(channel);
+        ChunkStreamer streamer = new ChunkStreamer(chunks, Runnable::run, Long.MAX_VALUE, 2);
+
+        // Las primeras lecturas fallan; la bola no se mueve de trozo
+        channel.failures = 30;
+        boolean ready = false;
+        for (int i = 0; i < 4 * ChunkStreamer.RETRY_MAX_UPDATES && !ready; i++) {
+            streamer.update(60, 60);
+            ready = streamer.ready(30, 30, 90, 90);
+        }
+        assertTrue(ready);
+        assertEquals(0, channel.failures);
+        assertEquals(30, streamer.loadErrors());
+        assertTrue(streamer.retries() > 0);
+        // Con la espera, muchos menos intentos que llamadas a update
+        assertTrue(streamer.retries() < 4 * ChunkStreamer.RETRY_MAX_UPDATES);
+    }
+
+    private static float chunksWidth(LevelData maze) {
+        float width = 0;
+        for (int i = 0; i < maze.wallCount; i++) width = Math.max(width, maze.right[i]);
+        return Math.max(GameSimulation.DESIGN_WIDTH, width);
+    }
+
+    private LevelChunks writeAndOpen(LevelData level) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            LevelChunks.write(level, CHUNK_SIZE, out);
+        }
+        return LevelChunks.open(new RandomAccessFile(file, "r").getChannel());
+    }
+
+    private static GameSimulation newSimulation(LevelChunks chunks, Executor executor) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(LevelPackTest.originalLevels(), out);
+        GameSimulation simulation = new GameSimulation(LevelPack.wrap(out.toByteArray()), new FrameStats());
+        simulation.setProximityMaxRange(5f);
+        simulation.setStreamedLevel(chunks, executor);
+        return simulation;
+    }
+
+    // Delega en un canal de verdad, pero las lecturas posicionadas fallan mientras failures > 0
+    private static final class FlakyChannel extends FileChannel {
+        private final FileChannel delegate;
+        int failures = 0;
+
+        FlakyChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            if (failures > 0) {
+                failures--;
+                throw new IOException("lectura fallida");
+            }
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+}
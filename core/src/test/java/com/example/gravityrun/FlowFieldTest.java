@@ -0,0 +1,92 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class FlowFieldTest {
+
+    // Sala de 400x200 con un tabique vertical en x=200 abierto solo por la mitad de abajo
+    private static FlowField room() {
+        float[] l = {0, 0, 0, 390, 195};
+        float[] t = {0, 190, 0, 0, 0};
+        float[] r = {400, 400, 10, 400, 205};
+        float[] b = {10, 200, 200, 200, 100};
+        WallGrid walls = WallGrid.build(l, t, r, b, l.length, 50);
+        return FlowField.build(walls, 0, 0, 400, 200, 20, 12 + 10);
+    }
+
+    @Test
+    public void everyReachableCellStepsOneCellCloser() {
+        FlowField field = room();
+        int target = field.cellOf(50, 50);
+        field.rebuild(target);
+
+        assertEquals(0, field.distance(target));
+        assertEquals(target, field.next(target));
+        int reachable = 0;
+        for (int c = 0; c < field.cellCount(); c++) {
+            if (c == target) continue;
+            if (field.isBlocked(c)) {
+                assertEquals(FlowField.UNREACHABLE, field.next(c));
+                continue;
+            }
+            int next = field.next(c);
+            assertNotEquals(FlowField.UNREACHABLE, next);
+            assertEquals(field.distance(c) - 1, field.distance(next));
+            reachable++;
+        }
+        assertTrue(reachable > 50);
+
+        // Al otro lado del tabique hay que rodearlo por abajo
+        int across = field.cellOf(250, 50);
+        assertTrue(field.distance(across) > 10);
+    }
+
+    @Test
+    public void slicedUpdateMatchesFullRebuild() {
+        FlowField full = room();
+        FlowField sliced = room();
+        int first = full.cellOf(50, 50), second = full.cellOf(330, 130);
+        full.rebuild(first);
+        sliced.rebuild(first);
+
+        // El mismo objetivo no rehace nada
+        sliced.update(first, 1);
+        assertFalse(sliced.isBuilding());
+
+        full.rebuild(second);
+        int updates = 0;
+        do {
+            sliced.update(second, 7);
+            updates++;
+            // Mientras se construye, el campo en uso sigue apuntando al objetivo anterior
+            if (sliced.isBuilding()) assertEquals(first, sliced.target());
+        } while (sliced.isBuilding());
+        assertTrue(updates > 1);
+        assertEquals(second, sliced.target());
+        for (int c = 0; c < full.cellCount(); c++) {
+            assertEquals(full.distance(c), sliced.distance(c));
+            assertEquals(full.next(c), sliced.next(c));
+        }
+    }
+
+    @Test
+    public void chasersCatchAStillPlayer() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(LevelPackTest.originalLevels(), out);
+        GameSimulation simulation = new GameSimulation(LevelPack.wrap(out.toByteArray()), new FrameStats());
+        simulation.setProximityMaxRange(5f);
+        simulation.loadLevel(GameSimulation.CHASE_LEVEL, 3);
+
+        assertEquals(GameSimulation.CHASER_COUNT, simulation.chasers().count());
+        assertEquals(GameState.RUNNING, simulation.gameState());
+        for (int i = 0; i < 20_000 && simulation.gameState() == GameState.RUNNING; i++) {
+            simulation.runSteps(1);
+        }
+        assertEquals(GameState.LOST, simulation.gameState());
+    }
+}
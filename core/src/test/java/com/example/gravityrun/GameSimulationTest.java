@@ -0,0 +1,114 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class GameSimulationTest {
+
+    @Test
+    public void rollingThroughOpenSpaceDoesNotWin() throws IOException {
+        GameSimulation simulation = newSimulation(600);
+        simulation.loadLevel(1);
+        tiltRight(simulation);
+        simulation.runSteps(20);
+
+        assertEquals(GameState.RUNNING, simulation.gameState());
+        assertTrue(simulation.ballX() > GameSimulation.ORIGINAL_START_X);
+    }
+
+    @Test
+    public void reachingTheExitWins() throws IOException {
+        GameSimulation simulation = newSimulation(200);
+        simulation.loadLevel(1);
+        tiltRight(simulation);
+        simulation.runSteps(600);
+
+        assertEquals(GameState.WON, simulation.gameState());
+        assertTrue(simulation.ballX() + GameSimulation.ORIGINAL_RADIUS >= 200);
+    }
+
+    @Test
+    public void winningRecordsTimeAndSplitsInOrder() throws IOException {
+        GameSimulation simulation = newSimulation(200);
+        simulation.loadLevel(1);
+        tiltRight(simulation);
+        simulation.runSteps(600);
+
+        assertEquals(GameState.WON, simulation.gameState());
+        long previous = 0;
+        for (int i = 0; i < RunTimer.SPLITS; i++) {
+            long split = simulation.splitNanos(i);
+            assertTrue(split > previous);
+            previous = split;
+        }
+        assertTrue(simulation.elapsedNanos() >= previous);
+    }
+
+    @Test
+    public void clampedAndIdleStepsCountButPausesDoNot() throws IOException {
+        GameSimulation simulation = newSimulation(900);
+        simulation.loadLevel(1);
+        long step = 1_000_000_000L / FixedStepLoop.DEFAULT_HZ;
+        long now = 1;
+        simulation.advance(now);
+
+        // Un frame de un segundo: el tope simula 8 pasos, pero el tiempo es el segundo entero
+        now += FixedStepLoop.DEFAULT_HZ * step;
+        assertEquals(8, simulation.advance(now));
+        assertEquals(FixedStepLoop.DEFAULT_HZ, simulation.levelSteps());
+
+        // Medio segundo en reposo (sin frames) también cuenta, sin pasos pendientes al volver
+        now += FixedStepLoop.DEFAULT_HZ / 2 * step;
+        simulation.resumeClock(now);
+        assertEquals(0, simulation.advance(now));
+        assertEquals(FixedStepLoop.DEFAULT_HZ * 3 / 2, simulation.levelSteps());
+
+        // Una pausa con el sensor de proximidad no cuenta, ni los pasos que el tope descarta en ella
+        simulation.handleSample(GameSimulation.SENSOR_PROXIMITY, 1, 0f, 0, 0);
+        now += FixedStepLoop.DEFAULT_HZ * step;
+        simulation.advance(now);
+        simulation.handleSample(GameSimulation.SENSOR_PROXIMITY, 2, 5f, 0, 0);
+        now += 10 * step;
+        simulation.advance(now);
+        assertEquals(FixedStepLoop.DEFAULT_HZ * 3 / 2, simulation.levelSteps());
+        assertEquals(FixedStepLoop.DEFAULT_HZ * 3 / 2 * step, simulation.elapsedNanos());
+    }
+
+    @Test
+    public void reloadingALevelReusesItsGeometry() throws IOException {
+        GameSimulation simulation = newSimulation(200);
+        simulation.loadLevel(1);
+        WallGrid grid = simulation.wallGrid();
+        LevelData data = simulation.levelData();
+
+        simulation.loadLevel(0);
+        simulation.loadLevel(1);
+        assertSame(grid, simulation.wallGrid());
+        assertSame(data, simulation.levelData());
+        // Persecución y multibola usan la disposición del primer nivel
+        simulation.loadLevel(GameSimulation.CHASE_LEVEL);
+        assertSame(grid, simulation.wallGrid());
+        assertEquals(GameSimulation.ORIGINAL_START_X, simulation.ballX(), 0f);
+    }
+
+    private static void tiltRight(GameSimulation simulation) {
+        simulation.handleSample(GameSimulation.SENSOR_ACCELEROMETER, 1, -5f, 0f, 9.81f);
+    }
+
+    // Una sala vacía con la meta a la derecha de la posición inicial
+    private static GameSimulation newSimulation(float exitLeft) throws IOException {
+        LevelData room = new LevelData(0xFF000000, 0xFF444444, 0xFFFFFFFF, 0xFF00FF00, PlayerShape.CIRCLE,
+                exitLeft, 20, exitLeft + 100, 100,
+                new float[]{0}, new float[]{0}, new float[]{1010}, new float[]{10}, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(Collections.singletonList(room), out);
+        GameSimulation simulation = new GameSimulation(LevelPack.wrap(out.toByteArray()), new FrameStats());
+        simulation.setProximityMaxRange(5f);
+        return simulation;
+    }
+}
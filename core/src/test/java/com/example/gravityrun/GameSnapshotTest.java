@@ -0,0 +1,77 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GameSnapshotTest {
+
+    @Test
+    public void restoresAGameInProgress() throws IOException {
+        GameSimulation original = newSimulation();
+        original.loadLevel(3);
+        original.handleSample(GameSimulation.SENSOR_ACCELEROMETER, 1, -5f, -5f, 9.81f);
+        original.runSteps(300);
+        assertEquals(GameState.RUNNING, original.gameState());
+
+        GameSimulation restored = newSimulation();
+        assertTrue(GameSnapshot.restore(restored, GameSnapshot.capture(original)));
+        assertEquals(3, restored.currentLevel());
+        assertEquals(GameState.RUNNING, restored.gameState());
+        assertEquals(original.playerShape(), restored.playerShape());
+        assertEquals(original.frameCount(), restored.frameCount());
+        assertEquals(original.elapsedNanos(), restored.elapsedNanos());
+        assertEquals(original.ballX(), restored.ballX(), 0f);
+        assertEquals(original.ballY(), restored.ballY(), 0f);
+        assertEquals(original.ballX(), restored.renderX(), 0f);
+    }
+
+    @Test
+    public void generatedMazeComesBackIdentical() throws IOException {
+        GameSimulation original = newSimulation();
+        original.loadLevel(GameSimulation.ENDLESS_LEVEL);
+        original.loadLevel(GameSimulation.ENDLESS_LEVEL);
+
+        GameSimulation restored = newSimulation();
+        assertTrue(GameSnapshot.restore(restored, GameSnapshot.capture(original)));
+        LevelData a = original.levelData(), b = restored.levelData();
+        assertEquals(a.wallCount, b.wallCount);
+        assertArrayEquals(a.left, b.left, 0f);
+        assertArrayEquals(a.bottom, b.bottom, 0f);
+        // El siguiente laberinto tampoco repite semilla
+        assertEquals(original.nextSeed(), restored.nextSeed());
+    }
+
+    @Test
+    public void ignoresDamagedSnapshots() throws IOException {
+        GameSimulation original = newSimulation();
+        original.loadLevel(2);
+        byte[] snapshot = GameSnapshot.capture(original);
+
+        GameSimulation restored = newSimulation();
+        assertFalse(GameSnapshot.restore(restored, null));
+        assertFalse(GameSnapshot.restore(restored, Arrays.copyOf(snapshot, snapshot.length - 1)));
+        byte[] otherVersion = snapshot.clone();
+        otherVersion[4] = GameSnapshot.VERSION + 1;
+        assertFalse(GameSnapshot.restore(restored, otherVersion));
+        byte[] badLevel = snapshot.clone();
+        badLevel[5] = 99;
+        assertFalse(GameSnapshot.restore(restored, badLevel));
+        assertEquals(GameState.LEVEL_SELECT, restored.gameState());
+
+        assertTrue(GameSnapshot.restore(restored, snapshot));
+        assertEquals(2, restored.currentLevel());
+    }
+
+    private static GameSimulation newSimulation() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(LevelPackTest.originalLevels(), out);
+        GameSimulation simulation = new GameSimulation(LevelPack.wrap(out.toByteArray()), new FrameStats());
+        simulation.setProximityMaxRange(5f);
+        return simulation;
+    }
+}
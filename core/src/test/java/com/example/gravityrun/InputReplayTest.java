@@ -0,0 +1,83 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class InputReplayTest {
+
+    @Test
+    public void replayReproducesTheRecordedSessionBitForBit() throws IOException {
+        LevelPack pack = originalPack();
+        List<String> recorded = new ArrayList<>();
+        GameSimulation live = new GameSimulation(pack, new FrameStats());
+        live.setListener((from, to) -> recorded.add(from + "->" + to));
+        InputRecorder recorder = new InputRecorder();
+        live.setRecorder(recorder);
+        live.setProximityMaxRange(5f);
+
+        // Sesión sintética pero irregular: inclinación variable, una pausa por proximidad,
+        // cambios de luz y tandas de pasos de distinto tamaño
+        long ts = 1_000_000_000L;
+        long rng = 42;
+        for (int level : new int[]{1, 3, GameSimulation.ENDLESS_LEVEL, GameSimulation.CHASE_LEVEL,
+                GameSimulation.MULTI_BALL_LEVEL, 2}) {
+            live.loadLevel(0);
+            live.loadLevel(level);
+            for (int frame = 0; frame < 900; frame++) {
+                rng = rng * 6364136223846793005L + 1442695040888963407L;
+                ts += 16_000_000L + (rng >>> 60) * 100_000L;
+                float x = (float) Math.sin(frame * 0.013 + level) * 6f + ((rng >>> 40) & 0xFF) / 255f;
+                float y = (float) Math.cos(frame * 0.007) * 7f;
+                live.handleSample(GameSimulation.SENSOR_ACCELEROMETER, ts, x, y, 9.81f);
+                if (frame == 300) live.handleSample(GameSimulation.SENSOR_PROXIMITY, ts, 0f, 0, 0);
+                if (frame == 340) live.handleSample(GameSimulation.SENSOR_PROXIMITY, ts, 5f, 0, 0);
+                if (frame % 200 == 0) live.handleSample(GameSimulation.SENSOR_LIGHT, ts, frame % 400 == 0 ? 3f : 80f, 0, 0);
+                live.runSteps(1 + (int) ((rng >>> 62) & 1));
+            }
+        }
+
+        List<String> replayed = new ArrayList<>();
+        GameSimulation replay = InputReplayer.replay(recorder.toByteArray(), pack,
+                (from, to) -> replayed.add(from + "->" + to));
+
+        assertEquals(recorded, replayed);
+        assertEquals(live.gameState(), replay.gameState());
+        assertEquals(live.currentLevel(), replay.currentLevel());
+        assertEquals(live.playerShape(), replay.playerShape());
+        assertEquals(live.frameCount(), replay.frameCount());
+        assertEquals(live.backgroundColor(), replay.backgroundColor());
+        assertEquals(live.ballsHome(), replay.ballsHome());
+        assertEquals(Float.floatToIntBits(live.ballX()), Float.floatToIntBits(replay.ballX()));
+        assertEquals(Float.floatToIntBits(live.ballY()), Float.floatToIntBits(replay.ballY()));
+    }
+
+    @Test
+    public void encodesSamplesCompactly() {
+        InputRecorder recorder = new InputRecorder();
+        int header = recorder.size();
+        long ts = 0;
+        for (int i = 0; i < 1000; i++) {
+            ts += 20_000_000L;
+            recorder.recordSample(GameSimulation.SENSOR_ACCELEROMETER, ts, 0.5f, -1.25f, 9.81f);
+        }
+        // Marca de tiempo delta (4 bytes) + valores repetidos (1 byte cada uno) + etiqueta
+        assertTrue(recorder.size() - header <= 1000 * 8 + 16); // La primera muestra va completa
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsForeignData() throws IOException {
+        InputReplayer.replay(new byte[]{1, 2, 3, 4, 5}, originalPack(), null);
+    }
+
+    private static LevelPack originalPack() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(LevelPackTest.originalLevels(), out);
+        return LevelPack.wrap(out.toByteArray());
+    }
+}
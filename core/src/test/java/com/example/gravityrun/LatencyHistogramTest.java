@@ -0,0 +1,37 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1000);
+        }
+
+        assertEquals(100_000, histogram.count());
+        assertEquals(100_000_000L, histogram.max());
+        assertEquals(50_000_000L, histogram.percentile(0.50), 50_000_000L * 0.07);
+        assertEquals(95_000_000L, histogram.percentile(0.95), 95_000_000L * 0.07);
+        assertEquals(99_000_000L, histogram.percentile(0.99), 99_000_000L * 0.07);
+        assertEquals(100_000_000L, histogram.percentile(1.0));
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(7);
+        histogram.record(-5);
+
+        assertEquals(0, histogram.percentile(0.1));
+        assertEquals(7, histogram.percentile(1.0));
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(0.5));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class LevelAnalyzerTest {
+
+    private static final float R = GameSimulation.ORIGINAL_RADIUS;
+
+    // Sala del tamaño de diseño con bordes y, si gap > 0, un tabique horizontal en y=500 con
+    // un hueco de ancho gap; la meta queda abajo
+    private static LevelData room(float gap) {
+        float w = GameSimulation.DESIGN_WIDTH, h = GameSimulation.DESIGN_HEIGHT;
+        float[] l = {0, w - 10, 0, 0, 0, 300 + gap};
+        float[] t = {0, 0, 0, h - 10, 500, 500};
+        float[] r = {10, w, w, w, 300, w};
+        float[] b = {h, h, 10, h, 520, 520};
+        int n = gap > 0 ? 6 : 4;
+        return new LevelData(0, 0, 0, 0, PlayerShape.CIRCLE, 450, 1500, 550, 1600, l, t, r, b, n);
+    }
+
+    @Test
+    public void shippedLevelsAreSolvable() {
+        List<LevelData> levels = LevelPackTest.originalLevels();
+        for (int i = 0; i < levels.size(); i++) {
+            LevelAnalyzer.Report report = LevelAnalyzer.analyze("nivel " + (i + 1), levels.get(i));
+            assertTrue(report.toString(), report.solvable);
+            assertTrue(report.pathLength > 0);
+            // Los pasillos hechos a mano miden 80 unidades: 10 de holgura a cada lado
+            assertEquals(report.toString(), 80f, report.narrowestCorridor, LevelAnalyzer.DEFAULT_RESOLUTION);
+        }
+    }
+
+    @Test
+    public void measuresAStraightRunInAnOpenRoom() {
+        LevelAnalyzer.Report report = LevelAnalyzer.analyze("sala", room(0));
+        assertTrue(report.solvable);
+        // De (60, 60) hasta tocar la meta: la caja llega a (450 - 30, 1500 - 30) en diagonal y recto
+        float dx = 450 - R - GameSimulation.ORIGINAL_START_X, dy = 1500 - R - GameSimulation.ORIGINAL_START_Y;
+        float octile = Math.max(dx, dy) + (float) (Math.sqrt(2) - 1) * Math.min(dx, dy);
+        assertEquals(octile, report.pathLength, 2 * LevelAnalyzer.DEFAULT_RESOLUTION);
+    }
+
+    @Test
+    public void gapNarrowerThanTheBallBlocksTheExit() {
+        assertFalse(LevelAnalyzer.analyze("estrecho", room(2 * R - 5)).solvable);
+
+        LevelAnalyzer.Report wide = LevelAnalyzer.analyze("justo", room(2 * R + 10));
+        assertTrue(wide.solvable);
+        assertEquals(2 * R + 10, wide.narrowestCorridor, LevelAnalyzer.DEFAULT_RESOLUTION);
+        assertEquals(5, wide.margin, LevelAnalyzer.DEFAULT_RESOLUTION / 2);
+    }
+
+    @Test
+    public void parallelBatchMatchesSequentialAnalysis() {
+        int count = 12;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<LevelAnalyzer.Report> reports;
+        try {
+            reports = LevelAnalyzer.analyzeAll(count, i -> "laberinto " + i,
+                    i -> MazeGenerator.generateForDesign(GameSimulation.DESIGN_WIDTH, GameSimulation.DESIGN_HEIGHT, i),
+                    R, LevelAnalyzer.DEFAULT_RESOLUTION, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(count, reports.size());
+        for (int i = 0; i < count; i++) {
+            LevelAnalyzer.Report parallel = reports.get(i);
+            LevelAnalyzer.Report sequential = LevelAnalyzer.analyze("laberinto " + i,
+                    MazeGenerator.generateForDesign(GameSimulation.DESIGN_WIDTH, GameSimulation.DESIGN_HEIGHT, i));
+            assertEquals(sequential.name, parallel.name);
+            assertTrue(parallel.solvable);
+            assertEquals(sequential.pathLength, parallel.pathLength, 0f);
+            assertEquals(sequential.narrowestCorridor, parallel.narrowestCorridor, 0f);
+        }
+    }
+}
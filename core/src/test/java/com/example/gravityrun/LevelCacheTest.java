@@ -0,0 +1,57 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class LevelCacheTest {
+
+    @Test
+    public void secondLoadIsAHitAndSharesTheGeometry() {
+        LevelCache cache = new LevelCache(4, 100, (level, seed) -> MazeGenerator.generate(5, 5, seed));
+        LevelCache.Entry first = cache.get(GameSimulation.ENDLESS_LEVEL, 3);
+        LevelCache.Entry second = cache.get(GameSimulation.ENDLESS_LEVEL, 3);
+        assertSame(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        assertNotSame(first, cache.get(GameSimulation.ENDLESS_LEVEL, 4));
+        assertEquals(2, cache.misses());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedLevel() {
+        LevelCache cache = new LevelCache(2, 100, (level, seed) -> MazeGenerator.generate(5, 5, seed));
+        cache.get(1, 0);
+        cache.get(2, 0);
+        cache.get(1, 0); // El 2 queda como el menos usado
+        cache.get(3, 0);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+        assertTrue(cache.contains(1, 0));
+        assertFalse(cache.contains(2, 0));
+        assertTrue(cache.contains(3, 0));
+    }
+
+    @Test
+    public void precomputedLevelsLoadWithoutMisses() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(LevelPackTest.originalLevels(), out);
+        GameSimulation simulation = new GameSimulation(LevelPack.wrap(out.toByteArray()), new FrameStats());
+        simulation.precomputeLevels(Runnable::run);
+
+        for (int level = 1; level <= GameSimulation.MULTI_BALL_LEVEL; level++) {
+            simulation.loadLevel(level);
+            simulation.loadLevel(0); // Vuelta al menú, como tras ganar o perder
+        }
+        // Persecución y multibola cogen semillas del laberinto, pero su geometría es la del
+        // primer nivel; el laberinto siguiente también está listo
+        simulation.loadLevel(GameSimulation.ENDLESS_LEVEL);
+        assertEquals(0, simulation.levelCache().misses());
+        assertTrue(simulation.levelCache().precomputed() > 0);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LevelPackTest {
+
+    private static final float WALL_THICKNESS = 20;
+    private static final float BORDER_WIDTH = 10;
+    private static final float MAX_X_DESIGN = 1000 + BORDER_WIDTH;
+    private static final float MAX_Y_DESIGN = 1700 + BORDER_WIDTH;
+
+    private static final int DKGRAY = 0xFF444444;
+
+    @Test
+    public void roundTripsOriginalLevels() throws IOException {
+        List<LevelData> levels = originalLevels();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(levels, out);
+        LevelPack pack = LevelPack.wrap(out.toByteArray());
+
+        assertEquals(levels.size(), pack.levelCount());
+        for (int i = 0; i < levels.size(); i++) {
+            assertLevelEquals(levels.get(i), pack.level(i));
+        }
+    }
+
+    @Test
+    public void shippedAssetMatchesOriginalLevels() throws IOException {
+        // El asset pertenece al módulo app; se busca desde core/, app/ o la raíz
+        File asset = new File("../app/src/main/assets/levels.bin");
+        if (!asset.exists()) asset = new File("app/src/main/assets/levels.bin");
+
+        LevelPack pack;
+        try (InputStream in = new FileInputStream(asset)) {
+            pack = LevelPack.read(in);
+        }
+
+        List<LevelData> levels = originalLevels();
+        assertEquals(levels.size(), pack.levelCount());
+        // Acceso directo al último nivel sin decodificar los anteriores
+        assertLevelEquals(levels.get(2), pack.level(2));
+        assertLevelEquals(levels.get(0), pack.level(0));
+        assertLevelEquals(levels.get(1), pack.level(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsFractionalCoordinates() throws IOException {
+        LevelData level = new LevelData(0, 0, 0, 0, PlayerShape.CIRCLE, 0, 0, 1, 1,
+                new float[]{0.5f}, new float[]{0}, new float[]{1}, new float[]{1}, 1);
+        LevelPack.write(Arrays.asList(level), new ByteArrayOutputStream());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownPlayerShape() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(originalLevels(), out);
+        byte[] bytes = out.toByteArray();
+        // Cabecera de 8 bytes, desplazamiento del nivel 1 y cuatro colores antes de la forma
+        int pos = ByteBuffer.wrap(bytes).getInt(8) + 16;
+        bytes[pos] = (byte) PlayerShape.values().length;
+        LevelPack.wrap(bytes).level(0);
+    }
+
+    private static void assertLevelEquals(LevelData expected, LevelData actual) {
+        assertEquals(expected.backgroundColor, actual.backgroundColor);
+        assertEquals(expected.wallColor, actual.wallColor);
+        assertEquals(expected.ballColor, actual.ballColor);
+        assertEquals(expected.exitColor, actual.exitColor);
+        assertEquals(expected.playerShape, actual.playerShape);
+        assertEquals(expected.exitLeft, actual.exitLeft, 0f);
+        assertEquals(expected.exitTop, actual.exitTop, 0f);
+        assertEquals(expected.exitRight, actual.exitRight, 0f);
+        assertEquals(expected.exitBottom, actual.exitBottom, 0f);
+        assertEquals(expected.wallCount, actual.wallCount);
+        assertArrayEquals(Arrays.copyOf(expected.left, expected.wallCount), actual.left, 0f);
+        assertArrayEquals(Arrays.copyOf(expected.top, expected.wallCount), actual.top, 0f);
+        assertArrayEquals(Arrays.copyOf(expected.right, expected.wallCount), actual.right, 0f);
+        assertArrayEquals(Arrays.copyOf(expected.bottom, expected.wallCount), actual.bottom, 0f);
+    }
+
+    // Los tres niveles tal y como estaban escritos a mano en GameView.loadLevel
+    static List<LevelData> originalLevels() {
+        List<LevelData> levels = new ArrayList<>();
+
+        List<float[]> w = new ArrayList<>();
+        w.add(new float[]{10, 100, 300, 100 + WALL_THICKNESS});
+        w.add(new float[]{400, 100, 1000, 100 + WALL_THICKNESS});
+        w.add(new float[]{100, 100, 100 + WALL_THICKNESS, 400});
+        w.add(new float[]{100, 400, 500, 400 + WALL_THICKNESS});
+        w.add(new float[]{600, 400, 1000, 400 + WALL_THICKNESS});
+        w.add(new float[]{300, 500, 300 + WALL_THICKNESS, 800});
+        w.add(new float[]{400, 600, 900, 600 + WALL_THICKNESS});
+        w.add(new float[]{600, 200, 600 + WALL_THICKNESS, 600});
+        w.add(new float[]{10, 800, 700, 800 + WALL_THICKNESS});
+        w.add(new float[]{100, 900, 100 + WALL_THICKNESS, 1400});
+        w.add(new float[]{200, 1000, 800, 1000 + WALL_THICKNESS});
+        w.add(new float[]{500, 900, 500 + WALL_THICKNESS, 1200});
+        w.add(new float[]{10, 1300, 400, 1300 + WALL_THICKNESS});
+        w.add(new float[]{900, 1300, 900 + WALL_THICKNESS, 1600});
+        addBorders(w);
+        w.add(new float[]{0, 1700, MAX_X_DESIGN, MAX_Y_DESIGN});
+        levels.add(level(0xFFA0522D, 0xFFFF0000, 0xFF00FF00, PlayerShape.CIRCLE, 450, 1700, 650, MAX_Y_DESIGN, w));
+
+        w = new ArrayList<>();
+        w.add(new float[]{100, 100, 900, 100 + WALL_THICKNESS});
+        w.add(new float[]{900 - WALL_THICKNESS, 100 + WALL_THICKNESS, 900, 1500});
+        w.add(new float[]{100, 1500 - WALL_THICKNESS, 900 - WALL_THICKNESS, 1500});
+        w.add(new float[]{100, 200, 100 + WALL_THICKNESS, 1500 - WALL_THICKNESS});
+        w.add(new float[]{200, 200, 800, 200 + WALL_THICKNESS});
+        w.add(new float[]{800 - WALL_THICKNESS, 200 + WALL_THICKNESS, 800, 1400});
+        w.add(new float[]{200, 1400 - WALL_THICKNESS, 800 - WALL_THICKNESS, 1400});
+        w.add(new float[]{200, 300, 200 + WALL_THICKNESS, 1400 - WALL_THICKNESS});
+        w.add(new float[]{300, 300, 700, 300 + WALL_THICKNESS});
+        w.add(new float[]{700 - WALL_THICKNESS, 300 + WALL_THICKNESS, 700, 1300});
+        w.add(new float[]{300, 1300 - WALL_THICKNESS, 700 - WALL_THICKNESS, 1300});
+        w.add(new float[]{300, 400, 300 + WALL_THICKNESS, 1300 - WALL_THICKNESS});
+        w.add(new float[]{400, 400, 600, 400 + WALL_THICKNESS});
+        w.add(new float[]{600 - WALL_THICKNESS, 400 + WALL_THICKNESS, 600, 1200});
+        w.add(new float[]{400, 1200 - WALL_THICKNESS, 600 - WALL_THICKNESS, 1200});
+        w.add(new float[]{400, 500, 400 + WALL_THICKNESS, 1200 - WALL_THICKNESS});
+        w.add(new float[]{500 - WALL_THICKNESS / 2, 500, 500 + WALL_THICKNESS / 2, 800});
+        w.add(new float[]{500 - WALL_THICKNESS / 2, 900, 500 + WALL_THICKNESS / 2, 1100});
+        addBorders(w);
+        w.add(new float[]{0, 1700, MAX_X_DESIGN, MAX_Y_DESIGN});
+        levels.add(level(0xFF4682B4, 0xFF0000FF, 0xFFFFFF00, PlayerShape.SQUARE, 400, 800, 600, 900, w));
+
+        w = new ArrayList<>();
+        w.add(new float[]{10, 200, 300, 200 + WALL_THICKNESS});
+        w.add(new float[]{500, 200, 1000, 200 + WALL_THICKNESS});
+        w.add(new float[]{400, 200 + WALL_THICKNESS, 400 + WALL_THICKNESS, 600});
+        w.add(new float[]{100, 400, 400, 400 + WALL_THICKNESS});
+        w.add(new float[]{500, 400, 900, 400 + WALL_THICKNESS});
+        w.add(new float[]{600, 400 + WALL_THICKNESS, 600 + WALL_THICKNESS, 800});
+        w.add(new float[]{10, 600, 500, 600 + WALL_THICKNESS});
+        w.add(new float[]{700, 600, 1000, 600 + WALL_THICKNESS});
+        w.add(new float[]{200, 600 + WALL_THICKNESS, 200 + WALL_THICKNESS, 1000});
+        w.add(new float[]{300, 800, 700, 800 + WALL_THICKNESS});
+        w.add(new float[]{800, 800, 1000, 800 + WALL_THICKNESS});
+        w.add(new float[]{800, 800 + WALL_THICKNESS, 800 + WALL_THICKNESS, 1200});
+        w.add(new float[]{10, 1000, 200, 1000 + WALL_THICKNESS});
+        w.add(new float[]{300, 1000, 700, 1000 + WALL_THICKNESS});
+        w.add(new float[]{900, 1000, 1000, 1000 + WALL_THICKNESS});
+        w.add(new float[]{500, 1000 + WALL_THICKNESS, 500 + WALL_THICKNESS, 1400});
+        w.add(new float[]{10, 1400, 400, 1400 + WALL_THICKNESS});
+        w.add(new float[]{600, 1400, 1000, 1400 + WALL_THICKNESS});
+        w.add(new float[]{700, 1500, 700 + WALL_THICKNESS, 1700});
+        w.add(new float[]{300, 1500, 300 + WALL_THICKNESS, 1700});
+        w.add(new float[]{700 + WALL_THICKNESS, 1600, 1000, 1600 + WALL_THICKNESS});
+        w.add(new float[]{10, 1600, 300, 1600 + WALL_THICKNESS});
+        addBorders(w);
+        w.add(new float[]{0, 1700, 450, MAX_Y_DESIGN});
+        w.add(new float[]{650, 1700, MAX_X_DESIGN, MAX_Y_DESIGN});
+        levels.add(level(0xFF4B0082, 0xFFFF00FF, 0xFFFF0000, PlayerShape.CIRCLE, 450, 1700, 650, MAX_Y_DESIGN, w));
+
+        return levels;
+    }
+
+    private static void addBorders(List<float[]> walls) {
+        walls.add(new float[]{0, 0, BORDER_WIDTH, MAX_Y_DESIGN});
+        walls.add(new float[]{1000, 0, MAX_X_DESIGN, MAX_Y_DESIGN});
+        walls.add(new float[]{0, 0, MAX_X_DESIGN, BORDER_WIDTH});
+    }
+
+    private static LevelData level(int background, int ball, int exit, PlayerShape shape,
+                                   float exitLeft, float exitTop, float exitRight, float exitBottom,
+                                   List<float[]> walls) {
+        int n = walls.size();
+        float[] l = new float[n], t = new float[n], r = new float[n], b = new float[n];
+        for (int i = 0; i < n; i++) {
+            float[] wall = walls.get(i);
+            l[i] = wall[0];
+            t[i] = wall[1];
+            r[i] = wall[2];
+            b[i] = wall[3];
+        }
+        return new LevelData(background, DKGRAY, ball, exit, shape,
+                exitLeft, exitTop, exitRight, exitBottom, l, t, r, b, n);
+    }
+}
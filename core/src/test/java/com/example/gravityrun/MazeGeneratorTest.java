@@ -0,0 +1,78 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MazeGeneratorTest {
+
+    @Test
+    public void sameSeedSameMaze() {
+        LevelData a = MazeGenerator.generate(40, 30, 1234);
+        LevelData b = MazeGenerator.generate(40, 30, 1234);
+        LevelData c = MazeGenerator.generate(40, 30, 1235);
+
+        assertEquals(a.wallCount, b.wallCount);
+        assertArrayEquals(a.left, b.left, 0f);
+        assertArrayEquals(a.top, b.top, 0f);
+        assertArrayEquals(a.right, b.right, 0f);
+        assertArrayEquals(a.bottom, b.bottom, 0f);
+        assertFalse(a.wallCount == c.wallCount
+                && Arrays.equals(a.left, c.left) && Arrays.equals(a.top, c.top));
+    }
+
+    @Test
+    public void everyCellIsReachableFromTheStart() {
+        int cols = 30, rows = 25;
+        LevelData maze = MazeGenerator.generate(cols, rows, 99);
+        WallGrid grid = WallGrid.build(maze.left, maze.top, maze.right, maze.bottom, maze.wallCount, 100);
+
+        // Inundación entre centros de celda: el paso está abierto si la franja entre ellos no toca muros
+        boolean[] seen = new boolean[cols * rows];
+        int[] queue = new int[cols * rows];
+        int head = 0, tail = 0;
+        queue[tail++] = 0;
+        seen[0] = true;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % cols, y = cell / cols;
+            float cx = MazeGenerator.cellCenter(x), cy = MazeGenerator.cellCenter(y);
+            if (x + 1 < cols && !seen[cell + 1]
+                    && !grid.intersectsAny(cx, cy - 1, MazeGenerator.cellCenter(x + 1), cy + 1)) {
+                seen[cell + 1] = true;
+                queue[tail++] = cell + 1;
+            }
+            if (x > 0 && !seen[cell - 1]
+                    && !grid.intersectsAny(MazeGenerator.cellCenter(x - 1), cy - 1, cx, cy + 1)) {
+                seen[cell - 1] = true;
+                queue[tail++] = cell - 1;
+            }
+            if (y + 1 < rows && !seen[cell + cols]
+                    && !grid.intersectsAny(cx - 1, cy, cx + 1, MazeGenerator.cellCenter(y + 1))) {
+                seen[cell + cols] = true;
+                queue[tail++] = cell + cols;
+            }
+            if (y > 0 && !seen[cell - cols]
+                    && !grid.intersectsAny(cx - 1, MazeGenerator.cellCenter(y - 1), cx + 1, cy)) {
+                seen[cell - cols] = true;
+                queue[tail++] = cell - cols;
+            }
+        }
+        assertEquals(cols * rows, tail);
+
+        // El inicio coincide con el de los niveles originales y la bola cabe en él
+        assertEquals(60f, MazeGenerator.cellCenter(0), 0f);
+        assertFalse(grid.intersectsAny(30, 30, 90, 90));
+    }
+
+    @Test
+    public void generatesLargeMazeWithBoundedWalls() {
+        LevelData maze = MazeGenerator.generate(500, 500, 7);
+        // Un laberinto perfecto tiene como mucho un tramo por arista de la rejilla
+        assertTrue(maze.wallCount > 0);
+        assertTrue(maze.wallCount <= 2 * 501 * 500);
+        assertEquals(500 * 100, maze.exitRight, 0f);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PowerGovernorTest {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long FRAME = SECOND / 60;
+
+    @Test
+    public void registersOnlyTheSensorsTheStateUses() {
+        PowerGovernor power = new PowerGovernor();
+        assertPlan(power, PowerGovernor.OFF, PowerGovernor.OFF, PowerGovernor.OFF);
+
+        power.onStateChanged(GameState.RUNNING, 0);
+        assertTrue(power.takePlanChange());
+        assertPlan(power, PowerGovernor.FAST_PERIOD_US, PowerGovernor.NORMAL_PERIOD_US, PowerGovernor.NORMAL_PERIOD_US);
+
+        power.onStateChanged(GameState.PAUSED, 1);
+        assertPlan(power, PowerGovernor.OFF, PowerGovernor.NORMAL_PERIOD_US, PowerGovernor.OFF);
+
+        power.onStateChanged(GameState.WON, 2);
+        assertPlan(power, PowerGovernor.OFF, PowerGovernor.OFF, PowerGovernor.OFF);
+
+        power.onStateChanged(GameState.RUNNING, 3);
+        power.setForeground(false, 4);
+        assertPlan(power, PowerGovernor.OFF, PowerGovernor.OFF, PowerGovernor.OFF);
+        assertTrue(power.takePlanChange());
+        assertFalse(power.takePlanChange());
+    }
+
+    @Test
+    public void stableTiltSlowsTheAccelerometerAndMotionRestoresIt() {
+        PowerGovernor power = new PowerGovernor();
+        power.onStateChanged(GameState.RUNNING, 0);
+
+        long t = 0;
+        for (; t <= PowerGovernor.STABLE_TILT_NANOS; t += 20_000_000L) {
+            power.onTilt(1f + (t % 3) * 0.01f, -2f, t); // Ruido por debajo de la tolerancia
+        }
+        assertEquals(PowerGovernor.SLOW_PERIOD_US, power.periodUs(PowerGovernor.ACCELEROMETER));
+
+        power.onTilt(3f, -2f, t);
+        assertEquals(PowerGovernor.FAST_PERIOD_US, power.periodUs(PowerGovernor.ACCELEROMETER));
+    }
+
+    @Test
+    public void stopsDrawingAtRestAndWakesOnNewTilt() {
+        PowerGovernor power = new PowerGovernor();
+        power.onStateChanged(GameState.RUNNING, 0);
+        power.onTilt(0.5f, 0f, 0);
+
+        long t = 0;
+        boolean drawing = true;
+        for (int i = 0; i < 30; i++, t += FRAME) {
+            assertTrue(power.onFrame(100 + i, 200, t)); // La bola se mueve
+        }
+        for (int i = 0; i < 120 && drawing; i++, t += FRAME) {
+            drawing = power.onFrame(130, 200, t); // Contra una pared
+        }
+        assertFalse(drawing);
+        assertTrue(power.isIdle());
+        assertEquals(PowerGovernor.SLOW_PERIOD_US, power.periodUs(PowerGovernor.ACCELEROMETER));
+
+        // La misma inclinación no despierta; una distinta sí
+        assertFalse(power.acceptTilt(0.55f, 0.05f));
+        assertFalse(power.resumeIfWoken(t));
+        assertTrue(power.acceptTilt(-1f, 0f));
+        assertTrue(power.resumeIfWoken(t + FRAME));
+        assertFalse(power.isIdle());
+        assertEquals(PowerGovernor.FAST_PERIOD_US, power.periodUs(PowerGovernor.ACCELEROMETER));
+    }
+
+    @Test
+    public void animatedPlayerNeverRests() {
+        PowerGovernor power = new PowerGovernor();
+        power.onStateChanged(GameState.RUNNING, 0);
+        power.setAnimated(true);
+        for (long t = 0; t < 5 * SECOND; t += FRAME) {
+            assertTrue(power.onFrame(60, 60, t));
+        }
+    }
+
+    @Test
+    public void countsSavingsPerMinute() {
+        PowerGovernor power = new PowerGovernor();
+        power.setRefreshRate(60f);
+        power.onStateChanged(GameState.LEVEL_SELECT, 0);
+
+        // Un minuto en el menú: antes estaban los tres sensores registrados (50 + 5 + 5 Hz)
+        assertEquals(3600, power.sensorEventsSavedPerMinute(60 * SECOND), 1e-6);
+        assertEquals(0, power.framesSavedPerMinute(60 * SECOND), 1e-6);
+
+        // Un minuto en reposo: ningún frame y el acelerómetro a 15 Hz en vez de 50
+        power.onStateChanged(GameState.RUNNING, 60 * SECOND);
+        long t = 60 * SECOND;
+        while (power.onFrame(60, 60, t)) {
+            t += FRAME;
+        }
+        double framesBefore = power.framesSaved(t);
+        double eventsBefore = power.sensorEventsSaved(t);
+        assertEquals(60 * 60, power.framesSaved(t + 60 * SECOND) - framesBefore, 1e-6);
+        assertEquals(60 * (50 - 1e6 / PowerGovernor.SLOW_PERIOD_US),
+                power.sensorEventsSaved(t + 60 * SECOND) - eventsBefore, 1e-6);
+
+        // En segundo plano no se cuenta nada
+        power.setForeground(false, t + 60 * SECOND);
+        double frames = power.framesSaved(t + 600 * SECOND);
+        assertEquals(frames, power.framesSaved(t + 1200 * SECOND), 0);
+    }
+
+    private static void assertPlan(PowerGovernor power, int accelerometer, int proximity, int light) {
+        assertEquals(accelerometer, power.periodUs(PowerGovernor.ACCELEROMETER));
+        assertEquals(proximity, power.periodUs(PowerGovernor.PROXIMITY));
+        assertEquals(light, power.periodUs(PowerGovernor.LIGHT));
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class RaceServerTest {
+
+    @Test
+    public void clientsSeeEachOtherThroughTheServer() throws Exception {
+        RaceServer server = RaceServer.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                room(), GameSimulation.RACE_LEVEL);
+        RaceClient a = RaceClient.connect(server.address());
+        RaceClient b = RaceClient.connect(server.address());
+        try {
+            a.join(0);
+            b.join(0);
+            long now = 0;
+            for (int i = 0; i < 200 && (a.slot() < 0 || b.slot() < 0 || a.latestTick() < 30); i++) {
+                now += RaceServer.TICK_NANOS;
+                server.receive(now);
+                server.tick(now);
+                Thread.sleep(1);
+                a.poll(now);
+                b.poll(now);
+                a.sendInput(-5f, 0); // Hacia la derecha, como en GameSimulationTest
+                b.sendInput(0, 0);
+            }
+            assertNotEquals(a.slot(), b.slot());
+            assertEquals(GameSimulation.RACE_LEVEL, b.level());
+
+            a.interpolate(now);
+            b.interpolate(now);
+            // b ve rodar a a; a ve a b quieto en la salida
+            assertTrue(b.present(a.slot()));
+            assertTrue(b.x(a.slot()) > GameSimulation.ORIGINAL_START_X + 10);
+            assertEquals(GameSimulation.ORIGINAL_START_X, a.x(b.slot()), 0.1f);
+            assertEquals(GameState.RUNNING, a.state(b.slot()));
+            assertEquals(0, a.missingBase());
+            // Con rivales en pantalla, GameView repinta entero (no solo la caja del jugador)
+            RenderFrame frame = new RenderFrame();
+            frame.captureRace(b);
+            assertEquals(1, frame.ghostCount);
+            assertTrue(frame.hasMovingExtras());
+
+            b.close();
+            for (int i = 0; i < 50 && server.players() > 1; i++) {
+                Thread.sleep(1);
+                server.receive(now);
+            }
+            assertEquals(1, server.players());
+        } finally {
+            a.close();
+            server.close();
+        }
+    }
+
+    @Test
+    public void sixtyFourClientsOnLoopback() throws IOException {
+        RaceLoadHarness.Result result = RaceLoadHarness.run(room(), RaceSnapshot.MAX_PLAYERS, 1_000_000_000L);
+        assertEquals(RaceSnapshot.MAX_PLAYERS, result.joined);
+        // Holgado para máquinas cargadas; la tarea raceLoadTest pide el 90 %
+        assertTrue("fotos/s " + result.minSnapshotsPerSecond(),
+                result.minSnapshotsPerSecond() > RaceServer.TICK_HZ / 2);
+        assertTrue("bytes/foto " + result.bytesPerSnapshot(),
+                result.bytesPerSnapshot() < RaceSnapshot.MAX_BYTES);
+    }
+
+    @Test
+    public void welcomeOutOfRangeIsIgnored() throws Exception {
+        try (DatagramChannel fake = DatagramChannel.open()) {
+            fake.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            RaceClient client = RaceClient.connect((InetSocketAddress) fake.getLocalAddress());
+            try {
+                client.join(0);
+                ByteBuffer join = ByteBuffer.allocate(16);
+                SocketAddress from = fake.receive(join);
+
+                // Ritmo 0 (dividiría por cero), ritmo negativo y plaza fuera de la foto
+                welcome(fake, from, 3, 0);
+                welcome(fake, from, 3, -60);
+                welcome(fake, from, RaceSnapshot.MAX_PLAYERS, RaceServer.TICK_HZ);
+                pollFor(client, 3 * 4);
+                assertEquals(-1, client.slot());
+
+                welcome(fake, from, 3, RaceServer.TICK_HZ);
+                pollFor(client, 4);
+                assertEquals(3, client.slot());
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    private static void welcome(DatagramChannel fake, SocketAddress to, int slot, int tickHz) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(4);
+        out.put(RaceServer.WELCOME).put((byte) slot).put((byte) 0).put((byte) tickHz);
+        out.flip();
+        fake.send(out, to);
+    }
+
+    // Hasta que han llegado los bytes esperados (o un rato)
+    private static void pollFor(RaceClient client, long bytes) throws Exception {
+        long start = client.bytesReceived();
+        for (int i = 0; i < 200 && client.bytesReceived() - start < bytes; i++) {
+            Thread.sleep(1);
+            client.poll(0);
+        }
+        assertEquals(bytes, client.bytesReceived() - start);
+    }
+
+    // Una sala vacía con la meta lejos a la derecha
+    private static LevelPack room() throws IOException {
+        LevelData room = new LevelData(0xFF000000, 0xFF444444, 0xFFFFFFFF, 0xFF00FF00, PlayerShape.CIRCLE,
+                900, 20, 1000, 100,
+                new float[]{0}, new float[]{0}, new float[]{1010}, new float[]{10}, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        LevelPack.write(Collections.singletonList(room), out);
+        return LevelPack.wrap(out.toByteArray());
+    }
+}
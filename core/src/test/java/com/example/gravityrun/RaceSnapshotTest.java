@@ -0,0 +1,79 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class RaceSnapshotTest {
+
+    @Test
+    public void deltaRoundTripsAgainstItsBase() {
+        RaceSnapshot base = new RaceSnapshot();
+        base.tick = 10;
+        base.set(0, 60, 60, PlayerShape.CIRCLE, GameState.RUNNING);
+        base.set(5, 500.5f, 1200.25f, PlayerShape.SQUARE, GameState.RUNNING);
+        base.set(63, 900, 30, PlayerShape.TRIANGLE, GameState.RUNNING);
+
+        RaceSnapshot next = new RaceSnapshot();
+        next.tick = 12;
+        next.set(0, 75.3f, 58.1f, PlayerShape.CIRCLE, GameState.RUNNING);
+        next.set(5, 500.5f, 1200.25f, PlayerShape.SQUARE, GameState.WON);
+        next.set(7, 100, 100, PlayerShape.CIRCLE, GameState.RUNNING); // Nuevo; el 63 se fue
+
+        ByteBuffer buffer = ByteBuffer.allocate(RaceSnapshot.MAX_BYTES);
+        next.encodeDelta(base, buffer);
+        buffer.flip();
+        assertEquals(10, RaceSnapshot.baseTickOf(buffer));
+
+        RaceSnapshot decoded = new RaceSnapshot();
+        assertTrue(decoded.decodeDelta(buffer, base));
+        assertFalse(buffer.hasRemaining());
+        assertEquals(12, decoded.tick);
+        assertEquals(3, decoded.playerCount());
+        assertEquals(75.3f, decoded.x(0), 0.5f / RaceSnapshot.POSITION_SCALE);
+        assertEquals(58.1f, decoded.y(0), 0.5f / RaceSnapshot.POSITION_SCALE);
+        assertEquals(GameState.WON, decoded.state(5));
+        assertEquals(PlayerShape.SQUARE, decoded.shape(5));
+        assertTrue(decoded.present(7));
+        assertFalse(decoded.present(63));
+    }
+
+    @Test
+    public void stillBallsCostNothingAndFullSnapshotsNeedNoBase() {
+        RaceSnapshot snapshot = new RaceSnapshot();
+        snapshot.tick = 3;
+        for (int slot = 0; slot < RaceSnapshot.MAX_PLAYERS; slot++) {
+            snapshot.set(slot, slot * 10, 1700, PlayerShape.CIRCLE, GameState.RUNNING);
+        }
+        ByteBuffer full = ByteBuffer.allocate(RaceSnapshot.MAX_BYTES);
+        snapshot.encodeDelta(null, full);
+        assertTrue(full.position() <= RaceSnapshot.MAX_BYTES);
+        full.flip();
+        assertEquals(RaceSnapshot.NO_BASE, RaceSnapshot.baseTickOf(full));
+        RaceSnapshot decoded = new RaceSnapshot();
+        assertTrue(decoded.decodeDelta(full, null));
+        assertEquals(RaceSnapshot.MAX_PLAYERS, decoded.playerCount());
+        assertEquals(630f, decoded.x(63), 0f);
+
+        RaceSnapshot same = new RaceSnapshot();
+        same.copyFrom(snapshot);
+        same.tick = 4;
+        ByteBuffer delta = ByteBuffer.allocate(RaceSnapshot.MAX_BYTES);
+        same.encodeDelta(snapshot, delta);
+        assertEquals(RaceSnapshot.HEADER_BYTES, delta.position());
+    }
+
+    @Test
+    public void truncatedDeltaIsRejected() {
+        RaceSnapshot snapshot = new RaceSnapshot();
+        snapshot.tick = 1;
+        snapshot.set(2, 300, 400, PlayerShape.CIRCLE, GameState.RUNNING);
+        ByteBuffer buffer = ByteBuffer.allocate(RaceSnapshot.MAX_BYTES);
+        snapshot.encodeDelta(null, buffer);
+        buffer.flip();
+        buffer.limit(buffer.limit() - 2);
+        assertFalse(new RaceSnapshot().decodeDelta(buffer, null));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RenderBufferTest {
+
+    @Test
+    public void readerSeesTheLatestPublishedFrame() {
+        RenderBuffer buffer = new RenderBuffer();
+        assertFalse(buffer.hasFresh());
+
+        buffer.back().level = 1;
+        buffer.publish();
+        buffer.back().level = 2;
+        buffer.publish();
+        assertTrue(buffer.hasFresh());
+        // El frame 1 se ha saltado: solo interesa el último
+        RenderFrame frame = buffer.acquire();
+        assertEquals(2, frame.level);
+        assertFalse(buffer.hasFresh());
+        assertSame(frame, buffer.acquire());
+
+        // Lo que el escritor rellena nunca es lo que el lector tiene en la mano
+        buffer.back().level = 3;
+        assertNotSame(frame, buffer.back());
+        assertEquals(2, frame.level);
+    }
+
+    @Test
+    public void framesAreNeverTornAcrossThreads() throws InterruptedException {
+        RenderBuffer buffer = new RenderBuffer();
+        int frames = 200_000;
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= frames; i++) {
+                RenderFrame back = buffer.back();
+                back.level = i;
+                back.ballsHome = i;
+                back.chaserCount = i;
+                buffer.publish();
+            }
+        });
+        writer.start();
+
+        int last = 0;
+        while (last < frames) {
+            RenderFrame frame = buffer.acquire();
+            assertEquals(frame.level, frame.ballsHome);
+            assertEquals(frame.level, frame.chaserCount);
+            assertTrue(frame.level >= last);
+            last = frame.level;
+        }
+        writer.join();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.gravityrun;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class RunJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void bestsSurviveReopeningFromTheIndex() throws IOException {
+        File dir = folder.getRoot();
+        RunJournal journal = RunJournal.open(dir, DIRECT);
+        assertTrue(journal.record(run(2, 9_000_000_000L)));
+        assertTrue(journal.record(run(2, 7_000_000_000L)));
+        assertFalse(journal.record(run(2, 8_000_000_000L)));
+        assertTrue(journal.record(run(3, 5_000_000_000L)));
+        assertEquals(7_000_000_000L, journal.bestNanos(2));
+
+        RunJournal reopened = RunJournal.open(dir, DIRECT);
+        assertEquals(0, reopened.replayedAtOpen());
+        assertEquals(7_000_000_000L, reopened.bestNanos(2));
+        assertEquals(700_000_000L, reopened.bestSplitNanos(2, 0));
+        assertEquals(5_000_000_000L, reopened.bestNanos(3));
+        assertEquals(RunJournal.NO_TIME, reopened.bestNanos(1));
+        assertEquals(3, reopened.runs(2));
+        assertEquals(4, reopened.totalRuns());
+    }
+
+    @Test
+    public void writesAreBatchedOnTheFlushExecutor() {
+        List<Runnable> scheduled = new ArrayList<>();
+        RunJournal journal = RunJournal.open(folder.getRoot(), scheduled::add);
+        journal.record(run(1, 3_000_000_000L));
+        journal.record(run(1, 2_000_000_000L));
+        assertEquals(1, scheduled.size());
+        assertEquals(0, journal.recordsWritten());
+
+        scheduled.get(0).run();
+        assertEquals(1, journal.flushes());
+        assertEquals(2, journal.recordsWritten());
+    }
+
+    @Test
+    public void journalTailBeyondTheIndexIsReplayed() throws IOException {
+        File dir = folder.getRoot();
+        RunJournal journal = RunJournal.open(dir, DIRECT);
+        journal.record(run(1, 4_000_000_000L));
+        File index = new File(dir, RunJournal.INDEX_FILE);
+        byte[] oldIndex = Files.readAllBytes(index.toPath());
+        journal.record(run(1, 3_000_000_000L));
+        // Muerte entre el diario y el índice: el índice se queda atrás
+        Files.write(index.toPath(), oldIndex);
+
+        RunJournal reopened = RunJournal.open(dir, DIRECT);
+        assertEquals(1, reopened.replayedAtOpen());
+        assertEquals(3_000_000_000L, reopened.bestNanos(1));
+        assertEquals(2, reopened.runs(1));
+
+        // Y sin índice, el diario entero
+        assertTrue(index.delete());
+        reopened = RunJournal.open(dir, DIRECT);
+        assertEquals(2, reopened.replayedAtOpen());
+        assertEquals(3_000_000_000L, reopened.bestNanos(1));
+    }
+
+    @Test
+    public void tornRecordIsDropped() throws IOException {
+        File dir = folder.getRoot();
+        RunJournal journal = RunJournal.open(dir, DIRECT);
+        journal.record(run(1, 4_000_000_000L));
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, RunJournal.JOURNAL_FILE), "rw")) {
+            file.seek(file.length());
+            file.write(new byte[RunJournal.RECORD_BYTES / 2]);
+        }
+        new File(dir, RunJournal.INDEX_FILE).delete();
+
+        RunJournal reopened = RunJournal.open(dir, DIRECT);
+        assertEquals(1, reopened.replayedAtOpen());
+        reopened.record(run(1, 2_000_000_000L));
+        assertEquals(2, reopened.history(1, 10).size());
+        assertEquals(2_000_000_000L, reopened.history(1, 10).get(0).nanos);
+    }
+
+    @Test
+    public void failedIndexWriteDoesNotWriteTheBatchTwice() throws IOException {
+        File dir = folder.getRoot();
+        // Un directorio no vacío en el sitio del índice: el renombrado del índice falla
+        File index = new File(dir, RunJournal.INDEX_FILE);
+        assertTrue(index.mkdir());
+        assertTrue(new File(index, "bloqueo").createNewFile());
+
+        RunJournal journal = RunJournal.open(dir, DIRECT);
+        journal.record(run(1, 4_000_000_000L));
+        assertEquals(1, journal.writeErrors());
+        assertEquals(1, journal.recordsWritten());
+
+        assertTrue(new File(index, "bloqueo").delete());
+        assertTrue(index.delete());
+        journal.record(run(1, 3_000_000_000L));
+        assertEquals(2, journal.recordsWritten());
+        assertEquals(2, journal.history(1, 10).size());
+
+        RunJournal reopened = RunJournal.open(dir, DIRECT);
+        assertEquals(0, reopened.replayedAtOpen());
+        assertEquals(2, reopened.runs(1));
+        assertEquals(2, reopened.totalRuns());
+        assertEquals(3_000_000_000L, reopened.bestNanos(1));
+    }
+
+    @Test
+    public void compactionKeepsRecentRunsAndTheBest() throws IOException {
+        File dir = folder.getRoot();
+        List<Runnable> scheduled = new ArrayList<>();
+        RunJournal journal = RunJournal.open(dir, scheduled::add);
+        journal.record(run(1, 1_000_000_000L)); // La mejor, y la más antigua
+        for (int i = 0; i < RunJournal.COMPACT_RECORDS; i++) {
+            journal.record(run(1 + i % 2, 10_000_000_000L + i));
+        }
+        scheduled.get(0).run();
+        assertEquals(1, journal.compactions());
+        // Las últimas de cada nivel y la mejor de cada uno (también antigua en el nivel 2)
+        assertEquals(8 + (2 * RunJournal.KEEP_PER_LEVEL + 2) * (long) RunJournal.RECORD_BYTES, journal.journalBytes());
+
+        List<RunJournal.Run> history = journal.history(1, Integer.MAX_VALUE);
+        assertEquals(RunJournal.KEEP_PER_LEVEL + 1, history.size());
+        assertEquals(1_000_000_000L, history.get(history.size() - 1).nanos);
+
+        new File(dir, RunJournal.INDEX_FILE).delete();
+        RunJournal reopened = RunJournal.open(dir, DIRECT);
+        assertEquals(1_000_000_000L, reopened.bestNanos(1));
+    }
+
+    private static RunJournal.Run run(int level, long nanos) {
+        return new RunJournal.Run(level, nanos,
+                new long[]{nanos / 10, nanos / 2, RunTimer.NOT_REACHED}, 1_700_000_000_000L);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SensorRingBufferTest {
+
+    @Test
+    public void dropsNewSamplesWhenFull() {
+        SensorRingBuffer buffer = new SensorRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(1, i, i, 0, 0));
+        }
+        assertFalse(buffer.offer(1, 4, 4, 0, 0));
+        assertEquals(1, buffer.dropped());
+
+        final long[] last = {-1};
+        assertEquals(4, buffer.drain((type, ts, v0, v1, v2) -> last[0] = ts, 16));
+        assertEquals(3, last[0]);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    public void deliversSamplesInOrderAcrossThreads() throws InterruptedException {
+        final SensorRingBuffer buffer = new SensorRingBuffer(64);
+        final int total = 200_000;
+
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total; ) {
+                if (buffer.offer(1, i, i, -i, 2 * i)) {
+                    i++;
+                }
+            }
+        });
+        producer.start();
+
+        final long[] expected = {0};
+        while (expected[0] < total) {
+            buffer.drain((type, ts, v0, v1, v2) -> {
+                assertEquals(expected[0], ts);
+                assertEquals((float) expected[0], v0, 0f);
+                assertEquals((float) -expected[0], v1, 0f);
+                assertEquals((float) (2 * expected[0]), v2, 0f);
+                expected[0]++;
+            }, 16);
+        }
+        producer.join();
+        assertEquals(0, buffer.size());
+    }
+}
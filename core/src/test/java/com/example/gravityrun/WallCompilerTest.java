@@ -0,0 +1,102 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WallCompilerTest {
+
+    @Test
+    public void mergesRepeatedSplitAndHiddenWalls() {
+        LevelData level = walls(
+                0, 0, 10, 1710,        // Borde izquierdo...
+                0, 0, 10, 1710,        // ...repetido
+                1000, 0, 1010, 800,    // Borde derecho en dos tramos que se tocan
+                1000, 800, 1010, 1710,
+                0, 0, 1010, 10,        // Borde superior
+                200, 0, 400, 10,       // Tapado por el superior
+                100, 100, 300, 120,    // Tramo que se solapa con el siguiente
+                250, 100, 600, 120);
+        LevelData compiled = WallCompiler.compile(level);
+
+        assertEquals(4, compiled.wallCount);
+        assertSameArea(level, compiled);
+        assertEquals(level.exitLeft, compiled.exitLeft, 0f);
+        assertEquals(level.wallColor, compiled.wallColor);
+    }
+
+    @Test
+    public void compiledLevelsCoverTheSameArea() {
+        List<LevelData> levels = LevelPackTest.originalLevels();
+        levels.add(MazeGenerator.generate(40, 40, 7));
+        for (LevelData level : levels) {
+            LevelData compiled = WallCompiler.compile(level);
+            assertTrue(compiled.wallCount <= level.wallCount);
+            assertSameArea(level, compiled);
+        }
+    }
+
+    @Test
+    public void levelsThatCannotShrinkAreLeftAlone() {
+        // Una L: dos muros, ninguno sobra y no caben en un rectángulo
+        LevelData level = walls(0, 0, 100, 20, 0, 0, 20, 100);
+        assertSame(level, WallCompiler.compile(level));
+    }
+
+    // Las dos zonas son uniones de rectángulos alineados a los ejes: basta comparar un punto
+    // interior de cada celda de la rejilla formada por todos los bordes
+    private static void assertSameArea(LevelData expected, LevelData actual) {
+        float[] xs = edges(expected.left, expected.right, actual.left, actual.right);
+        float[] ys = edges(expected.top, expected.bottom, actual.top, actual.bottom);
+        WallGrid a = grid(expected), b = grid(actual);
+        for (int j = 0; j + 1 < ys.length; j++) {
+            float y = (ys[j] + ys[j + 1]) / 2;
+            for (int i = 0; i + 1 < xs.length; i++) {
+                float x = (xs[i] + xs[i + 1]) / 2;
+                assertEquals("(" + x + ", " + y + ")", a.intersectsAny(x, y, x + 0.01f, y + 0.01f),
+                        b.intersectsAny(x, y, x + 0.01f, y + 0.01f));
+            }
+        }
+    }
+
+    private static float[] edges(float[]... arrays) {
+        int n = 0;
+        for (float[] a : arrays) n += a.length;
+        float[] all = new float[n];
+        int k = 0;
+        for (float[] a : arrays) {
+            System.arraycopy(a, 0, all, k, a.length);
+            k += a.length;
+        }
+        Arrays.sort(all);
+        return unique(all);
+    }
+
+    private static float[] unique(float[] sorted) {
+        int k = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (k == 0 || sorted[i] != sorted[k - 1]) sorted[k++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, k);
+    }
+
+    private static WallGrid grid(LevelData level) {
+        return WallGrid.build(level.left, level.top, level.right, level.bottom, level.wallCount, 100);
+    }
+
+    private static LevelData walls(float... coords) {
+        int n = coords.length / 4;
+        float[] l = new float[n], t = new float[n], r = new float[n], b = new float[n];
+        for (int i = 0; i < n; i++) {
+            l[i] = coords[i * 4];
+            t[i] = coords[i * 4 + 1];
+            r[i] = coords[i * 4 + 2];
+            b[i] = coords[i * 4 + 3];
+        }
+        return new LevelData(0xFF000000, 0xFF444444, 0xFFFF0000, 0xFF00FF00, PlayerShape.CIRCLE,
+                450, 1700, 650, 1710, l, t, r, b, n);
+    }
+}
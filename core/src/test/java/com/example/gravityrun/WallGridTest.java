@@ -0,0 +1,107 @@
+package com.example.gravityrun;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class WallGridTest {
+
+    @Test
+    public void matchesLinearScan() {
+        Random random = new Random(42);
+        int n = 2000;
+        float[] l = new float[n], t = new float[n], r = new float[n], b = new float[n];
+        for (int i = 0; i < n; i++) {
+            l[i] = random.nextFloat() * 5000;
+            t[i] = random.nextFloat() * 5000;
+            r[i] = l[i] + 1 + random.nextFloat() * 300;
+            b[i] = t[i] + 1 + random.nextFloat() * 20;
+        }
+        WallGrid grid = WallGrid.build(l, t, r, b, n, 100);
+
+        for (int q = 0; q < 5000; q++) {
+            float x = random.nextFloat() * 5400 - 200;
+            float y = random.nextFloat() * 5400 - 200;
+            float radius = 5 + random.nextFloat() * 40;
+
+            boolean expected = false;
+            for (int i = 0; i < n && !expected; i++) {
+                expected = x - radius < r[i] && l[i] < x + radius && y - radius < b[i] && t[i] < y + radius;
+            }
+            assertEquals(expected, grid.intersectsAny(x - radius, y - radius, x + radius, y + radius));
+        }
+    }
+
+    @Test
+    public void collectReturnsEachVisibleWallOnce() {
+        Random random = new Random(7);
+        int n = 1000;
+        float[] l = new float[n], t = new float[n], r = new float[n], b = new float[n];
+        for (int i = 0; i < n; i++) {
+            l[i] = random.nextFloat() * 3000;
+            t[i] = random.nextFloat() * 3000;
+            r[i] = l[i] + 1 + random.nextFloat() * 400;
+            b[i] = t[i] + 1 + random.nextFloat() * 400;
+        }
+        WallGrid grid = WallGrid.build(l, t, r, b, n, 100);
+        int[] out = new int[n];
+
+        for (int q = 0; q < 500; q++) {
+            float x = random.nextFloat() * 3400 - 200, y = random.nextFloat() * 3400 - 200;
+            float w = random.nextFloat() * 1200, h = random.nextFloat() * 1200;
+            boolean[] seen = new boolean[n];
+            int found = grid.collect(x, y, x + w, y + h, out);
+            for (int k = 0; k < found; k++) {
+                assertFalse(seen[out[k]]);
+                seen[out[k]] = true;
+            }
+            for (int i = 0; i < n; i++) {
+                assertEquals(x < r[i] && l[i] < x + w && y < b[i] && t[i] < y + h, seen[i]);
+            }
+        }
+    }
+
+    @Test
+    public void touchingEdgesDoNotCollide() {
+        WallGrid grid = WallGrid.build(new float[]{0}, new float[]{0}, new float[]{10}, new float[]{10}, 1, 4);
+        assertFalse(grid.intersectsAny(10, 0, 20, 10));
+        assertTrue(grid.intersectsAny(9.5f, 0, 20, 10));
+    }
+
+    @Test
+    public void emptyGridNeverCollides() {
+        WallGrid grid = WallGrid.build(new float[0], new float[0], new float[0], new float[0], 0, 50);
+        assertFalse(grid.intersectsAny(-100, -100, 100, 100));
+    }
+
+    @Test
+    public void sweepStopsAtThinWallInsteadOfTunnelling() {
+        // Muro de 20 unidades entre x=100 y x=120; la bola (semilado 10) salta 500 unidades
+        WallGrid grid = WallGrid.build(new float[]{100}, new float[]{0}, new float[]{120}, new float[]{1000}, 1, 50);
+        WallGrid.Contact contact = new WallGrid.Contact();
+
+        int n = grid.gatherCandidates(40, 490, 560, 510);
+        assertTrue(grid.sweepCandidates(n, 50, 500, 10, 500, 0, contact));
+        assertEquals(40f / 500f, contact.toi, 1e-6f);
+        assertEquals(-1f, contact.nx, 0f);
+        assertEquals(0f, contact.ny, 0f);
+        assertEquals(0, contact.wall);
+    }
+
+    @Test
+    public void slidingAlongTouchingFaceIsFree() {
+        // Bola apoyada sobre un suelo en y=100 moviéndose en horizontal
+        WallGrid grid = WallGrid.build(new float[]{0}, new float[]{100}, new float[]{1000}, new float[]{120}, 1, 50);
+        WallGrid.Contact contact = new WallGrid.Contact();
+
+        int n = grid.gatherCandidates(90, 80, 210, 100);
+        assertFalse(grid.sweepCandidates(n, 100, 90, 10, 100, 0, contact));
+
+        // Empujando hacia el suelo choca en t=0 con normal hacia arriba
+        assertTrue(grid.sweepCandidates(n, 100, 90, 10, 5, 5, contact));
+        assertEquals(0f, contact.toi, 0f);
+        assertEquals(-1f, contact.ny, 0f);
+    }
+}